@@ -1,8 +1,41 @@
+import service.BankingServer;
 import service.BankingService;
 
 public class BankingApp {
-    public static void main(String[] args) {
+    private static final int DEFAULT_PORT = 5050;
+    private static final int MAX_SESSIONS = 64;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    public static void main(String[] args) throws java.io.IOException {
+        // --server [port] serves the menu to concurrent socket clients instead of this console
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            new BankingServer(new service.UserManager(), MAX_SESSIONS).serve(port);
+            return;
+        }
+        // --batch <file> [batchSize] applies a file of transfers without the menu
+        if (args.length > 1 && args[0].equals("--batch")) {
+            int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_SIZE;
+            System.exit(runBatch(new java.io.File(args[1]), batchSize));
+        }
         BankingService bankingService = new BankingService();
         bankingService.start();
     }
+
+    private static int runBatch(java.io.File file, int batchSize) throws java.io.IOException {
+        service.UserManager userManager = new service.UserManager();
+        service.TimeManager timeManager = new service.TimeManager(userManager);
+        service.TransferService transferService = new service.TransferService(userManager, timeManager, new service.FraudDetector(), null, null);
+
+        int applied = 0;
+        java.util.List<service.TransferService.BatchResult> results = transferService.transferBatch(file, batchSize);
+        for (service.TransferService.BatchResult result : results) {
+            System.out.println(result);
+            if (result.isApplied()) {
+                applied++;
+            }
+        }
+        System.out.println(applied + " of " + results.size() + " transfers applied.");
+        return applied == results.size() ? 0 : 2;
+    }
 }
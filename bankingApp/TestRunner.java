@@ -96,6 +96,7 @@ public class TestRunner {
         addJavaFiles(command, "test/service");
         addJavaFiles(command, "test/util");
         addJavaFiles(command, "test/integration");
+        addJavaFiles(command, "benchmark");  // Compiled here so benchmarks stay in step with the code
         
         return runCommand(command);
     }
@@ -0,0 +1,254 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import model.Fund;
+import model.InvestmentAccount;
+import model.Transaction;
+import model.User;
+import service.FraudDetector;
+import service.TimeManager;
+import service.UserManager;
+import util.DataStore;
+import util.SnapshotFormat;
+
+// Timings for the core operations, for comparing builds before a release. All data is generated
+// from a fixed seed and written to temporary directories, so runs are repeatable and never touch
+// the database folder.
+//
+// Run from the bankingApp directory after compiling (see README):
+//   java -Xmx4g -cp build benchmark.CoreBenchmarks [options]
+//     --rows 1000,100000,1000000   transaction rows for the DataStore benchmarks
+//     --only <text>                run benchmarks whose name contains text
+//     --quick                      fewer, shorter iterations
+//     --csv <file>                 write the results
+//     --baseline <file>            compare with an earlier --csv file; exits 1 on a regression
+//     --tolerance <percent>        slowdown allowed against the baseline (default 10)
+public class CoreBenchmarks {
+    private static final long SEED = 42;
+    private static final int TRANSACTIONS_PER_USER = 100;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final int GAIN_DAYS_PER_ACCOUNT = 256;  // HIGH_RISK outgrows a long product late on, so both applyRate paths run
+    private static final int ADVANCE_DAYS_PER_RESET = 365;
+
+    private final Harness harness;
+    private final String only;
+
+    private CoreBenchmarks(Harness harness, String only) {
+        this.harness = harness;
+        this.only = only;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] rows = {1_000, 100_000, 1_000_000};
+        String only = "";
+        boolean quick = false;
+        File csv = null;
+        File baseline = null;
+        double tolerance = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rows":
+                    String[] parts = args[++i].split(",");
+                    rows = new int[parts.length];
+                    for (int p = 0; p < parts.length; p++) {
+                        rows[p] = Integer.parseInt(parts[p].trim());
+                    }
+                    break;
+                case "--only":
+                    only = args[++i];
+                    break;
+                case "--quick":
+                    quick = true;
+                    break;
+                case "--csv":
+                    csv = new File(args[++i]);
+                    break;
+                case "--baseline":
+                    baseline = new File(args[++i]);
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Harness harness = quick ? new Harness(1, 3, 200) : new Harness(3, 5, 1000);
+        System.out.println("Java " + System.getProperty("java.version") + ", " + Runtime.getRuntime().availableProcessors()
+                + " CPUs, max heap " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+        CoreBenchmarks benchmarks = new CoreBenchmarks(harness, only);
+        for (int count : rows) {
+            benchmarks.dataStore(SnapshotFormat.CSV, false, count);
+            benchmarks.dataStore(SnapshotFormat.CSV, true, count);
+            benchmarks.dataStore(SnapshotFormat.BINARY, false, count);
+        }
+        benchmarks.advanceTime(10_000);
+        benchmarks.shouldFreezeAccount(1_000);
+        benchmarks.shouldFreezeAccount(100_000);
+        benchmarks.applyGains();
+        benchmarks.ibanLookup(100_000);
+
+        if (csv != null) {
+            harness.writeCsv(csv);
+        }
+        if (baseline != null && harness.compareWith(baseline, tolerance) > 0) {
+            System.exit(1);
+        }
+    }
+
+    private boolean selected(String name) {
+        return name.contains(only);
+    }
+
+    // Journaled CSV stores also write the columnar history store and load history from it
+    private void dataStore(SnapshotFormat format, boolean journaled, int rows) throws Exception {
+        String save = "DataStore.saveData";
+        String load = "DataStore.loadData";
+        if (!selected(save) && !selected(load)) {
+            return;
+        }
+        String param = format.name().toLowerCase() + (journaled ? "+journal" : "") + "/" + rows;
+        Map<String, User> users = population(Math.max(1, rows / TRANSACTIONS_PER_USER), Math.min(rows, TRANSACTIONS_PER_USER));
+        File dir = Files.createTempDirectory("bench-db").toFile();
+        try {
+            DataStore store = new DataStore(dir.getPath(), journaled, format);
+            if (selected(save)) {
+                harness.measure(save, param, 1, () -> store.saveData(users) ? 1 : 0);
+            } else {
+                store.saveData(users);
+            }
+            if (selected(load)) {
+                harness.measure(load, param, 1, () -> store.loadData(false).size());
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private void advanceTime(int userCount) throws Exception {
+        String name = "TimeManager.advanceTime";
+        if (!selected(name)) {
+            return;
+        }
+        UserManager manager = new UserManager(true);
+        manager.getAllUsers().putAll(population(userCount, 0));
+        User[] users = manager.getAllUsers().values().toArray(new User[0]);
+        long[] startingCents = new long[users.length];
+        Random random = new Random(SEED);
+        for (int i = 0; i < users.length; i++) {
+            startingCents[i] = random.nextInt(1_000_000);
+        }
+        TimeManager timeManager = new TimeManager(manager);
+        int[] day = {0};
+        // Balances grow 1% a day, so they go back to their seeded values before every iteration and
+        // after each simulated year; otherwise later iterations would time ever larger numbers
+        Runnable reset = () -> {
+            for (int i = 0; i < users.length; i++) {
+                users[i].getSavingsAccount().withdraw(users[i].getSavingsAccount().getBalance());
+                users[i].getSavingsAccount().deposit(BigDecimal.valueOf(startingCents[i], 2));
+            }
+            day[0] = 0;
+        };
+        harness.measure(name, userCount + " users", 1, reset, () -> {
+            if (++day[0] > ADVANCE_DAYS_PER_RESET) {
+                reset.run();  // Amortized over a year of calls
+                day[0] = 1;
+            }
+            timeManager.advanceTime(1);
+            return 1;
+        });
+    }
+
+    private void shouldFreezeAccount(int historyLength) throws Exception {
+        String name = "FraudDetector.shouldFreezeAccount";
+        if (!selected(name)) {
+            return;
+        }
+        User user = population(1, historyLength).values().iterator().next();
+        FraudDetector detector = new FraudDetector();
+        LocalDateTime now = START.plusMinutes(historyLength);
+        harness.measure(name, historyLength + " txs", 1, () -> detector.shouldFreezeAccount(user, now) ? 1 : 0);
+    }
+
+    // Each call builds a fresh account and applies GAIN_DAYS_PER_ACCOUNT days of gains one day
+    // at a time; the setup is amortized over those days
+    private void applyGains() throws Exception {
+        String name = "InvestmentAccount.applyGains";
+        if (!selected(name)) {
+            return;
+        }
+        harness.measure(name, "3 funds", GAIN_DAYS_PER_ACCOUNT, () -> {
+            InvestmentAccount account = new InvestmentAccount();
+            account.deposit(new BigDecimal("3000.00"));
+            account.investInFund(Fund.LOW_RISK, new BigDecimal("1000.00"));
+            account.investInFund(Fund.MEDIUM_RISK, new BigDecimal("1000.00"));
+            account.investInFund(Fund.HIGH_RISK, new BigDecimal("1000.00"));
+            for (int day = 0; day < GAIN_DAYS_PER_ACCOUNT; day++) {
+                account.applyGains();
+            }
+            return account.getBalanceCents();
+        });
+    }
+
+    // The lookup TransferService makes for every Secure Transfer and batch row
+    private void ibanLookup(int userCount) throws Exception {
+        String name = "UserManager.findUserByIban";
+        if (!selected(name)) {
+            return;
+        }
+        UserManager manager = new UserManager(true);
+        manager.getAllUsers().putAll(population(userCount, 0));
+        manager.rebuildIndexes();
+        String[] ibans = new String[1024];
+        Random random = new Random(SEED);
+        User[] all = manager.getAllUsers().values().toArray(new User[0]);
+        for (int i = 0; i < ibans.length; i++) {
+            ibans[i] = all[random.nextInt(all.length)].getIban().toLowerCase();  // Typed input is normalized on lookup
+        }
+        int[] next = {0};
+        harness.measure(name, userCount + " users", 1, () -> {
+            User found = manager.findUserByIban(ibans[next[0]++ & (ibans.length - 1)]);
+            return found != null ? 1 : 0;
+        });
+    }
+
+    // Users with distinct IBANs and a seeded history of alternating deposits and transfers a minute apart
+    static Map<String, User> population(int userCount, int transactionsPerUser) {
+        Random random = new Random(SEED);
+        Map<String, User> users = new HashMap<>();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("Bench", "User" + i, "bench" + i, "password" + i);
+            user.setIban(util.IbanGenerator.ibanFor(i));
+            long balance = 1_000_000;
+            for (int t = 0; t < transactionsPerUser; t++) {
+                boolean deposit = t % 2 == 0;
+                long cents = 100 + random.nextInt(2_000_000);
+                balance += deposit ? cents : -cents;
+                user.addTransaction(new Transaction("b" + i + "-" + t, START.plusMinutes(t),
+                        deposit ? Transaction.Type.DEPOSIT : Transaction.Type.TRANSFER, BigDecimal.valueOf(cents, 2),
+                        deposit ? "Received from Bench User" + (i + 1) : "Sent to Bench User" + (i + 1), BigDecimal.valueOf(balance, 2)));
+            }
+            users.put(user.getUsername().toLowerCase(), user);
+        }
+        return users;
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+}
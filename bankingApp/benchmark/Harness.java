@@ -0,0 +1,151 @@
+package benchmark;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Small stand-in for JMH, which needs a Maven build this project does not have. Each iteration
+// calls the operation back to back until iterationMillis have passed, so cheap and expensive
+// operations share one loop; warm-up iterations let the JIT settle before anything is recorded.
+// Results can be written to CSV and compared against an earlier run to catch regressions.
+public class Harness {
+    // Values returned by operations are folded in here so the JIT cannot drop the work
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    @FunctionalInterface
+    public interface Operation {
+        long run() throws Exception;
+    }
+
+    public Harness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    // opsPerCall is how many benchmarked operations one call performs; times are reported per operation
+    public Result measure(String name, String param, int opsPerCall, Operation operation) throws Exception {
+        return measure(name, param, opsPerCall, () -> { }, operation);
+    }
+
+    // setup runs untimed before every warm-up and measurement iteration, e.g. to reset state the
+    // operation changes, so each iteration starts from the same data
+    public Result measure(String name, String param, int opsPerCall, Runnable setup, Operation operation) throws Exception {
+        System.gc();
+        for (int i = 0; i < warmupIterations; i++) {
+            setup.run();
+            iteration(operation, opsPerCall);
+        }
+        double[] samples = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            setup.run();
+            samples[i] = iteration(operation, opsPerCall);
+        }
+
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= samples.length;
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        double error = samples.length > 1 ? Math.sqrt(variance / (samples.length - 1)) : 0;
+
+        Result result = new Result(name, param, mean, error);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    // Nanoseconds per operation over one iteration
+    private double iteration(Operation operation, int opsPerCall) throws Exception {
+        long deadline = iterationMillis * 1_000_000L;
+        long calls = 0;
+        long local = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            local += operation.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        sink += local;
+        return (double) elapsed / (calls * opsPerCall);
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void writeCsv(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("benchmark,param,nsPerOp,error");
+            for (Result r : results) {
+                out.printf(Locale.ROOT, "%s,%s,%.3f,%.3f%n", r.name, r.param, r.nsPerOp, r.error);
+            }
+        }
+    }
+
+    // Prints every result more than tolerancePercent slower than the baseline CSV and returns
+    // how many there were. Benchmarks missing from either side are skipped.
+    public int compareWith(File baseline, double tolerancePercent) throws IOException {
+        Map<String, Double> previous = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(baseline))) {
+            in.readLine();  // Header
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length >= 3) {
+                    previous.put(parts[0] + "," + parts[1], Double.parseDouble(parts[2]));
+                }
+            }
+        }
+
+        int regressions = 0;
+        for (Result r : results) {
+            Double before = previous.get(r.name + "," + r.param);
+            if (before == null) {
+                continue;
+            }
+            double change = (r.nsPerOp - before) / before * 100;
+            if (change > tolerancePercent) {
+                System.out.printf(Locale.ROOT, "REGRESSION %s [%s]: %.1f -> %.1f ns/op (+%.1f%%)%n", r.name, r.param, before, r.nsPerOp, change);
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    public static final class Result {
+        final String name;
+        final String param;
+        final double nsPerOp;
+        final double error;  // Standard deviation across measurement iterations
+
+        Result(String name, String param, double nsPerOp, double error) {
+            this.name = name;
+            this.param = param;
+            this.nsPerOp = nsPerOp;
+            this.error = error;
+        }
+
+        public double getNsPerOp() {
+            return nsPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-36s %-14s %16.1f +- %-12.1f ns/op", name, param, nsPerOp, error);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import model.SavingsAccount;
+import model.User;
+import service.UserManager;
+
+// Compares the optimistic Account updates (one versioned commitIf per write, as in tryWithdraw
+// and deposit) with the same writes made under UserManager's striped locks, the way a session
+// does them. Each thread mixes balance reads with one-cent deposits or withdrawals on the savings
+// account of a random user out of a pool; fewer users and more threads mean hotter accounts.
+//
+// Run from the bankingApp directory after compiling (see README):
+//   java -cp build benchmark.OptimisticUpdateBenchmark [secondsPerRun] [readPercent]
+public class OptimisticUpdateBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int[] USERS = {1, 16, 1024};
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        int readPercent = args.length > 1 ? Integer.parseInt(args[1]) : 95;
+
+        System.out.println("Reads: " + readPercent + "%, " + seconds + " s per run, " + Runtime.getRuntime().availableProcessors() + " CPUs");
+        System.out.printf("%-7s %-6s %16s %16s %8s%n", "threads", "users", "locking ops/s", "optimistic ops/s", "ratio");
+        for (int users : USERS) {
+            for (int threads : THREADS) {
+                run(false, threads, users, readPercent, seconds / 4);  // Warm-up
+                run(true, threads, users, readPercent, seconds / 4);
+                long locking = run(false, threads, users, readPercent, seconds);
+                long optimistic = run(true, threads, users, readPercent, seconds);
+                System.out.printf("%-7d %-6d %,16d %,16d %8.2f%n", threads, users, locking, optimistic, (double) optimistic / locking);
+            }
+        }
+    }
+
+    // Returns operations per second
+    @SuppressWarnings("try")
+    private static long run(boolean optimistic, int threads, int userCount, int readPercent, double seconds) throws InterruptedException {
+        UserManager manager = new UserManager(true);
+        User[] users = new User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new User("Bench", String.valueOf(i), "bench" + i, "pw");
+            users[i].getSavingsAccount().deposit(new BigDecimal("1000.00"));
+        }
+
+        LongAdder operations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                long sink = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    User user = users[random.nextInt(userCount)];
+                    SavingsAccount savings = user.getSavingsAccount();
+                    boolean read = random.nextInt(100) < readPercent;
+                    boolean withdraw = random.nextBoolean();
+                    if (optimistic) {
+                        if (read) {
+                            sink += savings.getBalanceCents();
+                        } else if (withdraw) {
+                            savings.tryWithdraw(CENT);
+                        } else {
+                            savings.deposit(CENT);
+                        }
+                    } else {
+                        try (UserManager.UserLocks locks = manager.lock(user)) {
+                            if (read) {
+                                sink += savings.getBalanceCents();
+                            } else if (withdraw) {
+                                if (CENT.compareTo(savings.getBalance()) <= 0) {
+                                    savings.withdraw(CENT);
+                                }
+                            } else {
+                                savings.deposit(CENT);
+                            }
+                        }
+                    }
+                    done++;
+                }
+                operations.add(done + (sink == Long.MIN_VALUE ? 1 : 0));  // Keeps the reads from being optimized away
+            });
+            workers[t].start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - began) / 1e9;
+        return (long) (operations.sum() / elapsed);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import java.util.Locale;
+import util.PasswordHasher;
+
+// Sizes the PBKDF2 work factor for this machine: times a password check at a range of iteration
+// counts and reports the largest one whose check fits the login latency budget. Every login pays
+// the check once, and so does anyone guessing passwords from a stolen users.csv, so the budget
+// should be as high as users will tolerate. Apply the result with
+// -DbankingApp.passwordIterations=<count>.
+//
+// Run from the bankingApp directory after compiling (see README):
+//   java -cp build benchmark.PasswordHashBenchmark [budgetMillis] [iterations,...]
+public class PasswordHashBenchmark {
+    private static final int[] ITERATIONS = {10_000, 100_000, 210_000, PasswordHasher.DEFAULT_ITERATIONS, 600_000, 1_000_000};
+
+    public static void main(String[] args) throws Exception {
+        double budgetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 250;
+        int[] counts = ITERATIONS;
+        if (args.length > 1) {
+            String[] parts = args[1].split(",");
+            counts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                counts[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+
+        System.out.println("Java " + System.getProperty("java.version") + ", " + Runtime.getRuntime().availableProcessors()
+                + " CPUs, budget " + budgetMillis + " ms per login");
+        Harness harness = new Harness(2, 5, 1000);
+        int recommended = 0;
+        for (int count : counts) {
+            PasswordHasher hasher = new PasswordHasher(count);
+            String stored = hasher.hash("correct horse battery staple");
+            Harness.Result result = harness.measure("PasswordHasher.verify", count + " iter", 1,
+                    () -> hasher.verify("correct horse battery staple", stored) ? 1 : 0);
+            if (result.getNsPerOp() / 1e6 <= budgetMillis) {
+                recommended = Math.max(recommended, count);
+            }
+        }
+
+        if (recommended == 0) {
+            System.out.println("No tested count fits " + budgetMillis + " ms; try smaller counts.");
+        } else {
+            System.out.println(String.format(Locale.ROOT, "Largest count within budget: %d (default %d)", recommended, PasswordHasher.DEFAULT_ITERATIONS));
+        }
+    }
+}
@@ -1,28 +1,189 @@
 package model;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.function.LongPredicate;
 
 public abstract class Account {
-    protected BigDecimal balance;
+    // Balance and subclass state are written only while stamp is claimed, and read lock-free
+    protected long balanceCents;
+    protected final VersionStamp stamp = new VersionStamp();
+    // BigDecimal view of balanceCents, rebuilt only after the balance changes
+    private volatile BalanceView balanceView = new BalanceView(0, BigDecimal.ZERO);
+    // Set when gains accrue lazily; null means gains are applied eagerly by the caller
+    private volatile AccrualClock clock;
+    private long lastAccrualDay;
 
     public Account() {
-        this.balance = BigDecimal.ZERO;
     }
 
     public BigDecimal getBalance() {
-        return balance;
+        long cents = getBalanceCents();
+        BalanceView view = balanceView;
+        if (view == null || view.cents != cents) {
+            view = new BalanceView(cents, Money.toBigDecimal(cents));
+            balanceView = view;
+        }
+        return view.value;
+    }
+
+    public long getBalanceCents() {
+        accrue();
+        while (true) {
+            long v = stamp.readStamp();
+            long cents = balanceCents;
+            if (stamp.validate(v)) {
+                return cents;
+            }
+        }
+    }
+
+    // Advances on every write; equal versions mean nothing changed in between
+    public long getVersion() {
+        return stamp.get();
     }
 
     public void deposit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+        long cents = Money.toCents(amount);
+        commitIf(balance -> true, () -> setBalanceCents(balanceCents + cents));
     }
 
     public void withdraw(BigDecimal amount) {
-        if (amount.compareTo(balance) > 0) {
+        if (!tryWithdraw(amount)) {
             throw new IllegalArgumentException("Insufficient funds");
         }
-        this.balance = this.balance.subtract(amount);
     }
 
-    public abstract void applyGains();
+    // Withdraws only if the balance covers amount, checked and applied as one versioned write
+    public boolean tryWithdraw(BigDecimal amount) {
+        long cents = Money.toCents(amount);
+        return commitIf(balance -> cents <= balance, () -> setBalanceCents(balanceCents - cents));
+    }
+
+    // Optimistic update: test sees the balance read without locking. If it passes, change runs
+    // after claiming the version that balance was read at; if another write got in first, the
+    // read is retried. Returns false when test rejects the balance.
+    protected final boolean commitIf(LongPredicate test, Runnable change) {
+        while (true) {
+            accrue();
+            long v = stamp.readStamp();
+            long balance = balanceCents;
+            if (!stamp.validate(v)) {
+                continue;
+            }
+            if (!test.test(balance)) {
+                return false;
+            }
+            if (stamp.tryClaim(v)) {
+                try {
+                    // The clock may have moved since accrue(); settle first and re-check
+                    if (!hasPendingAccrual()) {
+                        change.run();
+                        return true;
+                    }
+                    settle();
+                } finally {
+                    stamp.release(v);
+                }
+            }
+        }
+    }
+
+    // Only while stamp is claimed
+    protected void setBalanceCents(long cents) {
+        this.balanceCents = cents;
+        this.balanceView = null;
+    }
+
+    public final void applyGains() {
+        applyGains(1, GainMode.DAILY_ROUNDING);
+    }
+
+    // Applies several days of gains at once, see GainMode for the rounding difference
+    public final void applyGains(long days, GainMode mode) {
+        if (days <= 0) {
+            return;
+        }
+        long v = stamp.claim();
+        try {
+            addGains(days, mode);
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    // Only while stamp is claimed
+    protected abstract void addGains(long days, GainMode mode);
+
+    // Switches to lazy accrual; days already passed on a previous clock are settled first
+    public void attachClock(AccrualClock clock) {
+        long v = stamp.claim();
+        try {
+            settle();
+            this.lastAccrualDay = clock != null ? clock.today() : 0;
+            this.clock = clock;
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    public boolean hasPendingAccrual() {
+        AccrualClock current = clock;
+        return current != null && current.today() > lastAccrualDay;
+    }
+
+    // Applies the gains for every day the clock advanced since the last accrual
+    protected void accrue() {
+        if (!hasPendingAccrual()) {
+            return;
+        }
+        long v = stamp.claim();
+        try {
+            settle();
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    // Only while stamp is claimed
+    protected void settle() {
+        AccrualClock current = clock;
+        if (current == null) {
+            return;
+        }
+        long today = current.today();
+        if (today > lastAccrualDay) {
+            addGains(today - lastAccrualDay, current.getMode());
+            lastAccrualDay = today;  // Only once the gains are in, so a failure leaves the days pending
+        }
+    }
+
+    // cents * (1 + rate)^days, rounded to cents once and held at Money.MAX_CENTS. BigDecimal.pow
+    // squares repeatedly, so this takes O(log days) multiplications.
+    protected static long compound(long cents, long ratePpm, long days) {
+        if (cents == 0 || cents >= Money.MAX_CENTS) {
+            return cents;
+        }
+        BigDecimal base = BigDecimal.ONE.add(Money.rateToBigDecimal(ratePpm));
+        BigDecimal factor = BigDecimal.ONE;
+        long remaining = days;
+        while (remaining > 0) {
+            int step = (int) Math.min(remaining, 999_999_999);  // Largest exponent pow accepts
+            factor = factor.multiply(base.pow(step, MathContext.DECIMAL128), MathContext.DECIMAL128);
+            remaining -= step;
+        }
+        return Money.toCentsCapped(Money.toBigDecimal(cents).multiply(factor));
+    }
+
+    // A view is only reused while it still matches the balance, so a reader racing a writer
+    // can at worst cache a stale view that the next read replaces
+    static final class BalanceView {
+        final long cents;
+        final BigDecimal value;
+
+        BalanceView(long cents, BigDecimal value) {
+            this.cents = cents;
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package model;
+
+// Shared simulated day counter for lazy accrual. Advancing it is O(1); each attached
+// account catches up on its own pending days the next time it is read or changed.
+public class AccrualClock {
+    private volatile long today;
+    private volatile GainMode mode;
+
+    public AccrualClock(GainMode mode) {
+        this.mode = mode;
+    }
+
+    public long today() {
+        return today;
+    }
+
+    public synchronized void advance(long days) {
+        if (days > 0) {
+            today += days;
+        }
+    }
+
+    public GainMode getMode() {
+        return mode;
+    }
+
+    public void setMode(GainMode mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+// Recent outgoing transactions of one user, kept in timestamp order as they are added.
+// Window queries walk back from the newest entry and stop at the cutoff, so their cost
+// depends on recent activity only, not on the length of the full history.
+public class ActivityWindow {
+    // Entries older than this (relative to the newest one) can no longer affect a check
+    static final Duration RETENTION = Duration.ofDays(7);
+
+    private final ArrayDeque<Transaction> outflows = new ArrayDeque<>();
+
+    public void record(Transaction t) {
+        if (!t.isOutflow()) {
+            return;
+        }
+
+        // History is appended in order; older timestamps (e.g. tests, replays) are slotted in place
+        ArrayDeque<Transaction> newer = new ArrayDeque<>();
+        while (!outflows.isEmpty() && outflows.peekLast().getTimestamp().isAfter(t.getTimestamp())) {
+            newer.push(outflows.pollLast());
+        }
+        outflows.addLast(t);
+        outflows.addAll(newer);
+
+        LocalDateTime horizon = outflows.peekLast().getTimestamp().minus(RETENTION);
+        while (outflows.peekFirst().getTimestamp().isBefore(horizon)) {
+            outflows.pollFirst();
+        }
+    }
+
+    // Counts outflows strictly after the cutoff that match the filter
+    public int countOutflowsAfter(LocalDateTime cutoff, Predicate<Transaction> filter) {
+        int count = 0;
+        Iterator<Transaction> it = outflows.descendingIterator();
+        while (it.hasNext()) {
+            Transaction t = it.next();
+            if (!t.getTimestamp().isAfter(cutoff)) {
+                break;
+            }
+            if (filter.test(t)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Iterator<Transaction> newestFirst() {
+        return outflows.descendingIterator();
+    }
+
+    public int size() {
+        return outflows.size();
+    }
+}
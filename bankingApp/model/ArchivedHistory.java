@@ -0,0 +1,16 @@
+package model;
+
+import java.time.LocalDateTime;
+
+// The older part of one user's history, kept outside the heap (util.ColumnarTransactionStore)
+// and decoded row by row as it is read. Rows are in timestamp order and never change.
+public interface ArchivedHistory {
+    int size();
+
+    Transaction get(int index);
+
+    // Single columns, so indexes can be built without decoding whole rows
+    Transaction.Type typeAt(int index);
+
+    LocalDateTime timestampAt(int index);
+}
@@ -6,13 +6,19 @@ public enum Fund {
     HIGH_RISK(0.10);
     
     private final double rate;
+    private final long ratePpm;
     
     Fund(double rate) {
         this.rate = rate;
+        this.ratePpm = Money.toRatePpm(rate);
     }
     
     public double getRate() {
         return rate;
     }
+
+    public long getRatePpm() {
+        return ratePpm;
+    }
 }
 
@@ -0,0 +1,16 @@
+package model;
+
+// How multi-day gains are applied in one call.
+// DAILY_ROUNDING replays each day and rounds to cents every day, exactly like repeated applyGains() (O(N)).
+// COMPOUNDED raises the daily growth factor to the N-th power and rounds once at the end (O(log N)).
+// The two can differ by a few cents over long periods, since daily rounding is not associative.
+// DAILY_ROUNDING is the default, so balances match what day-by-day processing always produced.
+public enum GainMode {
+    DAILY_ROUNDING,
+    COMPOUNDED;
+
+    // Opt in to COMPOUNDED with -DbankingApp.gainMode=compounded; anything else means DAILY_ROUNDING
+    public static GainMode fromSystemProperty() {
+        return "compounded".equalsIgnoreCase(System.getProperty("bankingApp.gainMode", "daily").trim()) ? COMPOUNDED : DAILY_ROUNDING;
+    }
+}
@@ -0,0 +1,110 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Positions of each transaction type in a user's history, plus whether the history is in
+// timestamp order. Lets a HistoryQuery jump straight to matching rows instead of copying
+// and filtering the whole list.
+class HistoryIndex {
+    private static final Transaction.Type[] TYPES = Transaction.Type.values();
+
+    private final int[][] positions = new int[TYPES.length][];
+    private final int[] counts = new int[TYPES.length];
+    private boolean sorted = true;
+    private LocalDateTime newest;
+
+    HistoryIndex() {
+        for (int i = 0; i < TYPES.length; i++) {
+            positions[i] = new int[8];
+        }
+    }
+
+    void add(int position, Transaction t) {
+        add(position, t.getType(), t.getTimestamp());
+    }
+
+    void add(int position, Transaction.Type rowType, LocalDateTime timestamp) {
+        int type = rowType.ordinal();
+        if (counts[type] == positions[type].length) {
+            positions[type] = Arrays.copyOf(positions[type], counts[type] * 2);
+        }
+        positions[type][counts[type]++] = position;
+
+        if (newest != null && timestamp.isBefore(newest)) {
+            sorted = false;  // Time range queries fall back to checking every row
+        } else {
+            newest = timestamp;
+        }
+    }
+
+    HistoryPage query(List<Transaction> history, HistoryQuery query) {
+        int upper = Math.min(query.getCursor(), history.size());
+        int lower = 0;
+        boolean rangeApplied = false;
+        if (sorted) {
+            if (query.getTo() != null) {
+                upper = Math.min(upper, firstAtOrAfter(history, query.getTo()));
+            }
+            if (query.getFrom() != null) {
+                lower = firstAtOrAfter(history, query.getFrom());
+            }
+            rangeApplied = true;
+        }
+
+        // Collect one row past the page to know whether another page exists
+        List<Transaction> page = new ArrayList<>();
+        int position = upper;
+        int lastTaken = -1;
+        while (true) {
+            position = previousCandidate(position, lower, query.getTypes());
+            if (position < 0) {
+                break;
+            }
+            Transaction t = history.get(position);
+            if (!rangeApplied && !query.matches(t)) {
+                continue;
+            }
+            if (page.size() == query.getPageSize()) {
+                return new HistoryPage(page, lastTaken);
+            }
+            page.add(t);
+            lastTaken = position;
+        }
+        return new HistoryPage(page, -1);
+    }
+
+    // Largest position below current (and not below lower) holding one of the types
+    private int previousCandidate(int current, int lower, Set<Transaction.Type> types) {
+        if (types == null) {
+            return current - 1 >= lower ? current - 1 : -1;
+        }
+        int best = -1;
+        for (Transaction.Type type : types) {
+            int t = type.ordinal();
+            int index = Arrays.binarySearch(positions[t], 0, counts[t], current);
+            int below = (index >= 0 ? index : -index - 1) - 1;
+            if (below >= 0 && positions[t][below] >= lower) {
+                best = Math.max(best, positions[t][below]);
+            }
+        }
+        return best;
+    }
+
+    private static int firstAtOrAfter(List<Transaction> history, LocalDateTime time) {
+        int low = 0;
+        int high = history.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (history.get(mid).getTimestamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
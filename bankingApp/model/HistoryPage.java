@@ -0,0 +1,27 @@
+package model;
+
+import java.util.List;
+
+// One page of a HistoryQuery result, newest first
+public class HistoryPage {
+    private final List<Transaction> transactions;
+    private final int nextCursor;
+
+    public HistoryPage(List<Transaction> transactions, int nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+
+    // Pass to HistoryQuery.after() for the next (older) page; -1 when this is the last page
+    public int getNextCursor() {
+        return nextCursor;
+    }
+}
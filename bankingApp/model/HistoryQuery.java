@@ -0,0 +1,75 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Newest-first history query with an optional time range [from, to), type filter and page cursor.
+// Queries are immutable; each with-method returns a narrowed copy.
+public class HistoryQuery {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Set<Transaction.Type> types;  // Null means every type
+    private final int cursor;
+    private final int pageSize;
+
+    private HistoryQuery(LocalDateTime from, LocalDateTime to, Set<Transaction.Type> types, int cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        this.from = from;
+        this.to = to;
+        this.types = types;
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+    }
+
+    // The newest pageSize transactions of any type
+    public static HistoryQuery latest(int pageSize) {
+        return new HistoryQuery(null, null, null, Integer.MAX_VALUE, pageSize);
+    }
+
+    public HistoryQuery between(LocalDateTime from, LocalDateTime to) {
+        return new HistoryQuery(from, to, types, cursor, pageSize);
+    }
+
+    public HistoryQuery ofTypes(Transaction.Type first, Transaction.Type... rest) {
+        return new HistoryQuery(from, to, EnumSet.of(first, rest), cursor, pageSize);
+    }
+
+    // Same filters, starting again from the newest transaction
+    public HistoryQuery fromStart() {
+        return new HistoryQuery(from, to, types, Integer.MAX_VALUE, pageSize);
+    }
+
+    // Continues after a page, using HistoryPage.getNextCursor()
+    public HistoryQuery after(int nextCursor) {
+        return new HistoryQuery(from, to, types, nextCursor, pageSize);
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Set<Transaction.Type> getTypes() {
+        return types;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    boolean matches(Transaction t) {
+        return (types == null || types.contains(t.getType()))
+            && (from == null || !t.getTimestamp().isBefore(from))
+            && (to == null || t.getTimestamp().isBefore(to));
+    }
+}
@@ -1,57 +1,108 @@
 package model;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 public class InvestmentAccount extends Account {
-    private Map<Fund, BigDecimal> fundInvestments = new HashMap<>();
-    private Set<Fund> fundsEverInvested = new HashSet<>();
+    private static final Fund[] FUNDS = Fund.values();
+    // Invested cents per fund, indexed by ordinal
+    private final long[] fundCents = new long[FUNDS.length];
+    private final Set<Fund> fundsEverInvested = EnumSet.noneOf(Fund.class);
 
     public InvestmentAccount() {
         super();
     }
 
     public BigDecimal getFundBalance(Fund fund) {
-        return fundInvestments.getOrDefault(fund, BigDecimal.ZERO);
+        accrue();
+        while (true) {
+            long v = stamp.readStamp();
+            long cents = fundCents[fund.ordinal()];
+            if (stamp.validate(v)) {
+                return toFundAmount(cents);
+            }
+        }
     }
 
     public BigDecimal getTotalFundInvestments() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (BigDecimal amount : fundInvestments.values()) {
-            total = total.add(amount);
+        return toFundAmount(getTotalFundCents());
+    }
+
+    public long getTotalFundCents() {
+        accrue();
+        while (true) {
+            long v = stamp.readStamp();
+            long total = sumFunds();
+            if (stamp.validate(v)) {
+                return total;
+            }
         }
-        return total;
     }
 
     public Set<Fund> getFundsEverInvested() {
-        return new HashSet<>(fundsEverInvested);
+        while (true) {
+            long v = stamp.readStamp();
+            Set<Fund> copy = new HashSet<>(fundsEverInvested);
+            if (stamp.validate(v)) {
+                return copy;
+            }
+        }
     }
 
     public void investInFund(Fund fund, BigDecimal amount) {
-        this.balance = this.balance.subtract(amount);
-        BigDecimal current = fundInvestments.getOrDefault(fund, BigDecimal.ZERO);
-        fundInvestments.put(fund, current.add(amount));
+        long cents = Money.toCents(amount);
+        commitIf(balance -> true, () -> moveIntoFund(fund, cents));
+    }
+
+    // Invests only if the uninvested balance covers amount, checked and applied as one versioned write
+    public boolean tryInvestInFund(Fund fund, BigDecimal amount) {
+        long cents = Money.toCents(amount);
+        return commitIf(balance -> cents <= balance, () -> moveIntoFund(fund, cents));
+    }
+
+    private void moveIntoFund(Fund fund, long cents) {
+        setBalanceCents(balanceCents - cents);
+        fundCents[fund.ordinal()] += cents;
         fundsEverInvested.add(fund);
     }
 
     public void withdrawAllFunds() {
-        BigDecimal total = getTotalFundInvestments();
-        this.balance = this.balance.add(total);
-        for (Fund fund : fundInvestments.keySet()) {
-            fundInvestments.put(fund, BigDecimal.ZERO);
+        commitIf(balance -> true, () -> {
+            setBalanceCents(balanceCents + sumFunds());
+            java.util.Arrays.fill(fundCents, 0);
+        });
+    }
+
+    private long sumFunds() {
+        long total = 0;
+        for (long cents : fundCents) {
+            total += cents;
         }
+        return total;
     }
 
     @Override
-    public void applyGains() {
-        for (Fund fund : fundInvestments.keySet()) {
-            BigDecimal current = fundInvestments.get(fund);
-            BigDecimal gain = current.multiply(new BigDecimal(String.valueOf(fund.getRate())));
-            BigDecimal newBalance = current.add(gain).setScale(2, java.math.RoundingMode.HALF_UP);
-            fundInvestments.put(fund, newBalance);
+    protected void addGains(long days, GainMode mode) {
+        for (Fund fund : FUNDS) {
+            long cents = fundCents[fund.ordinal()];
+            if (cents == 0) {
+                continue;
+            }
+            if (mode == GainMode.DAILY_ROUNDING) {
+                for (long i = 0; i < days && cents < Money.MAX_CENTS; i++) {
+                    cents = Money.addGain(cents, Money.applyRate(cents, fund.getRatePpm()));
+                }
+            } else {
+                cents = compound(cents, fund.getRatePpm(), days);
+            }
+            fundCents[fund.ordinal()] = cents;
         }
     }
+
+    // Empty funds read as plain zero, as they did before any investment
+    private static BigDecimal toFundAmount(long cents) {
+        return cents == 0 ? BigDecimal.ZERO : Money.toBigDecimal(cents);
+    }
 }
@@ -0,0 +1,74 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+// Fixed-point money in whole cents. Balances, cash and transactions are kept as longs
+// and only turned into BigDecimal when handed out (display, CSV, public getters).
+public final class Money {
+    // Rates are stored in parts per million, e.g. 1% = 10_000
+    public static final long RATE_SCALE = 1_000_000;
+    // Gains stop growing a balance at 10^17 cents (one quadrillion dollars) instead of overflowing
+    // a long; it takes decades of daily interest to get there, and sums of up to 92 capped
+    // balances still fit in a long
+    public static final long MAX_CENTS = 100_000_000_000_000_000L;
+    private static final BigInteger RATE_SCALE_BIG = BigInteger.valueOf(RATE_SCALE);
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static long toRatePpm(double rate) {
+        return Math.round(rate * RATE_SCALE);
+    }
+
+    public static BigDecimal rateToBigDecimal(long ratePpm) {
+        return BigDecimal.valueOf(ratePpm, 6);
+    }
+
+    // Like toCents, but amounts beyond MAX_CENTS come back as MAX_CENTS
+    public static long toCentsCapped(BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.valueOf(MAX_CENTS, 2)) >= 0) {
+            return MAX_CENTS;
+        }
+        return toCents(amount);
+    }
+
+    // cents * rate rounded HALF_UP, the same rounding BigDecimal.setScale(2, HALF_UP) gives.
+    // Products too large for a long are worked out with BigInteger.
+    public static long applyRate(long cents, long ratePpm) {
+        long high = Math.multiplyHigh(cents, ratePpm);
+        long product = cents * ratePpm;
+        if (high != (product >> 63)) {
+            BigInteger[] quotient = BigInteger.valueOf(cents).multiply(BigInteger.valueOf(ratePpm)).divideAndRemainder(RATE_SCALE_BIG);
+            BigInteger result = quotient[0];
+            if (quotient[1].abs().shiftLeft(1).compareTo(RATE_SCALE_BIG) >= 0) {
+                result = result.add(BigInteger.valueOf(quotient[1].signum()));
+            }
+            return result.bitLength() < 64 ? result.longValue() : (result.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE);
+        }
+        long result = product / RATE_SCALE;
+        long remainder = product % RATE_SCALE;
+        if (Math.abs(remainder) * 2 >= RATE_SCALE) {
+            result += Long.signum(product);
+        }
+        return result;
+    }
+
+    // cents plus a day's gain, held at MAX_CENTS; a balance already above the cap (e.g. loaded
+    // from an older file) keeps its value but gains nothing more
+    public static long addGain(long cents, long gain) {
+        if (cents >= MAX_CENTS) {
+            return cents;
+        }
+        return gain >= MAX_CENTS - cents ? MAX_CENTS : cents + gain;
+    }
+}
@@ -0,0 +1,62 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Bounded most-recently-used list of usernames a user has sent money to.
+// Kept in send order so Quick Transfer can list recipients without scanning the history.
+public class RecentRecipients {
+    public static final int CAPACITY = 10;
+    private static final String SEPARATOR = ";";
+
+    // Oldest first; re-sending moves a recipient to the end
+    private final LinkedHashSet<String> usernames = new LinkedHashSet<>();
+
+    public void record(String username) {
+        String key = username.toLowerCase();
+        usernames.remove(key);
+        usernames.add(key);
+        if (usernames.size() > CAPACITY) {
+            usernames.remove(usernames.iterator().next());
+        }
+    }
+
+    public boolean isEmpty() {
+        return usernames.isEmpty();
+    }
+
+    public int size() {
+        return usernames.size();
+    }
+
+    public List<String> newestFirst() {
+        List<String> list = new ArrayList<>(usernames);
+        Collections.reverse(list);
+        return list;
+    }
+
+    // users.csv column: usernames oldest first, separated by ';'
+    public String serialize() {
+        List<String> safe = new ArrayList<>();
+        for (String username : usernames) {
+            if (!username.contains(SEPARATOR) && !username.contains(",")) {
+                safe.add(username);
+            }
+        }
+        return String.join(SEPARATOR, safe);
+    }
+
+    public void load(String serialized) {
+        usernames.clear();
+        if (serialized == null || serialized.isBlank()) {
+            return;
+        }
+        for (String username : serialized.split(SEPARATOR)) {
+            if (!username.isBlank()) {
+                record(username.trim());
+            }
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package model;
 
-import java.math.BigDecimal;
-
 public class SavingsAccount extends Account {
-    private static final BigDecimal INTEREST_RATE = new BigDecimal("0.01");
+    private static final long INTEREST_RATE_PPM = 10_000;  // 1% per day
 
     public SavingsAccount() {
         super();
     }
 
     @Override
-    public void applyGains() {
-        BigDecimal interest = this.balance.multiply(INTEREST_RATE);
-        this.balance = this.balance.add(interest).setScale(2, java.math.RoundingMode.HALF_UP);
+    protected void addGains(long days, GainMode mode) {
+        if (mode == GainMode.DAILY_ROUNDING) {
+            long cents = balanceCents;
+            for (long i = 0; i < days && cents < Money.MAX_CENTS; i++) {
+                cents = Money.addGain(cents, Money.applyRate(cents, INTEREST_RATE_PPM));
+            }
+            setBalanceCents(cents);
+            return;
+        }
+        setBalanceCents(compound(balanceCents, INTEREST_RATE_PPM, days));
     }
 }
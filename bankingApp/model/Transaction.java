@@ -12,9 +12,9 @@ public class Transaction {
     private final String id;
     private final LocalDateTime timestamp;
     private final Type type;
-    private final BigDecimal amount;
+    private final long amountCents;
     private final String description;
-    private final BigDecimal balanceAfter;
+    private final long balanceAfterCents;
 
     public Transaction(LocalDateTime timestamp, Type type, BigDecimal amount, String description, BigDecimal balanceAfter) {
         this(java.util.UUID.randomUUID().toString(), timestamp, type, amount, description, balanceAfter);
@@ -24,9 +24,9 @@ public class Transaction {
         this.id = id;
         this.timestamp = timestamp;
         this.type = type;
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
         this.description = description;
-        this.balanceAfter = balanceAfter;
+        this.balanceAfterCents = Money.toCents(balanceAfter);
     }
     
     public String getId() { return id; }
@@ -40,7 +40,11 @@ public class Transaction {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return Money.toBigDecimal(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
     }
 
     public String getDescription() {
@@ -48,13 +52,22 @@ public class Transaction {
     }
 
     public BigDecimal getBalanceAfter() {
-        return balanceAfter;
+        return Money.toBigDecimal(balanceAfterCents);
+    }
+
+    public long getBalanceAfterCents() {
+        return balanceAfterCents;
+    }
+
+    // Money leaving the user's cash or savings
+    public boolean isOutflow() {
+        return type == Type.TRANSFER || type == Type.WITHDRAW;
     }
     
     @Override
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return String.format("%s | %-12s | %-30s | $%-10s | Bal: $%s",
-            timestamp.format(formatter), type, description, amount, balanceAfter);
+            timestamp.format(formatter), type, description, getAmount(), getBalanceAfter());
     }
 }
@@ -6,22 +6,32 @@ public class User {
     private final String firstName;
     private final String lastName;
     private final String username;
-    private String password;
-    private BigDecimal cash;
+    private String password;  // Plain text, only until the user has a hash
+    private volatile String passwordHash;  // util.PasswordHasher format; null for legacy users
+    // Cash and history are written only while stamp is claimed; cash is read lock-free
+    private long cashCents;
+    private final VersionStamp stamp = new VersionStamp();
+    private volatile Account.BalanceView cashView;  // Rebuilt only after cash changes
     private final SavingsAccount savingsAccount;
     private final InvestmentAccount investmentAccount;
     private java.time.LocalDateTime lastLogin;
     private boolean hasFraudWarning = false;
     private boolean isFrozen = false;
     private String iban;
+    // Rows added since load; the rows before them stay on disk in archivedHistory when it is set
     private final java.util.List<Transaction> transactionHistory = new java.util.ArrayList<>();
+    private ArchivedHistory archivedHistory;
+    private final java.util.List<Transaction> historyView = new HistoryView();
+    private final ActivityWindow activityWindow = new ActivityWindow();
+    private final HistoryIndex historyIndex = new HistoryIndex();
+    private final RecentRecipients recentRecipients = new RecentRecipients();
 
     public User(String firstName, String lastName, String username, String password) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.username = username;
         this.password = password;
-        this.cash = new BigDecimal("10000.00");
+        this.cashCents = 1_000_000;  // $10,000.00
         this.savingsAccount = new SavingsAccount();
         this.investmentAccount = new InvestmentAccount();
         this.iban = util.IbanGenerator.generateIban();
@@ -35,10 +45,21 @@ public class User {
         return firstName + (lastName.isEmpty() ? "" : " " + lastName);
     }
     
+    // Null once the password is hashed
     public String getPassword() {
         return password;
     }
 
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    // Replaces any plain-text password, which is then no longer kept
+    public void setPasswordHash(String passwordHash) {
+        this.password = null;
+        this.passwordHash = passwordHash;  // Volatile write last, so readers of the hash see the cleared password
+    }
+
     public java.time.LocalDateTime getLastLogin() {
         return lastLogin;
     }
@@ -72,7 +93,28 @@ public class User {
     }
 
     public BigDecimal getCash() {
-        return cash;
+        long cents = getCashCents();
+        Account.BalanceView view = cashView;
+        if (view == null || view.cents != cents) {
+            view = new Account.BalanceView(cents, Money.toBigDecimal(cents));
+            cashView = view;
+        }
+        return view.value;
+    }
+
+    public long getCashCents() {
+        while (true) {
+            long v = stamp.readStamp();
+            long cents = cashCents;
+            if (stamp.validate(v)) {
+                return cents;
+            }
+        }
+    }
+
+    // Advances whenever cash or history changes
+    public long getVersion() {
+        return stamp.get();
     }
 
     public SavingsAccount getSavingsAccount() {
@@ -83,19 +125,142 @@ public class User {
         return investmentAccount;
     }
 
+    public void attachClock(AccrualClock clock) {
+        savingsAccount.attachClock(clock);
+        investmentAccount.attachClock(clock);
+    }
+
+    public boolean hasPendingAccrual() {
+        return savingsAccount.hasPendingAccrual() || investmentAccount.hasPendingAccrual();
+    }
+
     public void addCash(BigDecimal amount) {
-        this.cash = this.cash.add(amount);
+        addCashCents(Money.toCents(amount));
     }
 
     public void subtractCash(BigDecimal amount) {
-        this.cash = this.cash.subtract(amount);
+        addCashCents(-Money.toCents(amount));
     }
 
+    // Returns the cash balance right after this change
+    public long addCashCents(long cents) {
+        long v = stamp.claim();
+        try {
+            cashCents += cents;
+            cashView = null;
+            return cashCents;
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    // A copy the caller may keep or modify; prefer getTransactions() for reading
     public java.util.List<Transaction> getTransactionHistory() {
-        return new java.util.ArrayList<>(transactionHistory);
+        return new java.util.ArrayList<>(historyView);
+    }
+
+    // Read-only live view of the history, oldest first. Nothing is copied, so iterate it
+    // right away rather than holding on to it while transactions are being added.
+    public java.util.List<Transaction> getTransactions() {
+        return historyView;
+    }
+
+    public java.util.stream.Stream<Transaction> transactionStream() {
+        return historyView.stream();
+    }
+
+    // Newest first, for walking back over recent activity and stopping early
+    public java.util.Iterator<Transaction> newestFirst() {
+        java.util.ListIterator<Transaction> it = historyView.listIterator(historyView.size());
+        return new java.util.Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasPrevious();
+            }
+
+            @Override
+            public Transaction next() {
+                return it.previous();
+            }
+        };
+    }
+    
+    public int getTransactionCount() {
+        return historyView.size();
+    }
+
+    // Copies only the tail of the history, so persisting recent changes stays cheap
+    public java.util.List<Transaction> getTransactionsSince(int fromIndex) {
+        return new java.util.ArrayList<>(historyView.subList(fromIndex, historyView.size()));
+    }
+
+    // Makes archived the start of the history, at load time before any row is added. Only the
+    // paging index is built over every row; the activity window decodes just its last days.
+    public void attachArchivedHistory(ArchivedHistory archived) {
+        long v = stamp.claim();
+        try {
+            if (archivedHistory != null || !transactionHistory.isEmpty()) {
+                throw new IllegalStateException("history of " + username + " is already loaded");
+            }
+            archivedHistory = archived;
+            int size = archived.size();
+            for (int i = 0; i < size; i++) {
+                historyIndex.add(i, archived.typeAt(i), archived.timestampAt(i));
+            }
+            if (size > 0) {
+                java.time.LocalDateTime horizon = archived.timestampAt(size - 1).minus(ActivityWindow.RETENTION);
+                int first = size;
+                while (first > 0 && !archived.timestampAt(first - 1).isBefore(horizon)) {
+                    first--;
+                }
+                for (int i = first; i < size; i++) {
+                    activityWindow.record(archived.get(i));
+                }
+            }
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    private int archivedCount() {
+        return archivedHistory == null ? 0 : archivedHistory.size();
     }
     
     public void addTransaction(Transaction t) {
-        transactionHistory.add(t);
+        long v = stamp.claim();
+        try {
+            historyIndex.add(historyView.size(), t);
+            transactionHistory.add(t);
+            activityWindow.record(t);
+        } finally {
+            stamp.release(v);
+        }
+    }
+
+    // One page of matching transactions, newest first, without copying the history
+    public HistoryPage queryHistory(HistoryQuery query) {
+        return historyIndex.query(historyView, query);
+    }
+
+    public RecentRecipients getRecentRecipients() {
+        return recentRecipients;
+    }
+
+    public ActivityWindow getActivityWindow() {
+        return activityWindow;
+    }
+
+    // Archived rows followed by the rows added since load, as one read-only list
+    private class HistoryView extends java.util.AbstractList<Transaction> implements java.util.RandomAccess {
+        @Override
+        public Transaction get(int index) {
+            int archived = archivedCount();
+            return index < archived ? archivedHistory.get(index) : transactionHistory.get(index - archived);
+        }
+
+        @Override
+        public int size() {
+            return archivedCount() + transactionHistory.size();
+        }
     }
 }
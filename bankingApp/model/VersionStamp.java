@@ -0,0 +1,48 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counter for optimistic concurrency. Even while the guarded fields are stable, odd while
+// a writer is changing them; every completed write advances it by two. Readers never block: they
+// read the fields between two equal even versions. Writers claim the next version with a CAS.
+// Claims are not reentrant, so a claimed section must not call another claiming method.
+public final class VersionStamp {
+    private final AtomicLong version = new AtomicLong();
+
+    public long get() {
+        return version.get();
+    }
+
+    // Waits out a writer in progress; read the fields after this and validate() them afterwards
+    public long readStamp() {
+        long v;
+        while (((v = version.get()) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return v;
+    }
+
+    // True if nothing was written since stamp was read
+    public boolean validate(long stamp) {
+        return version.get() == stamp;
+    }
+
+    // Claims the fields for one write if they are still at stamp; false on conflict
+    public boolean tryClaim(long stamp) {
+        return (stamp & 1) == 0 && version.compareAndSet(stamp, stamp + 1);
+    }
+
+    // Claims the fields for one write, retrying until no other writer is in the way
+    public long claim() {
+        while (true) {
+            long v = readStamp();
+            if (tryClaim(v)) {
+                return v;
+            }
+        }
+    }
+
+    public void release(long claimed) {
+        version.set(claimed + 2);
+    }
+}
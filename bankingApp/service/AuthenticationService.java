@@ -8,6 +8,9 @@ public class AuthenticationService {
     private final UserManager userManager;
     private final Scanner scanner;
 
+    private static final util.LatencyHistogram PASSWORD_CHECK_LATENCY = util.Metrics.timer("auth.passwordCheck");
+    private static final java.util.concurrent.atomic.LongAdder PASSWORDS_REHASHED = util.Metrics.counter("auth.passwordsRehashed");
+
     public AuthenticationService(UserManager userManager, Scanner scanner) {
         this.userManager = userManager;
         this.scanner = scanner;
@@ -52,7 +55,7 @@ public class AuthenticationService {
                 if (!scanner.hasNextLine()) return null;
                 String password = scanner.nextLine().trim();
                 
-                if (password.equals(user.getPassword())) {
+                if (checkPassword(user, password)) {
                     ConsoleUtils.printWelcomeBanner();
                     System.out.println(ConsoleUtils.formatSuccess("Welcome, " + user.getName() + "!"));
                     return user;
@@ -65,6 +68,30 @@ public class AuthenticationService {
         }
     }
 
+    // Verifies the password and, when it matches, brings the stored credential up to date: a legacy
+    // plain-text password or a hash made with another work factor is replaced by a fresh hash, so
+    // existing databases migrate one login at a time without anyone resetting a password
+    @SuppressWarnings("try")
+    private boolean checkPassword(User user, String password) {
+        util.PasswordHasher hasher = userManager.getPasswordHasher();
+        String stored = user.getPasswordHash();
+        boolean matches;
+        try (util.LatencyHistogram.Timing timing = PASSWORD_CHECK_LATENCY.start()) {
+            matches = stored != null ? hasher.verify(password, stored) : password.equals(user.getPassword());
+        }
+        if (matches && (stored == null || hasher.needsRehash(stored))) {
+            String upgraded = hasher.hash(password);  // Slow, so outside the lock
+            try (UserManager.UserLocks locks = userManager.lock(user)) {
+                if (user.getPasswordHash() == stored) {  // Unless another session upgraded it meanwhile
+                    user.setPasswordHash(upgraded);
+                    userManager.save(user);
+                    PASSWORDS_REHASHED.increment();
+                }
+            }
+        }
+        return matches;
+    }
+
     private void registerLoop() {
         System.out.println("\n--- Create New Account ---");
         
@@ -0,0 +1,156 @@
+package service;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import util.SessionOutput;
+
+// Serves the banking menu to many concurrent clients over a local line-based socket
+// (e.g. `nc localhost 5050`). Each connection runs its own BankingService session on a
+// pooled thread; all sessions share one UserManager, TimeManager and FraudDetector, and
+// account changes are serialized through UserManager's per-user locks.
+public class BankingServer {
+    private final UserManager userManager;
+    private final TimeManager timeManager;
+    private final FraudDetector fraudDetector = new FraudDetector();
+    private final ExecutorService sessions;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final java.util.Set<Socket> openSockets = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private final java.io.File metricsFile;
+    private util.MetricsReporter metricsReporter;
+
+    public BankingServer(UserManager userManager, int maxSessions) {
+        this(userManager, maxSessions, BankingService.METRICS_FILE);
+    }
+
+    // metricsFile receives the periodic metrics dump; null disables it
+    public BankingServer(UserManager userManager, int maxSessions, java.io.File metricsFile) {
+        this.userManager = userManager;
+        this.metricsFile = metricsFile;
+        this.timeManager = new TimeManager(userManager);
+        this.timeManager.configureFromSystemProperties();
+        AtomicInteger sessionNumber = new AtomicInteger();
+        // Java 17 has no virtual threads, so sessions get a bounded pool of platform threads;
+        // connections beyond maxSessions wait in the queue until a session ends
+        this.sessions = Executors.newFixedThreadPool(maxSessions, runnable -> {
+            Thread thread = new Thread(runnable, "session-" + sessionNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Binds to localhost and accepts connections until stop() is called
+    public void serve(int port) throws IOException {
+        SessionOutput.install();
+        userManager.startCompaction(BankingService.COMPACTION_INTERVAL_SECONDS);
+        if (metricsFile != null) {
+            metricsReporter = new util.MetricsReporter(metricsFile);
+            metricsReporter.start(BankingService.METRICS_INTERVAL_SECONDS);
+        }
+        // Ctrl+C stops accepting and waits for pending gains to be saved
+        java.util.concurrent.CountDownLatch stopped = new java.util.concurrent.CountDownLatch(1);
+        Thread hook = new Thread(() -> {
+            stop();
+            try {
+                stopped.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "server-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket = server;
+            System.out.println("Banking server listening on port " + server.getLocalPort());
+            while (!server.isClosed()) {
+                Socket client;
+                try {
+                    client = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed()) {
+                        break;
+                    }
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                    continue;
+                }
+                openSockets.add(client);
+                sessions.submit(() -> runSession(client));
+            }
+        } finally {
+            shutdown();
+            stopped.countDown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // Already shutting down; the hook is waiting on stopped
+            }
+        }
+    }
+
+    // Port actually bound, e.g. when serve() was called with 0; -1 before binding
+    public int getPort() {
+        ServerSocket server = serverSocket;
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public void stop() {
+        ServerSocket server = serverSocket;
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error closing server socket: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runSession(Socket client) {
+        activeSessions.incrementAndGet();
+        try (Socket socket = client;
+             Scanner scanner = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            SessionOutput.bind(out);
+            new BankingService(userManager, timeManager, fraudDetector, scanner).runSession();
+        } catch (Exception e) {
+            System.err.println("Error in session " + Thread.currentThread().getName() + ": " + e.getMessage());
+        } finally {
+            SessionOutput.unbind();
+            openSockets.remove(client);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    private void shutdown() {
+        sessions.shutdownNow();
+        // Sessions blocked reading input only end when their sockets close
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing session socket: " + e.getMessage());
+            }
+        }
+        try {
+            sessions.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        userManager.flushAccruals();
+        userManager.stopCompaction();
+        if (metricsReporter != null) {
+            metricsReporter.shutdown();
+        }
+    }
+}
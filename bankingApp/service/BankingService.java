@@ -10,22 +10,62 @@ import model.User;
 import util.ConsoleUtils;
 
 public class BankingService {
-    private final Scanner scanner = new Scanner(System.in);
-    private final UserManager userManager = new UserManager();
+    private final Scanner scanner;
+    private final UserManager userManager;
     private final AuthenticationService authService;
-    private final TimeManager timeManager = new TimeManager(userManager);
+    private final TimeManager timeManager;
     private final InputValidator inputValidator;
-    private final FraudDetector fraudDetector = new FraudDetector();
+    private final FraudDetector fraudDetector;
     private final TransferService transferService;
     private User currentUser = null;
 
+    static final long COMPACTION_INTERVAL_SECONDS = 60;
+    private static final int HISTORY_PAGE_SIZE = 10;
+    static final long METRICS_INTERVAL_SECONDS = 60;
+    static final java.io.File METRICS_FILE = new java.io.File("metrics.txt");
+
+    private static final util.LatencyHistogram LOGIN_LATENCY = util.Metrics.timer("banking.login");
+    private static final util.LatencyHistogram BALANCE_LATENCY = util.Metrics.timer("banking.showBalance");
+    private static final util.LatencyHistogram DEPOSIT_LATENCY = util.Metrics.timer("banking.deposit");
+    private static final util.LatencyHistogram WITHDRAW_LATENCY = util.Metrics.timer("banking.withdraw");
+    private static final util.LatencyHistogram INVEST_LATENCY = util.Metrics.timer("banking.invest");
+    private static final util.LatencyHistogram WITHDRAW_ALL_LATENCY = util.Metrics.timer("banking.withdrawAllInvestments");
+    private static final util.LatencyHistogram HISTORY_PAGE_LATENCY = util.Metrics.timer("banking.historyPage");
+
     public BankingService() {
+        this(new UserManager(), new Scanner(System.in));
+    }
+
+    private BankingService(UserManager userManager, Scanner scanner) {
+        this(userManager, new TimeManager(userManager), new FraudDetector(), scanner);
+        timeManager.configureFromSystemProperties();
+    }
+
+    // One session over services shared with other sessions; BankingServer creates one per connection
+    public BankingService(UserManager userManager, TimeManager timeManager, FraudDetector fraudDetector, Scanner scanner) {
+        this.userManager = userManager;
+        this.timeManager = timeManager;
+        this.fraudDetector = fraudDetector;
+        this.scanner = scanner;
         this.inputValidator = new InputValidator(scanner);
         this.authService = new AuthenticationService(userManager, scanner);
         this.transferService = new TransferService(userManager, timeManager, fraudDetector, inputValidator, scanner);
     }
 
     public void start() {
+        userManager.startCompaction(COMPACTION_INTERVAL_SECONDS);
+        util.MetricsReporter metricsReporter = new util.MetricsReporter(METRICS_FILE);
+        metricsReporter.start(METRICS_INTERVAL_SECONDS);
+        runSession();
+        userManager.flushAccruals();
+        userManager.stopCompaction();
+        metricsReporter.shutdown();
+        scanner.close();
+    }
+
+    // Menu loop until Exit or end of input; leaves shared services running
+    @SuppressWarnings("try")
+    public void runSession() {
         boolean running = true;
         while (running) {
             if (currentUser == null) {
@@ -35,21 +75,22 @@ public class BankingService {
                 }
                 
                 // Check for real-time catch-up
-                if (currentUser.getLastLogin() != null) {
-                    long days = timeManager.calculateDaysPassed(currentUser.getLastLogin(), java.time.LocalDateTime.now());
-                    if (days > 0) {
-                        System.out.println(util.ConsoleUtils.formatSuccess("Welcome back! It's been " + days + " days since your last login."));
-                        System.out.println("Processing daily interest and investment gains for missed days...");
-                        for (int i = 0; i < days; i++) {
-                            timeManager.applyDailyGains(currentUser);
+                try (util.LatencyHistogram.Timing timing = LOGIN_LATENCY.start();
+                     UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                    if (currentUser.getLastLogin() != null) {
+                        long days = timeManager.calculateDaysPassed(currentUser.getLastLogin(), java.time.LocalDateTime.now());
+                        if (days > 0) {
+                            System.out.println(util.ConsoleUtils.formatSuccess("Welcome back! It's been " + days + " days since your last login."));
+                            System.out.println("Processing daily interest and investment gains for missed days...");
+                            timeManager.applyGains(currentUser, days);
                         }
+                    } else {
+                        currentUser.setLastLogin(java.time.LocalDateTime.now()); 
                     }
-                } else {
-                    currentUser.setLastLogin(java.time.LocalDateTime.now()); 
+                    // Update last login to now
+                    currentUser.setLastLogin(java.time.LocalDateTime.now());
+                    userManager.save(currentUser);
                 }
-                // Update last login to now
-                currentUser.setLastLogin(java.time.LocalDateTime.now());
-                userManager.save();
                 
                 continue;
             }
@@ -90,10 +131,10 @@ public class BankingService {
                     running = false;
                 }
                 case "12", "fraud", "about fraud prevention" -> aboutFraudPrevention();
+                case "13", "stats" -> showStats();
                 default -> System.out.println("Invalid choice. Please try again.");
             }
         }
-        scanner.close();
     }
 
     private void printMenu() {
@@ -120,26 +161,31 @@ public class BankingService {
         } else {
             System.out.println("12. About Fraud Prevention");
         }
+        System.out.println("13. Stats");
     }
     
+    @SuppressWarnings("try")
     private void aboutFraudPrevention() {
         if (currentUser.hasFraudWarning()) {
             System.out.println("\n--- FRAUD WARNING ---");
-            System.out.println("A recent transaction exceeded the security limit of $10,000.");
+            System.out.println("A recent transaction was flagged by our fraud rules (large amount, unusual frequency, new recipient or structuring).");
             System.out.println("This has been flagged for your review.");
             System.out.print("Do you recognize this activity? (yes/no): ");
 
             System.out.println("\nPress 'D' to Dismiss this warning.");
             String input = scanner.nextLine().trim();
             if (input.equalsIgnoreCase("D")) {
-                currentUser.setFraudWarning(false);
-                userManager.save();
+                try (UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                    currentUser.setFraudWarning(false);
+                    userManager.save(currentUser);
+                }
                 System.out.println("Warning dismissed. Thank you for verifying.");
             }
         } else {
             System.out.println("\n--- About Fraud Prevention ---");
             System.out.println("Here at Green Day Bank we take fraud very seriously.");
-            System.out.println("You will be flagged if a transaction exceeds $10,000.");
+            System.out.println("You will be flagged if a transaction exceeds $10,000, if you send more than 5 transfers");
+            System.out.println("within an hour, or if you send round amounts just under the $10,000 limit.");
             System.out.println("The fraud detection kicks in after 3 over $10,000 transfers out of the account per 24 hours.");
             System.out.println("This leads to automatic account suspension.");
             System.out.println("Press Enter to return...");
@@ -147,28 +193,39 @@ public class BankingService {
         }
     }
 
+    private void showStats() {
+        System.out.println("\n--- Operation Stats ---");
+        System.out.print(util.Metrics.report());
+    }
+
     private void advanceTime() {
         System.out.println("Simulating 1 day passing...");
         timeManager.advanceTime(1);
         System.out.println(ConsoleUtils.formatSuccess("Time advanced! Interest and investment gains applied."));
     }
     
+    @SuppressWarnings("try")
     private void showBalance() {
-        currentUser.getSavingsAccount().applyGains();
-        currentUser.getInvestmentAccount().applyGains();
+        try (util.LatencyHistogram.Timing timing = BALANCE_LATENCY.start();
+             UserManager.UserLocks locks = userManager.lock(currentUser)) {
+            currentUser.getSavingsAccount().applyGains();
+            currentUser.getInvestmentAccount().applyGains();
+            userManager.markDirty(currentUser);  // Written by the next save
         
-        System.out.println("--- Your Balance ---");
-        System.out.println("IBAN: " + currentUser.getIban());
-        System.out.println("Savings account balance: " + ConsoleUtils.formatMoney(currentUser.getSavingsAccount().getBalance().setScale(2)));
-        System.out.println("Investment account balance:");
-        InvestmentAccount inv = currentUser.getInvestmentAccount();
-        System.out.println("* Not Invested: " + ConsoleUtils.formatMoney(inv.getBalance().setScale(2)));
+            System.out.println("--- Your Balance ---");
+            System.out.println("IBAN: " + currentUser.getIban());
+            System.out.println("Savings account balance: " + ConsoleUtils.formatMoney(currentUser.getSavingsAccount().getBalance().setScale(2)));
+            System.out.println("Investment account balance:");
+            InvestmentAccount inv = currentUser.getInvestmentAccount();
+            System.out.println("* Not Invested: " + ConsoleUtils.formatMoney(inv.getBalance().setScale(2)));
         
-        for (Fund fund : inv.getFundsEverInvested()) {
-            System.out.println("* " + fund.name() + ": $" + inv.getFundBalance(fund).setScale(2));
+            for (Fund fund : inv.getFundsEverInvested()) {
+                System.out.println("* " + fund.name() + ": $" + inv.getFundBalance(fund).setScale(2));
+            }
         }
     }
     
+    @SuppressWarnings("try")
     private void depositMoney() {
         System.out.print("Enter amount to deposit to savings account: $");
         
@@ -178,21 +235,25 @@ public class BankingService {
                 return;  // Non-numeric input - silently return to menu
             }
             
-            if (amount.compareTo(currentUser.getCash()) > 0) {
-                throw new InsufficientFundsException("Insufficient cash on hand");
+            try (util.LatencyHistogram.Timing timing = DEPOSIT_LATENCY.start();
+                 UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                if (amount.compareTo(currentUser.getCash()) > 0) {
+                    throw new InsufficientFundsException("Insufficient cash on hand");
+                }
+                
+                currentUser.subtractCash(amount);
+                currentUser.getSavingsAccount().deposit(amount);
+                
+                currentUser.addTransaction(new model.Transaction(
+                    timeManager.getCurrentTime(),
+                    model.Transaction.Type.DEPOSIT,
+                    amount,
+                    "Cash Deposit",
+                    currentUser.getSavingsAccount().getBalance()
+                ));
+                userManager.save(currentUser);
             }
             
-            currentUser.subtractCash(amount);
-            currentUser.getSavingsAccount().deposit(amount);
-            
-            currentUser.addTransaction(new model.Transaction(
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.DEPOSIT,
-                amount,
-                "Cash Deposit",
-                currentUser.getSavingsAccount().getBalance()
-            ));
-            
             System.out.println(ConsoleUtils.formatSuccess("Deposit successful."));
             
         } catch (InvalidAmountException | InsufficientFundsException e) {
@@ -200,6 +261,7 @@ public class BankingService {
         }
     }
     
+    @SuppressWarnings("try")
     private void withdrawMoney() {
         System.out.print("Enter amount to withdraw from savings account: $");
         
@@ -209,20 +271,24 @@ public class BankingService {
                 return;  // Non-numeric input - silently return to menu
             }
             
-            if (amount.compareTo(currentUser.getSavingsAccount().getBalance()) > 0) {
-                throw new InsufficientFundsException("Insufficient funds");
+            try (util.LatencyHistogram.Timing timing = WITHDRAW_LATENCY.start();
+                 UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                if (amount.compareTo(currentUser.getSavingsAccount().getBalance()) > 0) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+                
+                currentUser.getSavingsAccount().withdraw(amount);
+                currentUser.addCash(amount);
+                
+                currentUser.addTransaction(new model.Transaction(
+                    timeManager.getCurrentTime(),
+                    model.Transaction.Type.WITHDRAW,
+                    amount,
+                    "Cash Withdrawal",
+                    currentUser.getSavingsAccount().getBalance()
+                ));
+                userManager.save(currentUser);
             }
-            
-            currentUser.getSavingsAccount().withdraw(amount);
-            currentUser.addCash(amount);
-            
-            currentUser.addTransaction(new model.Transaction(
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.WITHDRAW,
-                amount,
-                "Cash Withdrawal",
-                currentUser.getSavingsAccount().getBalance()
-            ));
 
             System.out.println(ConsoleUtils.formatSuccess("Withdrawal successful."));
             
@@ -231,6 +297,7 @@ public class BankingService {
         }
     }
     
+    @SuppressWarnings("try")
     private void investInFunds() {
         System.out.println("Available funds:");
         System.out.println("LOW_RISK");
@@ -254,22 +321,26 @@ public class BankingService {
                 return;  // Non-numeric input - silently return to menu
             }
             
-            InvestmentAccount inv = currentUser.getInvestmentAccount();
-            if (amount.compareTo(inv.getBalance()) > 0) {
-                throw new InsufficientFundsException("Insufficient funds");
+            try (util.LatencyHistogram.Timing timing = INVEST_LATENCY.start();
+                 UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                InvestmentAccount inv = currentUser.getInvestmentAccount();
+                if (amount.compareTo(inv.getBalance()) > 0) {
+                    throw new InsufficientFundsException("Insufficient funds");
+                }
+                
+                inv.investInFund(fund, amount);
+                System.out.println("Successfully invested $" + amount + " in " + fund.name() + " fund");
+                
+                currentUser.addTransaction(new model.Transaction(
+                    timeManager.getCurrentTime(),
+                    model.Transaction.Type.INVEST,
+                    amount,
+                    "Invested in " + fund.name(),
+                    inv.getBalance()
+                ));
+                userManager.save(currentUser);
             }
             
-            inv.investInFund(fund, amount);
-            System.out.println("Successfully invested $" + amount + " in " + fund.name() + " fund");
-            
-            currentUser.addTransaction(new model.Transaction(
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.INVEST,
-                amount,
-                "Invested in " + fund.name(),
-                inv.getBalance()
-            ));
-            
         } catch (InvalidAmountException | InsufficientFundsException e) {
             System.out.println("Failed to invest: " + e.getMessage());
         }
@@ -284,8 +355,13 @@ public class BankingService {
         return null;
     }
     
+    @SuppressWarnings("try")
     private void withdrawAllInvestments() {
-        currentUser.getInvestmentAccount().withdrawAllFunds();
+        try (util.LatencyHistogram.Timing timing = WITHDRAW_ALL_LATENCY.start();
+             UserManager.UserLocks locks = userManager.lock(currentUser)) {
+            currentUser.getInvestmentAccount().withdrawAllFunds();
+            userManager.save(currentUser);
+        }
         System.out.println("All investments have been withdrawn and added to your investment account balance.");
     }
     
@@ -299,15 +375,62 @@ public class BankingService {
     }
     private void viewTransactionHistory() {
         System.out.println("\n--- Transaction History ---");
-        java.util.List<model.Transaction> history = currentUser.getTransactionHistory();
-        
-        if (history.isEmpty()) {
+        if (currentUser.getTransactionCount() == 0) {
             System.out.println("No transactions found.");
-        } else {
-            System.out.println("Timestamp           | Type         | Description                    | Amount     | Balance");
-            System.out.println("------------------------------------------------------------------------------------------");
-            for (model.Transaction t : history) {
-                System.out.println(t);
+            return;
+        }
+
+        model.HistoryQuery query = model.HistoryQuery.latest(HISTORY_PAGE_SIZE);
+        while (true) {
+            long pageStart = System.nanoTime();
+            model.HistoryPage page = currentUser.queryHistory(query);
+            HISTORY_PAGE_LATENCY.recordSince(pageStart);
+            if (page.getTransactions().isEmpty()) {
+                System.out.println("No matching transactions.");
+            } else {
+                System.out.println("Timestamp           | Type         | Description                    | Amount     | Balance");
+                System.out.println("------------------------------------------------------------------------------------------");
+                for (model.Transaction t : page.getTransactions()) {
+                    System.out.println(t);
+                }
+            }
+
+            System.out.println("\n[N]ext page  [T]ype filter  [D]ate range  [A]ll  (Enter to return)");
+            if (!scanner.hasNextLine()) {
+                return;
+            }
+            switch (scanner.nextLine().trim().toLowerCase()) {
+                case "n" -> {
+                    if (page.hasMore()) {
+                        query = query.after(page.getNextCursor());
+                    } else {
+                        System.out.println("No older transactions.");
+                    }
+                }
+                case "t" -> {
+                    System.out.print("Type (" + java.util.Arrays.toString(model.Transaction.Type.values()) + "): ");
+                    try {
+                        model.Transaction.Type type = model.Transaction.Type.valueOf(scanner.nextLine().trim().toUpperCase());
+                        query = query.ofTypes(type).fromStart();
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(ConsoleUtils.formatError("Unknown transaction type."));
+                    }
+                }
+                case "d" -> {
+                    try {
+                        System.out.print("From date (yyyy-MM-dd): ");
+                        java.time.LocalDate fromDate = java.time.LocalDate.parse(scanner.nextLine().trim());
+                        System.out.print("To date (yyyy-MM-dd): ");
+                        java.time.LocalDate toDate = java.time.LocalDate.parse(scanner.nextLine().trim());
+                        query = query.between(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay()).fromStart();
+                    } catch (java.time.format.DateTimeParseException e) {
+                        System.out.println(ConsoleUtils.formatError("Invalid date."));
+                    }
+                }
+                case "a" -> query = model.HistoryQuery.latest(HISTORY_PAGE_SIZE);
+                default -> {
+                    return;
+                }
             }
         }
     }
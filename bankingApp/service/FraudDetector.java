@@ -1,24 +1,98 @@
 package service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import model.ActivityWindow;
 import model.Transaction;
 import model.User;
 
 public class FraudDetector {
-    private static final java.math.BigDecimal LARGE_TRANSACTION_LIMIT = new java.math.BigDecimal("10000.00");
+    private static final long LARGE_TRANSACTION_CENTS = model.Money.toCents(FraudRules.LARGE_TRANSACTION_LIMIT);
+    private static final int FREEZE_AT_LARGE_OUTFLOWS = 3;
+    private final FraudRule[] rules;
 
+    public FraudDetector() {
+        this(FraudRules.defaults());
+    }
+
+    // Rules are fixed at construction so evaluation is a plain array walk
+    public FraudDetector(List<FraudRule> rules) {
+        this.rules = rules.toArray(new FraudRule[0]);
+    }
+
+    // A single transaction above the large-amount limit; the other rules need the user's
+    // activity, so they only run through evaluate(user, ...)
     public boolean isSuspicious(Transaction transaction) {
-        if (transaction.getAmount().compareTo(LARGE_TRANSACTION_LIMIT) > 0) {
-            return true;
+        return transaction.getAmountCents() > LARGE_TRANSACTION_CENTS;
+    }
+
+    // Names of every rule the candidate triggers, given the user's recent activity
+    public List<String> evaluate(User user, Transaction candidate, java.time.LocalDateTime currentTime) {
+        return evaluate(candidate, extractFeatures(user, candidate, currentTime));
+    }
+
+    // One pass over the user's activity window; the result serves both evaluate and shouldFreezeAccount
+    public FraudFeatures extractFeatures(User user, Transaction candidate, java.time.LocalDateTime currentTime) {
+        return FraudFeatures.extract(user.getActivityWindow(), candidate, currentTime, FraudRules.LARGE_TRANSACTION_LIMIT);
+    }
+
+    public List<String> evaluate(Transaction candidate, FraudFeatures features) {
+        List<String> triggered = new ArrayList<>();
+        for (FraudRule rule : rules) {
+            if (rule.matches(candidate, features)) {
+                triggered.add(rule.getName());
+            }
         }
-        return false;
+        return triggered;
     }
+
     public boolean shouldFreezeAccount(User user, java.time.LocalDateTime currentTime) {
-        long suspiciousCount = user.getTransactionHistory().stream()
-            .filter(t -> t.getType() == Transaction.Type.TRANSFER || t.getType() == Transaction.Type.WITHDRAW)
-            .filter(t -> isSuspicious(t))
-            .filter(t -> java.time.temporal.ChronoUnit.HOURS.between(t.getTimestamp(), currentTime) < 24)
-            .count();
+        // Only the last 24 hours of outflows are visited, never the full history
+        int suspiciousCount = user.getActivityWindow().countOutflowsAfter(currentTime.minusHours(24),
+            t -> t.getAmountCents() > LARGE_TRANSACTION_CENTS);
             
-        return suspiciousCount >= 3;
+        return suspiciousCount >= FREEZE_AT_LARGE_OUTFLOWS;
+    }
+
+    // Same policy from features already extracted for the rules, without another pass
+    public boolean shouldFreezeAccount(FraudFeatures features) {
+        return features.getLargeOutflowsLastDay() >= FREEZE_AT_LARGE_OUTFLOWS;
+    }
+
+    // Re-scores every historical outflow against the registered rules and counts hits per rule.
+    // Users are replayed independently in parallel on copies, so live accounts are never touched.
+    public Map<String, Long> backtest(Collection<User> users) {
+        Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+        users.parallelStream().forEach(user -> {
+            List<Transaction> history = new ArrayList<>(user.getTransactions());
+            history.sort(Comparator.comparing(Transaction::getTimestamp));
+
+            ActivityWindow replay = new ActivityWindow();
+            for (Transaction t : history) {
+                if (t.isOutflow()) {
+                    FraudFeatures features = FraudFeatures.extract(replay, t, t.getTimestamp(), FraudRules.LARGE_TRANSACTION_LIMIT);
+                    for (String rule : evaluate(t, features)) {
+                        hits.computeIfAbsent(rule, k -> new LongAdder()).increment();
+                    }
+                }
+                replay.record(t);
+            }
+        });
+
+        Map<String, Long> report = new TreeMap<>();
+        hits.forEach((rule, count) -> report.put(rule, count.sum()));
+        return report;
+    }
+
+    // Loads a private copy of the database and back-tests it off the calling thread
+    public CompletableFuture<Map<String, Long>> backtest(util.DataStore dataStore) {
+        return CompletableFuture.supplyAsync(() -> backtest(dataStore.loadData(false).values()));
     }
 }
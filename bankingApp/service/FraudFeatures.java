@@ -0,0 +1,81 @@
+package service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import model.ActivityWindow;
+import model.Money;
+import model.Transaction;
+
+// Per-user signals extracted in a single pass over the ActivityWindow and shared by all rules
+public class FraudFeatures {
+    // No recent activity, for checking a rule without any user context
+    public static final FraudFeatures NONE = new FraudFeatures(0, 0, false);
+
+    private final int largeOutflowsLastDay;
+    private final int outflowsLastHour;
+    private final boolean newRecipient;
+
+    public FraudFeatures(int largeOutflowsLastDay, int outflowsLastHour, boolean newRecipient) {
+        this.largeOutflowsLastDay = largeOutflowsLastDay;
+        this.outflowsLastHour = outflowsLastHour;
+        this.newRecipient = newRecipient;
+    }
+
+    public static FraudFeatures extract(ActivityWindow window, Transaction candidate, LocalDateTime now, BigDecimal largeLimit) {
+        LocalDateTime dayCutoff = now.minusHours(24);
+        LocalDateTime hourCutoff = now.minusHours(1);
+        String candidateRecipient = recipientOf(candidate);
+
+        int largeLastDay = 0;
+        int lastHour = 0;
+        Set<String> recipients = new HashSet<>();
+        long largeLimitCents = Money.toCents(largeLimit);
+
+        Iterator<Transaction> it = window.newestFirst();
+        while (it.hasNext()) {
+            Transaction t = it.next();
+            if (t.getTimestamp().isAfter(dayCutoff) && t.getAmountCents() > largeLimitCents) {
+                largeLastDay++;
+            }
+            if (t.getTimestamp().isAfter(hourCutoff)) {
+                lastHour++;
+            }
+            String recipient = recipientOf(t);
+            if (recipient != null) {
+                recipients.add(recipient);
+            }
+        }
+
+        boolean isNew = candidateRecipient != null && !recipients.contains(candidateRecipient);
+        return new FraudFeatures(largeLastDay, lastHour, isNew);
+    }
+
+    // "Sent to Jane Doe - rent" -> "jane doe"; null for anything that is not a transfer to a person
+    static String recipientOf(Transaction t) {
+        String desc = t.getDescription();
+        if (desc == null || !desc.startsWith("Sent to ")) {
+            return null;
+        }
+        String name = desc.substring(8);
+        int messageStart = name.indexOf(" - ");
+        if (messageStart >= 0) {
+            name = name.substring(0, messageStart);
+        }
+        return name.toLowerCase();
+    }
+
+    public int getLargeOutflowsLastDay() {
+        return largeOutflowsLastDay;
+    }
+
+    public int getOutflowsLastHour() {
+        return outflowsLastHour;
+    }
+
+    public boolean isNewRecipient() {
+        return newRecipient;
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+import model.Transaction;
+
+// A single fraud check. Rules only read the candidate and the shared features,
+// so the detector can evaluate any number of them after one pass over the window.
+public interface FraudRule {
+    String getName();
+
+    boolean matches(Transaction candidate, FraudFeatures features);
+}
@@ -0,0 +1,67 @@
+package service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.BiPredicate;
+import model.Money;
+import model.Transaction;
+
+// Built-in fraud rules
+public class FraudRules {
+    public static final BigDecimal LARGE_TRANSACTION_LIMIT = new BigDecimal("10000.00");
+    public static final BigDecimal NEW_RECIPIENT_MINIMUM = new BigDecimal("5000.00");
+
+    private FraudRules() {
+    }
+
+    // Rules used by a default FraudDetector
+    public static List<FraudRule> defaults() {
+        return List.of(
+            largeAmount(LARGE_TRANSACTION_LIMIT),
+            velocity(5),
+            newRecipient(NEW_RECIPIENT_MINIMUM),
+            roundNumberStructuring(LARGE_TRANSACTION_LIMIT, new BigDecimal("500"))
+        );
+    }
+
+    // Single transaction above the limit
+    public static FraudRule largeAmount(BigDecimal limit) {
+        long limitCents = Money.toCents(limit);
+        return rule("LARGE_AMOUNT", (t, f) -> t.getAmountCents() > limitCents);
+    }
+
+    // Too many outflows within the last hour
+    public static FraudRule velocity(int maxPerHour) {
+        return rule("VELOCITY", (t, f) -> f.getOutflowsLastHour() >= maxPerHour);
+    }
+
+    // Sizeable payment to someone not paid within the activity window
+    public static FraudRule newRecipient(BigDecimal minAmount) {
+        long minCents = Money.toCents(minAmount);
+        return rule("NEW_RECIPIENT", (t, f) -> f.isNewRecipient() && t.getAmountCents() >= minCents);
+    }
+
+    // Round amounts just under the limit, a classic way of staying below reporting thresholds
+    public static FraudRule roundNumberStructuring(BigDecimal limit, BigDecimal step) {
+        long limitCents = Money.toCents(limit);
+        long floorCents = limitCents / 10 * 9;
+        long stepCents = Money.toCents(step);
+        return rule("STRUCTURING", (t, f) -> t.getAmountCents() < limitCents
+            && t.getAmountCents() >= floorCents
+            && t.getAmountCents() % stepCents == 0);
+    }
+
+    public static FraudRule rule(String name, BiPredicate<Transaction, FraudFeatures> check) {
+        return new FraudRule() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean matches(Transaction candidate, FraudFeatures features) {
+                return check.test(candidate, features);
+            }
+        };
+    }
+}
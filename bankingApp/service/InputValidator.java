@@ -15,18 +15,24 @@ public class InputValidator {
         if (!scanner.hasNextLine()) {
             return null;
         }
-        String input = scanner.nextLine().trim();
-        
         try {
-            BigDecimal amount = new BigDecimal(input);
-            
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new InvalidAmountException("amount must be positive");
-            }
-            
-            return amount;
+            return parseAmount(scanner.nextLine());
         } catch (NumberFormatException e) {
             return null;
         }
     }
+
+    // Shared by the prompt and batch files; NumberFormatException when input is not a number
+    public static BigDecimal parseAmount(String input) throws InvalidAmountException {
+        BigDecimal amount = new BigDecimal(input.trim());
+        
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidAmountException("amount must be positive");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new InvalidAmountException("amount cannot have fractions of a cent");
+        }
+        
+        return amount;
+    }
 }
@@ -2,34 +2,178 @@ package service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 import model.User;
 
 public class TimeManager {
-    private LocalDateTime currentSimulationTime;
+    // Shared by every session in server mode, so advances are applied atomically
+    private final AtomicReference<LocalDateTime> currentSimulationTime;
     private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private final UserManager userManager;
+    private model.GainMode gainMode = model.GainMode.DAILY_ROUNDING;
+    // Non-null once lazy accrual is enabled
+    private model.AccrualClock accrualClock;
+    // Threads used by the eager gains sweep; 1 keeps it on the calling thread
+    private volatile int parallelism = 1;
+    private ForkJoinPool gainPool;
+
+    private static final util.LatencyHistogram ADVANCE_LATENCY = util.Metrics.timer("time.advanceTime");
+    private static final util.LatencyHistogram DAILY_PROCESSING_LATENCY = util.Metrics.timer("time.dailyProcessing");
 
     public TimeManager(UserManager userManager) {
         this.userManager = userManager;
-        this.currentSimulationTime = LocalDateTime.now();
+        this.currentSimulationTime = new AtomicReference<>(LocalDateTime.now());
     }
 
+    @SuppressWarnings("try")
     public void advanceTime(int days) {
-        currentSimulationTime = currentSimulationTime.plusDays(days);
-        for (int i = 0; i < days; i++) {
-            performDailyProcessing();
+        currentSimulationTime.updateAndGet(time -> time.plusDays(days));
+        if (days <= 0) {
+            return;
+        }
+        try (util.LatencyHistogram.Timing timing = ADVANCE_LATENCY.start()) {
+            if (accrualClock != null) {
+                accrualClock.advance(days);  // Accounts settle themselves when next read or saved
+                return;
+            }
+            applyGainsToAll(days);
         }
     }
     
+    @SuppressWarnings("try")
     public void performDailyProcessing() {
-        for (User user : userManager.getAllUsers().values()) {
-            applyDailyGains(user);
+        try (util.LatencyHistogram.Timing timing = DAILY_PROCESSING_LATENCY.start()) {
+            applyGainsToAll(1);
+        }
+    }
+
+    // Users are independent for gains, so the sweep can be split across threads with identical results
+    private void applyGainsToAll(long days) {
+        List<User> users = new ArrayList<>(userManager.getAllUsers().values());
+        if (parallelism > 1 && users.size() > GainSweep.THRESHOLD) {
+            gainPool().invoke(new GainSweep(users, 0, users.size(), days));
+        } else {
+            for (User user : users) {
+                applyGainsLocked(user, days);
+            }
+        }
+        for (User user : users) {
+            userManager.markDirty(user);
+        }
+    }
+
+    private class GainSweep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        static final int THRESHOLD = 256;
+        private final List<User> users;
+        private final int from;
+        private final int to;
+        private final long days;
+
+        GainSweep(List<User> users, int from, int to, long days) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+            this.days = days;
         }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    applyGainsLocked(users.get(i), days);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GainSweep(users, from, mid, days), new GainSweep(users, mid, to, days));
+        }
+    }
+
+    // Sessions keep working during an eager sweep, so each user is updated under their lock
+    @SuppressWarnings("try")
+    private void applyGainsLocked(User user, long days) {
+        try (UserManager.UserLocks locks = userManager.lock(user)) {
+            applyGains(user, days);
+        }
+    }
+
+    private synchronized ForkJoinPool gainPool() {
+        if (gainPool == null) {
+            gainPool = new ForkJoinPool(parallelism);
+        }
+        return gainPool;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // Selected with -DbankingApp.gainParallelism=<threads>: advancing time then applies gains to
+    // every user at once, swept on that many threads. Unset or invalid keeps lazy accrual, where
+    // advancing time only moves a shared clock. Also applies -DbankingApp.gainMode.
+    public void configureFromSystemProperties() {
+        setGainMode(model.GainMode.fromSystemProperty());
+        String value = System.getProperty("bankingApp.gainParallelism");
+        if (value != null) {
+            try {
+                setParallelism(Integer.parseInt(value.trim()));
+                return;
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: Ignoring bankingApp.gainParallelism '" + value + "': " + e.getMessage());
+            }
+        }
+        enableLazyAccrual();
+    }
+
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        if (gainPool != null) {
+            gainPool.shutdown();
+            gainPool = null;
+        }
+        this.parallelism = parallelism;
     }
 
     public void applyDailyGains(User user) {
         user.getSavingsAccount().applyGains();
         user.getInvestmentAccount().applyGains();
+        userManager.markDirty(user);
+    }
+
+    // Catch-up for several missed days in one step, using the configured GainMode
+    public void applyGains(User user, long days) {
+        user.getSavingsAccount().applyGains(days, gainMode);
+        user.getInvestmentAccount().applyGains(days, gainMode);
+    }
+
+    // From now on advancing time is O(1) instead of touching every user each day
+    public void enableLazyAccrual() {
+        if (accrualClock == null) {
+            accrualClock = new model.AccrualClock(gainMode);
+            userManager.setAccrualClock(accrualClock);
+        }
+    }
+
+    public boolean isLazyAccrual() {
+        return accrualClock != null;
+    }
+
+    public model.GainMode getGainMode() {
+        return gainMode;
+    }
+
+    public void setGainMode(model.GainMode gainMode) {
+        this.gainMode = gainMode;
+        if (accrualClock != null) {
+            accrualClock.setMode(gainMode);
+        }
     }
 
     public long calculateDaysPassed(LocalDateTime from, LocalDateTime to) {
@@ -38,10 +182,10 @@ public class TimeManager {
     }
 
     public String getCurrentFormattedTime() {
-        return currentSimulationTime.format(DISPLAY_FORMAT);
+        return currentSimulationTime.get().format(DISPLAY_FORMAT);
     }
     
     public LocalDateTime getCurrentTime() {
-        return currentSimulationTime;
+        return currentSimulationTime.get();
     }
 }
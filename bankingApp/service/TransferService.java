@@ -14,6 +14,15 @@ public class TransferService {
     private final InputValidator inputValidator;
     private final Scanner scanner;
 
+    private static final util.LatencyHistogram SEND_LATENCY = util.Metrics.timer("transfer.send");
+    private static final util.LatencyHistogram TRANSFER_LATENCY = util.Metrics.timer("transfer.commit");
+    private static final util.LatencyHistogram BATCH_ROW_LATENCY = util.Metrics.timer("transfer.batchRow");
+    private static final util.LatencyHistogram BETWEEN_ACCOUNTS_LATENCY = util.Metrics.timer("transfer.betweenAccounts");
+    private static final java.util.concurrent.atomic.LongAdder FRAUD_FLAGGED = util.Metrics.counter("fraud.flagged");
+    private static final java.util.concurrent.atomic.LongAdder FRAUD_FROZEN = util.Metrics.counter("fraud.frozen");
+    private static final java.util.concurrent.atomic.LongAdder BATCH_APPLIED = util.Metrics.counter("transfer.batchRowsApplied");
+    private static final java.util.concurrent.atomic.LongAdder BATCH_REJECTED = util.Metrics.counter("transfer.batchRowsRejected");
+
     public TransferService(UserManager userManager, TimeManager timeManager, FraudDetector fraudDetector, InputValidator inputValidator, Scanner scanner) {
         this.userManager = userManager;
         this.timeManager = timeManager;
@@ -22,6 +31,7 @@ public class TransferService {
         this.scanner = scanner;
     }
 
+    @SuppressWarnings("try")
     public boolean sendMoney(User currentUser) {
         System.out.println("\n--- Send Money ---");
         System.out.println("1. Quick Transfer (Previously Sent)");
@@ -34,25 +44,17 @@ public class TransferService {
         String message = "";
         
         if (choice.equals("1")) {
-             java.util.Set<String> previousRecipients = new java.util.HashSet<>();
-             
-             for (model.Transaction t : currentUser.getTransactionHistory()) {
-                 if (t.getType() == model.Transaction.Type.TRANSFER && t.getDescription().startsWith("Sent to ")) {
-                     String desc = t.getDescription();
-                     String namePart = desc.substring(8);
-                     if (namePart.contains(" - ")) {
-                         namePart = namePart.split(" - ")[0];
-                     }
-                     previousRecipients.add(namePart.toLowerCase());
-                 }
+             if (currentUser.getRecentRecipients().isEmpty()) {
+                 seedRecentRecipients(currentUser);
              }
              
              System.out.println("Previously messaged recipients:");
              int count = 1;
              java.util.List<String> validUsernames = new java.util.ArrayList<>();
              
-             for (User u : userManager.getAllUsers().values()) {
-                 if (!u.getUsername().equals(currentUser.getUsername()) && previousRecipients.contains(u.getName().toLowerCase())) {
+             for (String username : currentUser.getRecentRecipients().newestFirst()) {
+                 User u = userManager.findUser(username);
+                 if (u != null && !u.getUsername().equalsIgnoreCase(currentUser.getUsername())) {
                      System.out.println(count + ". " + u.getName() + " (" + u.getUsername() + ")");
                      validUsernames.add(u.getUsername());
                      count++;
@@ -89,13 +91,7 @@ public class TransferService {
             if (!scanner.hasNextLine()) return true;
             String ibanInput = scanner.nextLine().trim();
             
-            User recipient = null;
-            for (User u : userManager.getAllUsers().values()) {
-                if (u.getIban() != null && u.getIban().equalsIgnoreCase(ibanInput)) {
-                    recipient = u;
-                    break;
-                }
-            }
+            User recipient = userManager.findUserByIban(ibanInput);
             
             if (recipient == null) {
                 System.out.println(ConsoleUtils.formatError("Invalid IBAN. User not found."));
@@ -121,6 +117,10 @@ public class TransferService {
             System.out.println(ConsoleUtils.formatError("Invalid recipient."));
             return true;
         }
+        if (recipientUsername.equalsIgnoreCase(currentUser.getUsername())) {
+            System.out.println(ConsoleUtils.formatError("You cannot send money to yourself."));
+            return true;
+        }
         
         System.out.print("Enter amount to send: $");
         
@@ -128,62 +128,48 @@ public class TransferService {
             BigDecimal amount = inputValidator.readAmount();
             if (amount == null) return true;
             
-            if (amount.compareTo(currentUser.getCash()) > 0) {
-                throw new InsufficientFundsException("Insufficient cash.");
-            }
+            User recipient = userManager.findUser(recipientUsername);
+            // The fraud checks see the same balances the transfer moves; transfer() re-enters these locks
+            try (util.LatencyHistogram.Timing timing = SEND_LATENCY.start();
+                 UserManager.UserLocks locks = userManager.lock(currentUser, recipient)) {
+                if (amount.compareTo(currentUser.getCash()) > 0) {
+                    throw new InsufficientFundsException("Insufficient cash.");
+                }
             
-            model.Transaction potentialTrans = new model.Transaction(
-                java.util.UUID.randomUUID().toString(),
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.TRANSFER,
-                amount,
-                "Pending Check",
-                currentUser.getCash()
-            );
+                String transactionId = java.util.UUID.randomUUID().toString();
+                String sendDesc = "Sent to " + recipient.getName();
+                if (!message.isEmpty()) sendDesc += " - " + message;
             
-            if (fraudDetector.isSuspicious(potentialTrans)) {
-                currentUser.setFraudWarning(true);
-                System.out.println(ConsoleUtils.formatError("WARNING: Large transaction detected!"));
+                model.Transaction potentialTrans = new model.Transaction(
+                    transactionId,
+                    timeManager.getCurrentTime(),
+                    model.Transaction.Type.TRANSFER,
+                    amount,
+                    sendDesc,
+                    currentUser.getCash()
+                );
+            
+                java.util.List<String> triggeredRules = screen(currentUser, potentialTrans);
+                if (!triggeredRules.isEmpty()) {
+                    System.out.println(ConsoleUtils.formatError("WARNING: Suspicious transaction detected! (" + String.join(", ", triggeredRules) + ")"));
                 
-                if (fraudDetector.shouldFreezeAccount(currentUser, timeManager.getCurrentTime())) {
-                    currentUser.setFrozen(true);
-                    userManager.save();
-                    ConsoleUtils.printAccountFrozenBanner();
-                    return false;
+                    if (currentUser.isFrozen()) {
+                        userManager.save(currentUser);
+                        ConsoleUtils.printAccountFrozenBanner();
+                        return false;
+                    }
                 }
-            }
-
-            User recipient = userManager.getAllUsers().get(recipientUsername);
-            String transactionId = java.util.UUID.randomUUID().toString();
-            
-            currentUser.subtractCash(amount);
-            String sendDesc = "Sent to " + recipient.getName();
-            if (!message.isEmpty()) sendDesc += " - " + message;
-            
-            currentUser.addTransaction(new model.Transaction(
-                transactionId,
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.TRANSFER,
-                amount,
-                sendDesc,
-                currentUser.getCash()
-            ));
 
-            recipient.addCash(amount);
-            String rxDesc = "Received from " + currentUser.getName();
-            if (!message.isEmpty()) rxDesc += " - " + message;
-
-            recipient.addTransaction(new model.Transaction(
-                transactionId,
-                timeManager.getCurrentTime(),
-                model.Transaction.Type.DEPOSIT,
-                amount,
-                rxDesc,
-                recipient.getCash()
-            ));
+                String rxDesc = "Received from " + currentUser.getName();
+                if (!message.isEmpty()) rxDesc += " - " + message;
+                transfer(currentUser, recipient, amount, transactionId, sendDesc, rxDesc);
 
-            userManager.save();
-            System.out.println(ConsoleUtils.formatSuccess("Successfully sent $" + amount + " to " + recipient.getName()));
+                currentUser.getRecentRecipients().record(recipient.getUsername());
+                userManager.markDirty(currentUser);
+                userManager.markDirty(recipient);
+                userManager.save();
+                System.out.println(ConsoleUtils.formatSuccess("Successfully sent $" + amount + " to " + recipient.getName()));
+            }
             
         } catch (InvalidAmountException | InsufficientFundsException e) {
             System.out.println(ConsoleUtils.formatError("Failed to send money: " + e.getMessage()));
@@ -191,6 +177,218 @@ public class TransferService {
         return true;
     }
 
+    // Runs the fraud rules on a pending outflow; call with the sender locked. Any hit flags the
+    // sender, and the sender is frozen once shouldFreezeAccount agrees. Rules and freeze policy
+    // share one pass over the activity window. Returns the rules hit.
+    private java.util.List<String> screen(User sender, model.Transaction candidate) {
+        FraudFeatures features = fraudDetector.extractFeatures(sender, candidate, timeManager.getCurrentTime());
+        java.util.List<String> triggeredRules = fraudDetector.evaluate(candidate, features);
+        if (!triggeredRules.isEmpty()) {
+            FRAUD_FLAGGED.increment();
+            sender.setFraudWarning(true);
+            if (fraudDetector.shouldFreezeAccount(features)) {
+                FRAUD_FROZEN.increment();
+                sender.setFrozen(true);
+            }
+        }
+        return triggeredRules;
+    }
+
+    // Applies a file of "senderIban,recipientIban,amount,message" rows without prompting. Blank
+    // lines, '#' comments and a "senderIban,..." header are skipped; the message may contain commas.
+    // Rows run in file order with the same checks and fraud screening as sendMoney, and changes are
+    // saved once per batchSize applied rows instead of once per transfer.
+    public java.util.List<BatchResult> transferBatch(java.io.File file, int batchSize) throws java.io.IOException {
+        try (java.io.BufferedReader reader = new java.io.BufferedReader(
+                new java.io.InputStreamReader(new java.io.FileInputStream(file), java.nio.charset.StandardCharsets.UTF_8))) {
+            return transferBatch(reader, batchSize);
+        }
+    }
+
+    public java.util.List<BatchResult> transferBatch(java.io.BufferedReader reader, int batchSize) throws java.io.IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        java.util.List<BatchResult> results = new java.util.ArrayList<>();
+        int pending = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (lineNumber == 1 && trimmed.toLowerCase().startsWith("senderiban,"))) {
+                continue;
+            }
+            long rowStart = System.nanoTime();
+            BatchResult result = transferRow(lineNumber, trimmed);
+            BATCH_ROW_LATENCY.recordSince(rowStart);
+            (result.isApplied() ? BATCH_APPLIED : BATCH_REJECTED).increment();
+            results.add(result);
+            if (result.isApplied() && ++pending >= batchSize) {
+                userManager.save();
+                pending = 0;
+            }
+        }
+        userManager.save();  // Also persists senders frozen by rejected rows
+        return results;
+    }
+
+    @SuppressWarnings("try")
+    private BatchResult transferRow(int lineNumber, String row) {
+        String[] parts = row.split(",", 4);
+        if (parts.length < 3) {
+            return BatchResult.rejected(lineNumber, "Expected senderIban,recipientIban,amount[,message]");
+        }
+        User sender = userManager.findUserByIban(parts[0]);
+        User recipient = userManager.findUserByIban(parts[1]);
+        if (sender == null) {
+            return BatchResult.rejected(lineNumber, "Unknown sender IBAN " + parts[0].trim());
+        }
+        if (recipient == null) {
+            return BatchResult.rejected(lineNumber, "Unknown recipient IBAN " + parts[1].trim());
+        }
+        if (sender == recipient) {
+            return BatchResult.rejected(lineNumber, "Sender and recipient are the same account");
+        }
+        String message = parts.length > 3 ? parts[3].trim() : "";
+
+        try {
+            BigDecimal amount = InputValidator.parseAmount(parts[2]);
+            try (UserManager.UserLocks locks = userManager.lock(sender, recipient)) {
+                if (sender.isFrozen()) {
+                    return BatchResult.rejected(lineNumber, "Sender account is frozen");
+                }
+                if (amount.compareTo(sender.getCash()) > 0) {
+                    throw new InsufficientFundsException("Insufficient cash.");
+                }
+
+                String transactionId = java.util.UUID.randomUUID().toString();
+                String sendDesc = "Sent to " + recipient.getName();
+                if (!message.isEmpty()) sendDesc += " - " + message;
+
+                model.Transaction potentialTrans = new model.Transaction(
+                    transactionId,
+                    timeManager.getCurrentTime(),
+                    model.Transaction.Type.TRANSFER,
+                    amount,
+                    sendDesc,
+                    sender.getCash()
+                );
+                java.util.List<String> triggeredRules = screen(sender, potentialTrans);
+                if (sender.isFrozen()) {
+                    userManager.markDirty(sender);
+                    return BatchResult.rejected(lineNumber, "Sender account frozen by fraud detection (" + String.join(", ", triggeredRules) + ")");
+                }
+
+                String rxDesc = "Received from " + sender.getName();
+                if (!message.isEmpty()) rxDesc += " - " + message;
+                transfer(sender, recipient, amount, transactionId, sendDesc, rxDesc);
+
+                sender.getRecentRecipients().record(recipient.getUsername());
+                userManager.markDirty(sender);
+                userManager.markDirty(recipient);
+                String note = triggeredRules.isEmpty() ? "" : "Suspicious: " + String.join(", ", triggeredRules);
+                return new BatchResult(lineNumber, true, transactionId, note);
+            }
+        } catch (NumberFormatException e) {
+            return BatchResult.rejected(lineNumber, "Invalid amount " + parts[2].trim());
+        } catch (InvalidAmountException | InsufficientFundsException e) {
+            return BatchResult.rejected(lineNumber, e.getMessage());
+        }
+    }
+
+    // Outcome of one batch row. Applied rows carry the transaction id and any fraud rules that
+    // flagged them; rejected rows carry the reason and changed no balances.
+    public static final class BatchResult {
+        private final int lineNumber;
+        private final boolean applied;
+        private final String transactionId;
+        private final String message;
+
+        BatchResult(int lineNumber, boolean applied, String transactionId, String message) {
+            this.lineNumber = lineNumber;
+            this.applied = applied;
+            this.transactionId = transactionId;
+            this.message = message;
+        }
+
+        static BatchResult rejected(int lineNumber, String reason) {
+            return new BatchResult(lineNumber, false, null, reason);
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public boolean isApplied() {
+            return applied;
+        }
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            String status = applied ? "OK " + transactionId : "REJECTED";
+            return "Line " + lineNumber + ": " + status + (message.isEmpty() ? "" : " - " + message);
+        }
+    }
+
+    // Moves amount from sender's cash to recipient's cash as one step: both users are locked in
+    // stripe order, funds are checked, and both legs and both Transaction records are applied before
+    // either lock is released. Saving is left to the caller, so unrelated transfers never wait on
+    // each other or on the disk.
+    @SuppressWarnings("try")
+    public void transfer(User sender, User recipient, BigDecimal amount, String transactionId, String sendDesc, String rxDesc)
+            throws InvalidAmountException, InsufficientFundsException {
+        if (amount.signum() <= 0) {
+            throw new InvalidAmountException("amount must be positive");
+        }
+        if (sender.getUsername().equalsIgnoreCase(recipient.getUsername())) {
+            throw new IllegalArgumentException("Cannot transfer to the same user.");
+        }
+        long cents = model.Money.toCents(amount);
+        try (util.LatencyHistogram.Timing timing = TRANSFER_LATENCY.start();
+             UserManager.UserLocks locks = userManager.lock(sender, recipient)) {
+            if (cents > sender.getCashCents()) {
+                throw new InsufficientFundsException("Insufficient cash.");
+            }
+            java.time.LocalDateTime now = timeManager.getCurrentTime();
+            sender.subtractCash(amount);
+            sender.addTransaction(new model.Transaction(transactionId, now, model.Transaction.Type.TRANSFER, amount, sendDesc, sender.getCash()));
+            recipient.addCash(amount);
+            recipient.addTransaction(new model.Transaction(transactionId, now, model.Transaction.Type.DEPOSIT, amount, rxDesc, recipient.getCash()));
+        }
+    }
+
+    // One-time migration for users saved before recent recipients were stored:
+    // recover them from the "Sent to <name>" descriptions, oldest first
+    private void seedRecentRecipients(User currentUser) {
+        for (model.Transaction t : currentUser.getTransactions()) {
+            if (t.getType() == model.Transaction.Type.TRANSFER && t.getDescription().startsWith("Sent to ")) {
+                String namePart = t.getDescription().substring(8);
+                if (namePart.contains(" - ")) {
+                    namePart = namePart.split(" - ")[0];
+                }
+                for (User u : userManager.findUsersByName(namePart)) {
+                    if (!u.getUsername().equalsIgnoreCase(currentUser.getUsername())) {
+                        currentUser.getRecentRecipients().record(u.getUsername());
+                    }
+                }
+            }
+        }
+        if (!currentUser.getRecentRecipients().isEmpty()) {
+            userManager.markDirty(currentUser);
+        }
+    }
+
+    @SuppressWarnings("try")
     public void transferBetweenAccounts(User currentUser) {
         System.out.println("1. Transfer from savings to investment");
         System.out.println("2. Transfer from investment to savings");
@@ -215,40 +413,44 @@ public class TransferService {
                 return;
             }
             
-            String transactionId = java.util.UUID.randomUUID().toString();
+            try (util.LatencyHistogram.Timing timing = BETWEEN_ACCOUNTS_LATENCY.start();
+                 UserManager.UserLocks locks = userManager.lock(currentUser)) {
+                String transactionId = java.util.UUID.randomUUID().toString();
             
-            if (toInvestments) {
-                if (amount.compareTo(currentUser.getSavingsAccount().getBalance()) > 0) {
-                    throw new InsufficientFundsException("Insufficient funds");
-                }
-                currentUser.getSavingsAccount().withdraw(amount);
-                currentUser.getInvestmentAccount().deposit(amount);
-                System.out.println("Successfully transferred $" + amount + " to investment account.");
+                if (toInvestments) {
+                    if (amount.compareTo(currentUser.getSavingsAccount().getBalance()) > 0) {
+                        throw new InsufficientFundsException("Insufficient funds");
+                    }
+                    currentUser.getSavingsAccount().withdraw(amount);
+                    currentUser.getInvestmentAccount().deposit(amount);
+                    System.out.println("Successfully transferred $" + amount + " to investment account.");
                 
-                currentUser.addTransaction(new model.Transaction(
-                    transactionId,
-                    timeManager.getCurrentTime(),
-                    model.Transaction.Type.TRANSFER,
-                    amount,
-                    "To Investment Account",
-                    currentUser.getSavingsAccount().getBalance()
-                ));
-            } else {
-                if (amount.compareTo(currentUser.getInvestmentAccount().getBalance()) > 0) {
-                    throw new InsufficientFundsException("Insufficient funds");
-                }
-                currentUser.getInvestmentAccount().withdraw(amount);
-                currentUser.getSavingsAccount().deposit(amount);
-                System.out.println("Successfully transferred $" + amount + " to savings account.");
+                    currentUser.addTransaction(new model.Transaction(
+                        transactionId,
+                        timeManager.getCurrentTime(),
+                        model.Transaction.Type.TRANSFER,
+                        amount,
+                        "To Investment Account",
+                        currentUser.getSavingsAccount().getBalance()
+                    ));
+                } else {
+                    if (amount.compareTo(currentUser.getInvestmentAccount().getBalance()) > 0) {
+                        throw new InsufficientFundsException("Insufficient funds");
+                    }
+                    currentUser.getInvestmentAccount().withdraw(amount);
+                    currentUser.getSavingsAccount().deposit(amount);
+                    System.out.println("Successfully transferred $" + amount + " to savings account.");
 
-                currentUser.addTransaction(new model.Transaction(
-                    transactionId,
-                    timeManager.getCurrentTime(),
-                    model.Transaction.Type.TRANSFER,
-                    amount,
-                    "From Investment Account",
-                    currentUser.getSavingsAccount().getBalance()
-                ));
+                    currentUser.addTransaction(new model.Transaction(
+                        transactionId,
+                        timeManager.getCurrentTime(),
+                        model.Transaction.Type.TRANSFER,
+                        amount,
+                        "From Investment Account",
+                        currentUser.getSavingsAccount().getBalance()
+                    ));
+                }
+                userManager.save(currentUser);
             }
             
         } catch (InvalidAmountException | InsufficientFundsException e) {
@@ -1,44 +1,245 @@
 package service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import model.Transaction;
 import model.User;
 
 public class UserManager {
     private Map<String, User> users;
     private final util.DataStore dataStore;
+    // Number of each user's transactions already persisted
+    private final Map<String, Integer> persistedTransactionCounts = new HashMap<>();
+    // Users changed since the last save
+    private final Set<String> dirtyUsers = new LinkedHashSet<>();
+    // Secondary indexes for transfer recipient lookup
+    private final Map<String, User> usersByIban = new HashMap<>();
+    private final Map<String, List<User>> usersByName = new HashMap<>();
+    // Account numbers already held, so new users never get an IBAN someone else has
+    private util.IbanAllocator ibanAllocator = new util.IbanAllocator();
+    private util.SnapshotCompactor compactor;
+    private model.AccrualClock accrualClock;
+    private volatile util.PasswordHasher passwordHasher = util.PasswordHasher.fromSystemProperty();
+    // Lock stripes guarding users' balances and history across sessions; a user always maps to
+    // the same stripe, and unrelated users rarely share one
+    private final ReentrantLock[] lockStripes = newLockStripes();
+
+    private static final long COMPACTION_MIN_JOURNAL_BYTES = 64 * 1024;
+    private static final int LOCK_STRIPES = 1024;  // Power of two
+
+    private static final util.LatencyHistogram SAVE_LATENCY = util.Metrics.timer("userManager.save");
+    private static final java.util.concurrent.atomic.LongAdder USERS_SAVED = util.Metrics.counter("userManager.usersSaved");
+    private static final java.util.concurrent.atomic.LongAdder USERS_DEFERRED = util.Metrics.counter("userManager.usersDeferred");
 
     // Default constructor
     public UserManager() {
-        this.dataStore = new util.DataStore();
-        this.users = dataStore.loadData();
+        this(new util.DataStore());
     }
-    
+
     // Constructor for in-memory tests
     public UserManager(boolean inMemory) {
         if (inMemory) {
             this.dataStore = null;  // No database for tests
             this.users = new HashMap<>();
+            // Nothing is persisted, so there is no stored hash to protect; keeps registration cheap
+            this.passwordHasher = new util.PasswordHasher(util.PasswordHasher.MIN_ITERATIONS);
         } else {
             this.dataStore = new util.DataStore();
             this.users = dataStore.loadData();
+            markAllPersisted();
+            rebuildIndexes();
         }
     }
-    
-    public void save() {
+
+    public UserManager(util.DataStore dataStore) {
+        this.dataStore = dataStore;
+        this.users = dataStore.loadData();
+        markAllPersisted();
+        rebuildIndexes();
+    }
+
+    // Persists only the users marked dirty since the last save, plus their new transactions.
+    // Users locked by another session stay dirty, so a half-applied change is never written;
+    // that session's own save picks them up.
+    public synchronized void save() {
+        if (dataStore == null) {
+            dirtyUsers.clear();
+            return;
+        }
+        if (dirtyUsers.isEmpty()) {
+            return;
+        }
+        Map<User, List<Transaction>> changes = new LinkedHashMap<>();
+        List<ReentrantLock> held = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (String key : dirtyUsers) {
+                User user = users.get(key);
+                if (user == null) {
+                    continue;
+                }
+                ReentrantLock lock = lockStripes[stripeOf(key)];
+                if (!lock.tryLock()) {
+                    USERS_DEFERRED.increment();
+                    continue;
+                }
+                held.add(lock);
+                int persisted = persistedTransactionCounts.getOrDefault(key, 0);
+                changes.put(user, user.getTransactionsSince(persisted));
+            }
+            dataStore.saveChanges(users, changes);
+            for (User user : changes.keySet()) {
+                String key = user.getUsername().toLowerCase();
+                persistedTransactionCounts.put(key, user.getTransactionCount());
+                dirtyUsers.remove(key);
+            }
+            dirtyUsers.removeIf(key -> !users.containsKey(key));
+            USERS_SAVED.add(changes.size());
+        } finally {
+            for (ReentrantLock lock : held) {
+                lock.unlock();
+            }
+            SAVE_LATENCY.recordSince(start);
+        }
+    }
+
+    // Locks the given users for one change. Stripes are always taken in ascending order, so two
+    // sessions locking the same users in any argument order cannot deadlock.
+    // Release with close(), e.g. try-with-resources. The variable is only a scope guard and is
+    // never read in the block, so methods holding locks that way suppress javac's "try" lint.
+    public UserLocks lock(User... toLock) {
+        int[] stripes = new int[toLock.length];
+        for (int i = 0; i < toLock.length; i++) {
+            stripes[i] = stripeOf(toLock[i].getUsername().toLowerCase());
+        }
+        java.util.Arrays.sort(stripes);
+        ReentrantLock[] locks = new ReentrantLock[stripes.length];
+        int count = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i > 0 && stripes[i] == stripes[i - 1]) {
+                continue;  // Users sharing a stripe need it only once
+            }
+            locks[count] = lockStripes[stripes[i]];
+            locks[count].lock();
+            count++;
+        }
+        return new UserLocks(locks, count);
+    }
+
+    private static ReentrantLock[] newLockStripes() {
+        ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+
+    private static int stripeOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    public static final class UserLocks implements AutoCloseable {
+        private final ReentrantLock[] locks;
+        private final int count;
+
+        private UserLocks(ReentrantLock[] locks, int count) {
+            this.locks = locks;
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            for (int i = count - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    public synchronized void save(User user) {
+        markDirty(user);
+        save();
+    }
+
+    // Rewrites the whole database, regardless of what changed
+    public synchronized void saveAll() {
         if (dataStore != null) {
             dataStore.saveData(users);
+            markAllPersisted();
+        }
+    }
+
+    public synchronized void markDirty(User user) {
+        if (findUser(user.getUsername()) == user) {
+            dirtyUsers.add(user.getUsername().toLowerCase());  // Users outside this manager are never persisted
+        }
+    }
+
+    // Starts folding the journal into the CSV snapshot in the background
+    public synchronized void startCompaction(long intervalSeconds) {
+        if (dataStore == null || !dataStore.isJournaled() || compactor != null) {
+            return;
+        }
+        compactor = new util.SnapshotCompactor(dataStore, COMPACTION_MIN_JOURNAL_BYTES);
+        compactor.start(intervalSeconds);
+    }
+
+    public synchronized void stopCompaction() {
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
         }
     }
 
-    public boolean userExists(String name) {
+    // Attaches every current and future user to a lazy accrual clock
+    public synchronized void setAccrualClock(model.AccrualClock clock) {
+        this.accrualClock = clock;
+        for (User user : users.values()) {
+            user.attachClock(clock);
+        }
+    }
+
+    // Saves users whose gains are still pending, e.g. before exit; saving reads and so settles them
+    public synchronized void flushAccruals() {
+        for (User user : users.values()) {
+            if (user.hasPendingAccrual()) {
+                markDirty(user);
+            }
+        }
+        save();
+    }
+
+    private void markAllPersisted() {
+        dirtyUsers.clear();
+        persistedTransactionCounts.clear();
+        for (Map.Entry<String, User> entry : users.entrySet()) {
+            persistedTransactionCounts.put(entry.getKey(), entry.getValue().getTransactionCount());
+        }
+    }
+
+    public synchronized boolean userExists(String name) {
         return users.containsKey(name.toLowerCase());
     }
 
-    public User findUser(String name) {
+    public synchronized User findUser(String name) {
         return users.get(name.toLowerCase());
     }
 
+    public util.PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    // Hashes made from now on use this work factor; older ones are upgraded at their next login
+    public void setPasswordHasher(util.PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
     public void registerUser(String firstName, String lastName, String username, String password) {
         if (firstName == null || firstName.trim().isEmpty()) {
             throw new IllegalArgumentException("First Name cannot be empty.");
@@ -53,11 +254,69 @@ public class UserManager {
             System.out.println("User already exists.");
             return;
         }
-        User newUser = new User(firstName.trim(), lastName == null ? "" : lastName.trim(), username.trim(), password);
-        users.put(username.toLowerCase(), newUser);
-        save();
+        // Hashing is deliberately slow, so it runs before taking the manager's lock
+        String passwordHash = passwordHasher.hash(password);
+        synchronized (this) {
+            if (userExists(username)) {
+                System.out.println("User already exists.");
+                return;
+            }
+            User newUser = new User(firstName.trim(), lastName == null ? "" : lastName.trim(), username.trim(), null);
+            newUser.setPasswordHash(passwordHash);
+            newUser.setIban(ibanAllocator.allocate());
+            if (accrualClock != null) {
+                newUser.attachClock(accrualClock);
+            }
+            users.put(username.toLowerCase(), newUser);
+            index(newUser);
+            save(newUser);
+        }
+    }
+
+    public synchronized User findUserByIban(String iban) {
+        if (iban == null) {
+            return null;
+        }
+        return usersByIban.get(iban.trim().toUpperCase());
+    }
+
+    // All users whose full name matches, ignoring case and extra whitespace
+    public synchronized List<User> findUsersByName(String fullName) {
+        if (fullName == null) {
+            return List.of();
+        }
+        return List.copyOf(usersByName.getOrDefault(normalizeName(fullName), List.of()));
     }
-    
+
+    // Call after modifying getAllUsers() directly. Also rebuilds the issued IBANs; a user whose IBAN
+    // another user already holds (e.g. from older random generation) is given a new one, since
+    // transfers to a shared IBAN could only ever reach one of them.
+    public synchronized void rebuildIndexes() {
+        usersByIban.clear();
+        usersByName.clear();
+        ibanAllocator = new util.IbanAllocator();
+        for (User user : users.values()) {
+            if (!ibanAllocator.reserve(user.getIban())) {
+                String iban = ibanAllocator.allocate();
+                System.err.println("Warning: IBAN " + user.getIban() + " of user '" + user.getUsername() + "' is already in use. Reassigned " + iban + ".");
+                user.setIban(iban);
+                markDirty(user);
+            }
+            index(user);
+        }
+    }
+
+    private void index(User user) {
+        if (user.getIban() != null) {
+            usersByIban.put(user.getIban().toUpperCase(), user);
+        }
+        usersByName.computeIfAbsent(normalizeName(user.getName()), k -> new ArrayList<>()).add(user);
+    }
+
+    private static String normalizeName(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
     public Map<String, User> getAllUsers() {
         return users;  // Return direct reference (tests need to manipulate for persistence simulation)
     }
@@ -0,0 +1,77 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccrualClockTest {
+
+    private AccrualClock clock;
+    private SavingsAccount savings;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AccrualClock(GainMode.COMPOUNDED);
+        savings = new SavingsAccount();
+        savings.deposit(new BigDecimal("1000.00"));
+        savings.attachClock(clock);
+    }
+
+    @Test
+    void testAdvanceDoesNotTouchAccountUntilRead() {
+        clock.advance(3);
+
+        assertTrue(savings.hasPendingAccrual());
+        assertEquals(new BigDecimal("1030.30"), savings.getBalance());
+        assertFalse(savings.hasPendingAccrual());
+    }
+
+    @Test
+    void testRepeatedReadsAccrueOnlyOnce() {
+        clock.advance(1);
+
+        assertEquals(new BigDecimal("1010.00"), savings.getBalance());
+        assertEquals(new BigDecimal("1010.00"), savings.getBalance());
+    }
+
+    @Test
+    void testDepositSettlesPendingGainsFirst() {
+        clock.advance(1);
+        savings.deposit(new BigDecimal("100.00"));
+
+        // Gains on the old balance only: 1000 * 1.01 + 100
+        assertEquals(new BigDecimal("1110.00"), savings.getBalance());
+    }
+
+    @Test
+    void testFundBalancesAccrueLazily() {
+        InvestmentAccount investment = new InvestmentAccount();
+        investment.deposit(new BigDecimal("1000.00"));
+        investment.investInFund(Fund.MEDIUM_RISK, new BigDecimal("1000.00"));
+        investment.attachClock(clock);
+
+        clock.advance(3);
+
+        assertEquals(new BigDecimal("1157.63"), investment.getFundBalance(Fund.MEDIUM_RISK));
+    }
+
+    @Test
+    void testLongAbsenceSettlesWithoutOverflow() {
+        clock.setMode(GainMode.DAILY_ROUNDING);
+        clock.advance(3650);
+
+        assertEquals(Money.toBigDecimal(Money.MAX_CENTS), savings.getBalance());
+        assertFalse(savings.hasPendingAccrual());
+        clock.advance(1);
+        assertEquals(Money.toBigDecimal(Money.MAX_CENTS), savings.getBalance());
+    }
+
+    @Test
+    void testNegativeAdvanceIsIgnored() {
+        clock.advance(-5);
+
+        assertEquals(0, clock.today());
+        assertFalse(savings.hasPendingAccrual());
+    }
+}
@@ -0,0 +1,68 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityWindowTest {
+    
+    private ActivityWindow window;
+    private LocalDateTime now;
+    
+    @BeforeEach
+    void setUp() {
+        window = new ActivityWindow();
+        now = LocalDateTime.of(2025, 6, 1, 12, 0);
+    }
+    
+    @Test
+    void testOnlyOutflowsAreRecorded() {
+        window.record(transaction(now, Transaction.Type.DEPOSIT));
+        window.record(transaction(now, Transaction.Type.INVEST));
+        window.record(transaction(now, Transaction.Type.TRANSFER));
+        window.record(transaction(now, Transaction.Type.WITHDRAW));
+        
+        assertEquals(2, window.size());
+    }
+    
+    @Test
+    void testCountExcludesEntriesAtOrBeforeCutoff() {
+        window.record(transaction(now.minusHours(24), Transaction.Type.TRANSFER));
+        window.record(transaction(now.minusHours(23), Transaction.Type.TRANSFER));
+        window.record(transaction(now, Transaction.Type.TRANSFER));
+        
+        assertEquals(2, window.countOutflowsAfter(now.minusHours(24), t -> true));
+    }
+    
+    @Test
+    void testOutOfOrderEntriesAreKeptSorted() {
+        window.record(transaction(now, Transaction.Type.TRANSFER));
+        window.record(transaction(now.minusHours(30), Transaction.Type.TRANSFER));
+        window.record(transaction(now.minusHours(1), Transaction.Type.TRANSFER));
+        
+        assertEquals(2, window.countOutflowsAfter(now.minusHours(24), t -> true));
+        assertEquals(now, window.newestFirst().next().getTimestamp());
+    }
+    
+    @Test
+    void testEntriesBeyondRetentionArePruned() {
+        window.record(transaction(now.minusDays(30), Transaction.Type.TRANSFER));
+        window.record(transaction(now, Transaction.Type.TRANSFER));
+        
+        assertEquals(1, window.size());
+    }
+    
+    @Test
+    void testFilterIsApplied() {
+        window.record(transaction(now, Transaction.Type.TRANSFER));
+        window.record(transaction(now, Transaction.Type.WITHDRAW));
+        
+        assertEquals(1, window.countOutflowsAfter(now.minusHours(1), t -> t.getType() == Transaction.Type.WITHDRAW));
+    }
+    
+    private Transaction transaction(LocalDateTime timestamp, Transaction.Type type) {
+        return new Transaction(timestamp, type, new BigDecimal("100.00"), "Test", BigDecimal.ZERO);
+    }
+}
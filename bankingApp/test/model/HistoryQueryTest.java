@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryQueryTest {
+
+    private User user;
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Test", "User", "testuser", "password");
+        // Day i: deposit on even days, withdrawal on odd days, amount = i + 1
+        for (int i = 0; i < 25; i++) {
+            Transaction.Type type = i % 2 == 0 ? Transaction.Type.DEPOSIT : Transaction.Type.WITHDRAW;
+            user.addTransaction(new Transaction("tx-" + i, base.plusDays(i), type,
+                new BigDecimal(i + 1), "Day " + i, user.getCash()));
+        }
+    }
+
+    private List<String> ids(HistoryPage page) {
+        List<String> ids = new ArrayList<>();
+        for (Transaction t : page.getTransactions()) {
+            ids.add(t.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testLatestReturnsNewestFirst() {
+        HistoryPage page = user.queryHistory(HistoryQuery.latest(3));
+
+        assertEquals(List.of("tx-24", "tx-23", "tx-22"), ids(page));
+        assertTrue(page.hasMore());
+    }
+
+    @Test
+    void testCursorWalksAllPagesWithoutGapsOrRepeats() {
+        HistoryQuery query = HistoryQuery.latest(10);
+        List<String> seen = new ArrayList<>();
+        HistoryPage page;
+        do {
+            page = user.queryHistory(query);
+            seen.addAll(ids(page));
+            query = query.after(page.getNextCursor());
+        } while (page.hasMore());
+
+        assertEquals(25, seen.size());
+        assertEquals("tx-0", seen.get(24));
+    }
+
+    @Test
+    void testTypeFilterUsesOnlyMatchingRows() {
+        HistoryPage page = user.queryHistory(HistoryQuery.latest(4).ofTypes(Transaction.Type.WITHDRAW));
+
+        assertEquals(List.of("tx-23", "tx-21", "tx-19", "tx-17"), ids(page));
+    }
+
+    @Test
+    void testTimeRangeIsHalfOpen() {
+        HistoryPage page = user.queryHistory(HistoryQuery.latest(10).between(base.plusDays(5), base.plusDays(8)));
+
+        assertEquals(List.of("tx-7", "tx-6", "tx-5"), ids(page));
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void testLastFullPageReportsNoMore() {
+        HistoryPage page = user.queryHistory(HistoryQuery.latest(5).ofTypes(Transaction.Type.DEPOSIT)
+            .between(base, base.plusDays(10)));
+
+        assertEquals(5, page.getTransactions().size());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void testOutOfOrderHistoryStillFiltersByTime() {
+        user.addTransaction(new Transaction("late-entry", base.minusDays(3), Transaction.Type.DEPOSIT,
+            new BigDecimal("1.00"), "Backdated", user.getCash()));
+
+        HistoryPage page = user.queryHistory(HistoryQuery.latest(10).between(base.minusDays(5), base.plusDays(1)));
+
+        assertEquals(List.of("late-entry", "tx-0"), ids(page));
+    }
+
+    @Test
+    void testNonPositivePageSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryQuery.latest(0));
+    }
+}
@@ -106,4 +106,35 @@ class InvestmentAccountTest {
         
         assertEquals(BigDecimal.ZERO, account.getTotalFundInvestments());
     }
+    
+    @Test
+    void testCompoundedMultiDayGainsPerFund() {
+        account.deposit(new BigDecimal("2000.00"));
+        account.investInFund(Fund.LOW_RISK, new BigDecimal("1000.00"));
+        account.investInFund(Fund.MEDIUM_RISK, new BigDecimal("1000.00"));
+        
+        account.applyGains(3, GainMode.COMPOUNDED);
+        
+        // 1000 * 1.02^3 = 1061.208, 1000 * 1.05^3 = 1157.625
+        assertEquals(new BigDecimal("1061.21"), account.getFundBalance(Fund.LOW_RISK));
+        assertEquals(new BigDecimal("1157.63"), account.getFundBalance(Fund.MEDIUM_RISK));
+    }
+    @Test
+    void testLongHighRiskAbsenceMatchesBigDecimalUntilCap() {
+        account.deposit(new BigDecimal("1000.00"));
+        account.investInFund(Fund.HIGH_RISK, new BigDecimal("1000.00"));
+
+        // 200 days of daily rounding overflowed cents * rate in a long; the reference is plain BigDecimal
+        account.applyGains(200, GainMode.DAILY_ROUNDING);
+        BigDecimal expected = new BigDecimal("1000.00");
+        for (int day = 0; day < 200; day++) {
+            expected = expected.add(expected.multiply(new BigDecimal("0.10"))).setScale(2, java.math.RoundingMode.HALF_UP);
+        }
+        assertEquals(expected, account.getFundBalance(Fund.HIGH_RISK));
+
+        account.applyGains(730, GainMode.COMPOUNDED);
+        assertEquals(Money.toBigDecimal(Money.MAX_CENTS), account.getFundBalance(Fund.HIGH_RISK));
+        account.withdrawAllFunds();
+        assertEquals(Money.toBigDecimal(Money.MAX_CENTS), account.getBalance());
+    }
 }
@@ -0,0 +1,60 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testCentsRoundTrip() {
+        assertEquals(12345, Money.toCents(new BigDecimal("123.45")));
+        assertEquals(50000, Money.toCents(new BigDecimal("500")));
+        assertEquals(new BigDecimal("123.45"), Money.toBigDecimal(12345));
+    }
+
+    @Test
+    void testToCentsRoundsHalfUp() {
+        assertEquals(1001, Money.toCents(new BigDecimal("10.005")));
+        assertEquals(1000, Money.toCents(new BigDecimal("10.004")));
+    }
+
+    @Test
+    void testApplyRateMatchesBigDecimalRounding() {
+        BigDecimal rate = new BigDecimal("0.05");
+        long ratePpm = Money.toRatePpm(0.05);
+        for (long cents = 0; cents < 20000; cents += 7) {
+            BigDecimal amount = Money.toBigDecimal(cents);
+            BigDecimal expected = amount.add(amount.multiply(rate)).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.toBigDecimal(cents + Money.applyRate(cents, ratePpm)), "cents " + cents);
+        }
+    }
+
+    @Test
+    void testApplyRateOnLargeBalancesMatchesBigDecimal() {
+        for (long cents : new long[] {Long.MAX_VALUE / 2, Money.MAX_CENTS - 1, 92_233_720_368_548L, -Long.MAX_VALUE / 3}) {
+            BigDecimal expected = Money.toBigDecimal(cents).multiply(new BigDecimal("0.1")).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.toBigDecimal(Money.applyRate(cents, Money.toRatePpm(0.10))), "cents " + cents);
+        }
+    }
+
+    @Test
+    void testAddGainStopsAtCap() {
+        assertEquals(150, Money.addGain(100, 50));
+        assertEquals(Money.MAX_CENTS, Money.addGain(Money.MAX_CENTS - 10, 50));
+        assertEquals(Money.MAX_CENTS, Money.addGain(Money.MAX_CENTS - 10, Long.MAX_VALUE));
+        assertEquals(Money.MAX_CENTS + 5, Money.addGain(Money.MAX_CENTS + 5, 50));  // Never shrinks a larger balance
+        assertEquals(Money.MAX_CENTS, Money.toCentsCapped(new BigDecimal("1e40")));
+        assertEquals(12345, Money.toCentsCapped(new BigDecimal("123.45")));
+    }
+
+    @Test
+    void testTransactionKeepsCents() {
+        Transaction t = new Transaction(java.time.LocalDateTime.now(), Transaction.Type.DEPOSIT,
+            new BigDecimal("99.90"), "Deposit", new BigDecimal("1099.90"));
+
+        assertEquals(9990, t.getAmountCents());
+        assertEquals(new BigDecimal("99.90"), t.getAmount());
+    }
+}
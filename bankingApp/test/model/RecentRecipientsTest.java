@@ -0,0 +1,50 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentRecipientsTest {
+
+    @Test
+    void testNewestFirstAndResendMovesToFront() {
+        RecentRecipients recents = new RecentRecipients();
+        recents.record("alice");
+        recents.record("bob");
+        recents.record("Alice");
+
+        assertEquals(List.of("alice", "bob"), recents.newestFirst());
+    }
+
+    @Test
+    void testOldestIsEvictedAtCapacity() {
+        RecentRecipients recents = new RecentRecipients();
+        for (int i = 0; i <= RecentRecipients.CAPACITY; i++) {
+            recents.record("user" + i);
+        }
+
+        assertEquals(RecentRecipients.CAPACITY, recents.size());
+        assertFalse(recents.newestFirst().contains("user0"));
+        assertEquals("user" + RecentRecipients.CAPACITY, recents.newestFirst().get(0));
+    }
+
+    @Test
+    void testSerializeRoundTrip() {
+        RecentRecipients recents = new RecentRecipients();
+        recents.record("alice");
+        recents.record("bob");
+
+        RecentRecipients loaded = new RecentRecipients();
+        loaded.load(recents.serialize());
+
+        assertEquals(recents.newestFirst(), loaded.newestFirst());
+    }
+
+    @Test
+    void testLoadEmptyColumn() {
+        RecentRecipients recents = new RecentRecipients();
+        recents.load("");
+
+        assertTrue(recents.isEmpty());
+    }
+}
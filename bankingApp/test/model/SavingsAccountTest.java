@@ -67,4 +67,97 @@ class SavingsAccountTest {
         
         assertEquals(new BigDecimal("0.00"), account.getBalance());
     }
+    
+    @Test
+    void testCompoundedMultiDayGainsMatchClosedForm() {
+        account.deposit(new BigDecimal("1000.00"));
+        account.applyGains(3, GainMode.COMPOUNDED);
+        
+        // 1000 * 1.01^3 = 1030.301
+        assertEquals(new BigDecimal("1030.30"), account.getBalance());
+    }
+    
+    @Test
+    void testDailyRoundingModeMatchesRepeatedApplyGains() {
+        SavingsAccount daily = new SavingsAccount();
+        daily.deposit(new BigDecimal("1234.56"));
+        account.deposit(new BigDecimal("1234.56"));
+        
+        for (int i = 0; i < 30; i++) {
+            daily.applyGains();
+        }
+        account.applyGains(30, GainMode.DAILY_ROUNDING);
+        
+        assertEquals(daily.getBalance(), account.getBalance());
+    }
+    
+    @Test
+    void testCompoundedStaysWithinCentsOfDailyRounding() {
+        SavingsAccount daily = new SavingsAccount();
+        daily.deposit(new BigDecimal("100.00"));
+        account.deposit(new BigDecimal("100.00"));
+        
+        daily.applyGains(365, GainMode.DAILY_ROUNDING);
+        account.applyGains(365, GainMode.COMPOUNDED);
+        
+        BigDecimal drift = daily.getBalance().subtract(account.getBalance()).abs();
+        assertTrue(drift.compareTo(daily.getBalance().movePointLeft(3)) < 0, "drift " + drift);
+    }
+    
+    @Test
+    void testTenYearAbsenceStopsAtCapInEitherMode() {
+        SavingsAccount daily = new SavingsAccount();
+        daily.deposit(new BigDecimal("1000.00"));
+        account.deposit(new BigDecimal("1000.00"));
+        
+        daily.applyGains(3650, GainMode.DAILY_ROUNDING);
+        account.applyGains(3650, GainMode.COMPOUNDED);
+        
+        // 1000 * 1.01^3650 is far beyond the cap
+        assertEquals(Money.MAX_CENTS, daily.getBalanceCents());
+        assertEquals(Money.MAX_CENTS, account.getBalanceCents());
+    }
+    
+    @Test
+    void testMultiDayGainsWithZeroDaysLeavesBalance() {
+        account.deposit(new BigDecimal("1000.00"));
+        account.applyGains(0, GainMode.COMPOUNDED);
+        
+        assertEquals(new BigDecimal("1000.00"), account.getBalance());
+    }
+    
+    @Test
+    void testTryWithdrawRejectsWithoutChangingBalance() {
+        account.deposit(new BigDecimal("100.00"));
+        long version = account.getVersion();
+        
+        assertFalse(account.tryWithdraw(new BigDecimal("100.01")));
+        assertEquals(version, account.getVersion());
+        assertTrue(account.tryWithdraw(new BigDecimal("40.00")));
+        assertEquals(new BigDecimal("60.00"), account.getBalance());
+        assertNotEquals(version, account.getVersion());
+    }
+    
+    @Test
+    void testConcurrentOptimisticUpdatesAreNotLost() throws InterruptedException {
+        account.deposit(new BigDecimal("10000.00"));
+        BigDecimal cents3 = new BigDecimal("0.03");
+        BigDecimal cent = new BigDecimal("0.01");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    if (account.tryWithdraw(cents3)) {
+                        account.deposit(cent);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(1_000_000 - 4 * 50_000 * 2, account.getBalanceCents());
+    }
 }
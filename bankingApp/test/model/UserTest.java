@@ -132,4 +132,110 @@ class UserTest {
         // Original should still have the transaction
         assertEquals(1, user.getTransactionHistory().size());
     }
+    
+    @Test
+    void testGetTransactionsIsReadOnlyLiveView() {
+        var view = user.getTransactions();
+        user.addTransaction(new Transaction(LocalDateTime.now(), Transaction.Type.DEPOSIT,
+            new BigDecimal("50.00"), "Test", new BigDecimal("50.00")));
+        
+        assertEquals(1, view.size());
+        assertThrows(UnsupportedOperationException.class, view::clear);
+    }
+    
+    @Test
+    void testNewestFirstIteratesBackwards() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            user.addTransaction(new Transaction("tx-" + i, now.plusMinutes(i), Transaction.Type.DEPOSIT,
+                new BigDecimal("1.00"), "Test", new BigDecimal("1.00")));
+        }
+        
+        var it = user.newestFirst();
+        assertEquals("tx-2", it.next().getId());
+        assertEquals("tx-1", it.next().getId());
+        assertEquals("tx-0", it.next().getId());
+        assertFalse(it.hasNext());
+    }
+    
+    @Test
+    void testArchivedHistoryPagesTogetherWithNewRows() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        java.util.List<Transaction> rows = new java.util.ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Transaction("old-" + i, start.plusDays(i), i % 2 == 0 ? Transaction.Type.DEPOSIT : Transaction.Type.WITHDRAW,
+                new BigDecimal("1.00"), "Old", new BigDecimal("1.00")));
+        }
+        user.attachArchivedHistory(new ListArchive(rows));
+        user.addTransaction(new Transaction("new-0", start.plusDays(10), Transaction.Type.DEPOSIT,
+            new BigDecimal("1.00"), "New", new BigDecimal("2.00")));
+        
+        assertEquals(11, user.getTransactionCount());
+        assertEquals(java.util.List.of("new-0", "old-9", "old-8"), ids(user.queryHistory(HistoryQuery.latest(3)).getTransactions()));
+        assertEquals(java.util.List.of("old-9", "old-7", "old-5", "old-3", "old-1"),
+            ids(user.queryHistory(HistoryQuery.latest(10).ofTypes(Transaction.Type.WITHDRAW)).getTransactions()));
+        assertEquals(java.util.List.of("old-3", "old-2"),
+            ids(user.queryHistory(HistoryQuery.latest(10).between(start.plusDays(2), start.plusDays(4))).getTransactions()));
+        assertEquals(java.util.List.of("new-0"), ids(user.getTransactionsSince(10)));
+    }
+    
+    @Test
+    void testArchivedHistoryDecodesOnlyTheActivityWindow() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        java.util.List<Transaction> rows = new java.util.ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Transaction("out-" + i, start.plusDays(i), Transaction.Type.WITHDRAW,
+                new BigDecimal("1.00"), "Out", new BigDecimal("1.00")));
+        }
+        ListArchive archive = new ListArchive(rows);
+        
+        user.attachArchivedHistory(archive);
+        
+        // Days 2 to 9 are within seven days of the newest row
+        assertEquals(8, user.getActivityWindow().size());
+        assertEquals(8, archive.decoded);
+    }
+    
+    @Test
+    void testArchiveCannotReplaceLoadedHistory() {
+        user.addTransaction(new Transaction(LocalDateTime.now(), Transaction.Type.DEPOSIT,
+            new BigDecimal("1.00"), "Test", new BigDecimal("1.00")));
+        
+        assertThrows(IllegalStateException.class, () -> user.attachArchivedHistory(new ListArchive(java.util.List.of())));
+    }
+    
+    private static java.util.List<String> ids(java.util.List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+    
+    // In-memory stand-in for the columnar store that counts decoded rows
+    private static class ListArchive implements ArchivedHistory {
+        private final java.util.List<Transaction> rows;
+        int decoded;
+        
+        ListArchive(java.util.List<Transaction> rows) {
+            this.rows = rows;
+        }
+        
+        @Override
+        public int size() {
+            return rows.size();
+        }
+        
+        @Override
+        public Transaction get(int index) {
+            decoded++;
+            return rows.get(index);
+        }
+        
+        @Override
+        public Transaction.Type typeAt(int index) {
+            return rows.get(index).getType();
+        }
+        
+        @Override
+        public LocalDateTime timestampAt(int index) {
+            return rows.get(index).getTimestamp();
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionStampTest {
+
+    @Test
+    void testClaimMakesVersionOddUntilReleased() {
+        VersionStamp stamp = new VersionStamp();
+        long claimed = stamp.claim();
+
+        assertEquals(0, claimed);
+        assertEquals(1, stamp.get());
+        assertFalse(stamp.tryClaim(stamp.get()));
+
+        stamp.release(claimed);
+        assertEquals(2, stamp.get());
+    }
+
+    @Test
+    void testStaleStampFailsValidationAndClaim() {
+        VersionStamp stamp = new VersionStamp();
+        long read = stamp.readStamp();
+        assertTrue(stamp.validate(read));
+
+        stamp.release(stamp.claim());
+
+        assertFalse(stamp.validate(read));
+        assertFalse(stamp.tryClaim(read));
+        assertTrue(stamp.tryClaim(stamp.readStamp()));
+    }
+
+    @Test
+    void testReaderWaitsOutWriter() throws InterruptedException {
+        VersionStamp stamp = new VersionStamp();
+        long claimed = stamp.claim();
+        long[] seen = new long[1];
+        Thread reader = new Thread(() -> seen[0] = stamp.readStamp());
+        reader.start();
+        reader.join(100);
+        assertTrue(reader.isAlive());
+
+        stamp.release(claimed);
+        reader.join(5000);
+        assertEquals(2, seen[0]);
+    }
+}
@@ -3,6 +3,7 @@ package service;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import model.User;
+import util.PasswordHasher;
 import java.io.ByteArrayInputStream;
 import java.util.Scanner;
 import static org.junit.jupiter.api.Assertions.*;
@@ -121,4 +122,44 @@ class AuthenticationServiceTest {
         
         assertNull(result);
     }
+    
+    @Test
+    void testLoginMigratesLegacyPasswordToHash() {
+        userManager.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        User legacy = new User("Gina", "Lopez", "gina", "secret");  // As loaded from an older users.csv
+        userManager.getAllUsers().put("gina", legacy);
+        userManager.rebuildIndexes();
+
+        // A wrong password changes nothing
+        Scanner scanner = new Scanner(new ByteArrayInputStream("1\ngina\nwrong\nback\n0\n".getBytes()));
+        assertNull(new AuthenticationService(userManager, scanner).authenticate());
+        assertNull(legacy.getPasswordHash());
+
+        scanner = new Scanner(new ByteArrayInputStream("1\ngina\nsecret\n".getBytes()));
+        assertSame(legacy, new AuthenticationService(userManager, scanner).authenticate());
+
+        assertNull(legacy.getPassword());
+        assertTrue(userManager.getPasswordHasher().verify("secret", legacy.getPasswordHash()));
+
+        // The hash is what later logins check
+        scanner = new Scanner(new ByteArrayInputStream("1\ngina\nsecret\n".getBytes()));
+        assertSame(legacy, new AuthenticationService(userManager, scanner).authenticate());
+    }
+
+    @Test
+    void testLoginRehashesWhenWorkFactorChanges() {
+        userManager.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        userManager.registerUser("Hank", "Moody", "hank", "secret");
+        String oldHash = userManager.findUser("hank").getPasswordHash();
+
+        PasswordHasher stronger = new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 2);
+        userManager.setPasswordHasher(stronger);
+        Scanner scanner = new Scanner(new ByteArrayInputStream("1\nhank\nsecret\n".getBytes()));
+        assertNotNull(new AuthenticationService(userManager, scanner).authenticate());
+
+        String newHash = userManager.findUser("hank").getPasswordHash();
+        assertNotEquals(oldHash, newHash);
+        assertFalse(stronger.needsRehash(newHash));
+        assertTrue(stronger.verify("secret", newHash));
+    }
 }
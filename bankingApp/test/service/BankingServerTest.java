@@ -0,0 +1,110 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import model.User;
+import java.io.*;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankingServerTest {
+
+    private UserManager userManager;
+    private BankingServer server;
+    private Thread serverThread;
+    private File metricsFile;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        userManager = new UserManager(true);
+        userManager.registerUser("Alice", "Smith", "alice", "pw");
+        userManager.registerUser("Bob", "Jones", "bob", "pw");
+        metricsFile = new File("test-metrics-" + System.nanoTime() + ".txt");
+        server = new BankingServer(userManager, 8, metricsFile);
+        serverThread = new Thread(() -> {
+            try {
+                server.serve(0);
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        serverThread.start();
+        while (server.getPort() < 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.stop();
+        serverThread.join(15000);
+        metricsFile.delete();
+    }
+
+    // Sends the script, then returns everything the server wrote until it closed the connection
+    private String session(String script) throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(15000);
+            socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testSessionRunsMenuOverSocket() throws IOException {
+        String output = session("1\nalice\npw\n2\n100.00\n11\n");
+
+        assertTrue(output.contains("Welcome, Alice Smith!"));
+        assertTrue(output.contains("Deposit successful."));
+        assertEquals(new BigDecimal("100.00"), userManager.findUser("alice").getSavingsAccount().getBalance());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoney() throws Exception {
+        User alice = userManager.findUser("alice");
+        User bob = userManager.findUser("bob");
+        int transfers = 20;
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        List<Future<String>> outputs = new ArrayList<>();
+        for (int client = 0; client < 4; client++) {
+            User from = client % 2 == 0 ? alice : bob;
+            User to = from == alice ? bob : alice;
+            StringBuilder script = new StringBuilder("1\n" + from.getUsername() + "\npw\n");
+            for (int i = 0; i < transfers; i++) {
+                script.append("4\n2\n").append(to.getName()).append('\n').append(to.getIban()).append("\n\n1.00\n");
+            }
+            script.append("11\n");
+            outputs.add(clients.submit(() -> session(script.toString())));
+        }
+        for (Future<String> output : outputs) {
+            assertTrue(output.get(60, TimeUnit.SECONDS).contains("Successfully sent $1.00"));
+        }
+        clients.shutdown();
+
+        assertEquals(new BigDecimal("20000.00"), alice.getCash().add(bob.getCash()));
+        assertEquals(new BigDecimal("10000.00"), alice.getCash());
+        assertEquals(2 * 4 * transfers, alice.getTransactionCount() + bob.getTransactionCount());
+    }
+    
+    @Test
+    void testStatsCommandAndMetricsDumpOnStop() throws Exception {
+        String output = session("1\nalice\npw\n2\n100.00\n13\n11\n");
+        
+        assertTrue(output.contains("--- Operation Stats ---"), output);
+        assertTrue(output.contains("banking.deposit"), output);
+        assertTrue(output.contains("banking.login"), output);
+        
+        server.stop();
+        serverThread.join(15000);
+        String dump = new String(java.nio.file.Files.readAllBytes(metricsFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(dump.startsWith("Metrics since "), dump);
+        assertTrue(dump.contains("banking.deposit"), dump);
+    }
+}
@@ -0,0 +1,132 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import model.Transaction;
+import model.User;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudRulesTest {
+
+    private User user;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Test", "User", "testuser", "password");
+        now = LocalDateTime.of(2025, 1, 10, 12, 0);
+    }
+
+    private Transaction transfer(String id, LocalDateTime time, String amount, String desc) {
+        return new Transaction(id, time, Transaction.Type.TRANSFER, new BigDecimal(amount), desc, user.getCash());
+    }
+
+    @Test
+    void testEvaluateReportsEveryTriggeredRule() {
+        FraudDetector detector = new FraudDetector(List.of(
+            FraudRules.largeAmount(new BigDecimal("100.00")),
+            FraudRules.newRecipient(new BigDecimal("50.00"))
+        ));
+
+        List<String> triggered = detector.evaluate(user, transfer("c", now, "200.00", "Sent to Jane Doe"), now);
+
+        assertEquals(List.of("LARGE_AMOUNT", "NEW_RECIPIENT"), triggered);
+    }
+
+    @Test
+    void testNewRecipientIgnoresKnownRecipient() {
+        FraudDetector detector = new FraudDetector(List.of(FraudRules.newRecipient(new BigDecimal("50.00"))));
+        user.addTransaction(transfer("old", now.minusDays(2), "10.00", "Sent to Jane Doe - rent"));
+
+        assertTrue(detector.evaluate(user, transfer("c", now, "500.00", "Sent to Jane Doe"), now).isEmpty());
+        assertEquals(List.of("NEW_RECIPIENT"), detector.evaluate(user, transfer("d", now, "500.00", "Sent to John Roe"), now));
+    }
+
+    @Test
+    void testVelocityCountsOnlyLastHour() {
+        FraudDetector detector = new FraudDetector(List.of(FraudRules.velocity(3)));
+        user.addTransaction(transfer("a", now.minusHours(2), "1.00", "Sent to A"));
+        user.addTransaction(transfer("b", now.minusMinutes(30), "1.00", "Sent to B"));
+        user.addTransaction(transfer("c", now.minusMinutes(20), "1.00", "Sent to C"));
+
+        assertTrue(detector.evaluate(user, transfer("x", now, "1.00", "Sent to D"), now).isEmpty());
+
+        user.addTransaction(transfer("d", now.minusMinutes(10), "1.00", "Sent to D"));
+        assertEquals(List.of("VELOCITY"), detector.evaluate(user, transfer("y", now, "1.00", "Sent to E"), now));
+    }
+
+    @Test
+    void testStructuringFlagsRoundAmountsJustUnderLimit() {
+        FraudRule rule = FraudRules.roundNumberStructuring(new BigDecimal("10000.00"), new BigDecimal("500"));
+
+        assertTrue(rule.matches(transfer("a", now, "9500.00", ""), FraudFeatures.NONE));
+        assertFalse(rule.matches(transfer("b", now, "9499.99", ""), FraudFeatures.NONE));
+        assertFalse(rule.matches(transfer("c", now, "8500.00", ""), FraudFeatures.NONE));
+        assertFalse(rule.matches(transfer("d", now, "10000.00", ""), FraudFeatures.NONE));
+    }
+
+    @Test
+    void testFreezeStillCountsOnlyLargeOutflows() {
+        FraudDetector detector = new FraudDetector();
+        for (int i = 0; i < 3; i++) {
+            user.addTransaction(transfer("s" + i, now.minusHours(i), "9500.00", "Sent to X"));
+        }
+
+        assertFalse(detector.shouldFreezeAccount(user, now));
+    }
+
+    @Test
+    void testFreezeFromSharedFeaturesMatchesWindowCount() {
+        FraudDetector detector = new FraudDetector();
+        Transaction candidate = transfer("c", now, "12000.00", "Sent to X");
+        user.addTransaction(transfer("old", now.minusHours(30), "15000.00", "Sent to X"));
+        for (int i = 0; i < 2; i++) {
+            user.addTransaction(transfer("l" + i, now.minusHours(i + 1), "15000.00", "Sent to X"));
+        }
+        assertFalse(detector.shouldFreezeAccount(detector.extractFeatures(user, candidate, now)));
+
+        user.addTransaction(transfer("l2", now.minusMinutes(5), "15000.00", "Sent to X"));
+        FraudFeatures features = detector.extractFeatures(user, candidate, now);
+        assertEquals(3, features.getLargeOutflowsLastDay());
+        assertTrue(detector.shouldFreezeAccount(features));
+        assertEquals(detector.shouldFreezeAccount(user, now), detector.shouldFreezeAccount(features));
+    }
+
+    @Test
+    void testBacktestCountsHitsPerRule() {
+        User other = new User("Other", "User", "other", "password");
+        user.addTransaction(transfer("a", now.minusDays(1), "15000.00", "Sent to A"));
+        user.addTransaction(transfer("b", now, "9500.00", "Sent to A"));
+        other.addTransaction(new Transaction("c", now, Transaction.Type.TRANSFER, new BigDecimal("20000.00"), "Sent to B", other.getCash()));
+        other.addTransaction(new Transaction("d", now, Transaction.Type.DEPOSIT, new BigDecimal("50000.00"), "Deposit", other.getCash()));
+
+        Map<String, Long> report = new FraudDetector().backtest(List.of(user, other));
+
+        assertEquals(2L, report.get("LARGE_AMOUNT"));
+        assertEquals(1L, report.get("STRUCTURING"));
+        assertEquals(2L, report.get("NEW_RECIPIENT"));
+        assertNull(report.get("VELOCITY"));
+    }
+
+    @Test
+    void testDefaultsFlagSizeablePaymentToNewRecipient() {
+        FraudDetector detector = new FraudDetector();
+        user.addTransaction(transfer("old", now.minusDays(2), "10.00", "Sent to Jane Doe"));
+
+        assertEquals(List.of("NEW_RECIPIENT"), detector.evaluate(user, transfer("a", now, "6000.00", "Sent to John Roe"), now));
+        assertTrue(detector.evaluate(user, transfer("b", now, "6000.00", "Sent to Jane Doe"), now).isEmpty());
+        assertTrue(detector.evaluate(user, transfer("c", now, "4999.99", "Sent to John Roe"), now).isEmpty());
+    }
+
+    @Test
+    void testIsSuspiciousOnlyChecksTheLargeAmountLimit() {
+        FraudDetector detector = new FraudDetector();
+
+        assertFalse(detector.isSuspicious(transfer("a", now, "9500.00", "Sent to John Roe")));
+        assertTrue(detector.isSuspicious(transfer("b", now, "10000.01", "Sent to John Roe")));
+    }
+}
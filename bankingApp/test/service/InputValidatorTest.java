@@ -34,6 +34,17 @@ class InputValidatorTest {
         });
     }
     
+    @Test
+    void testReadAmountWithFractionOfCentThrowsException() {
+        String input = "10.005\n";
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
+        validator = new InputValidator(scanner);
+        
+        assertThrows(InvalidAmountException.class, () -> {
+            validator.readAmount();
+        });
+    }
+    
     @Test
     void testReadAmountWithNegativeThrowsException() {
         String input = "-50.00\n";
@@ -28,6 +28,50 @@ class TimeManagerTest {
         assertEquals(5, java.time.temporal.ChronoUnit.DAYS.between(before, after));
     }
     
+    @Test
+    void testConcurrentAdvancesNeverLoseDays() throws InterruptedException {
+        TimeManager shared = new TimeManager(new UserManager(true));
+        shared.enableLazyAccrual();
+        LocalDateTime before = shared.getCurrentTime();
+        Thread[] sessions = new Thread[8];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new Thread(() -> {
+                for (int day = 0; day < 250; day++) {
+                    shared.advanceTime(1);
+                }
+            });
+            sessions[i].start();
+        }
+        for (Thread session : sessions) {
+            session.join();
+        }
+        
+        assertEquals(2000, java.time.temporal.ChronoUnit.DAYS.between(before, shared.getCurrentTime()));
+    }
+    
+    @Test
+    void testGainParallelismPropertySelectsEagerSweep() {
+        String previous = System.getProperty("bankingApp.gainParallelism");
+        try {
+            System.setProperty("bankingApp.gainParallelism", "4");
+            TimeManager eager = new TimeManager(new UserManager(true));
+            eager.configureFromSystemProperties();
+            assertFalse(eager.isLazyAccrual());
+            assertEquals(4, eager.getParallelism());
+
+            System.setProperty("bankingApp.gainParallelism", "none");
+            TimeManager lazy = new TimeManager(new UserManager(true));
+            lazy.configureFromSystemProperties();
+            assertTrue(lazy.isLazyAccrual());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("bankingApp.gainParallelism");
+            } else {
+                System.setProperty("bankingApp.gainParallelism", previous);
+            }
+        }
+    }
+    
     @Test
     void testGetCurrentTimeReturnsLocalDateTime() {
         LocalDateTime current = timeManager.getCurrentTime();
@@ -75,4 +119,94 @@ class TimeManagerTest {
         // Investment with no funds invested stays same
         assertEquals(new java.math.BigDecimal("1000.00"), user.getInvestmentAccount().getBalance());
     }
+    
+    @Test
+    void testApplyGainsCatchUpUsesConfiguredMode() {
+        User compounded = new User("Test", "User", "compounded", "password");
+        User daily = new User("Test", "User", "daily", "password");
+        compounded.getSavingsAccount().deposit(new java.math.BigDecimal("1000.00"));
+        daily.getSavingsAccount().deposit(new java.math.BigDecimal("1000.00"));
+        
+        assertEquals(model.GainMode.DAILY_ROUNDING, timeManager.getGainMode());
+        timeManager.applyGains(daily, 5);
+        
+        timeManager.setGainMode(model.GainMode.COMPOUNDED);
+        timeManager.applyGains(compounded, 5);
+        
+        User reference = new User("Test", "User", "reference", "password");
+        reference.getSavingsAccount().deposit(new java.math.BigDecimal("1000.00"));
+        for (int i = 0; i < 5; i++) {
+            timeManager.applyDailyGains(reference);
+        }
+        // 1000 * 1.01^5 = 1051.0100501
+        assertEquals(new java.math.BigDecimal("1051.01"), compounded.getSavingsAccount().getBalance());
+        assertEquals(reference.getSavingsAccount().getBalance(), daily.getSavingsAccount().getBalance());
+    }
+    
+    @Test
+    void testLazyAccrualDefersGainsUntilRead() {
+        UserManager memoryManager = new UserManager(true);
+        TimeManager lazyTime = new TimeManager(memoryManager);
+        memoryManager.registerUser("Lazy", "User", "lazy", "password");
+        User user = memoryManager.findUser("lazy");
+        user.getSavingsAccount().deposit(new java.math.BigDecimal("1000.00"));
+        
+        lazyTime.enableLazyAccrual();
+        lazyTime.advanceTime(30);
+        
+        assertTrue(lazyTime.isLazyAccrual());
+        assertTrue(user.hasPendingAccrual());
+        // 1000 * 1.01^30 = 1347.8489...
+        assertEquals(new java.math.BigDecimal("1347.85"), user.getSavingsAccount().getBalance());
+        assertFalse(user.getSavingsAccount().hasPendingAccrual());
+        assertTrue(user.getInvestmentAccount().hasPendingAccrual());
+    }
+    
+    @Test
+    void testUsersRegisteredAfterEnablingLazyAccrualAreAttached() {
+        UserManager memoryManager = new UserManager(true);
+        TimeManager lazyTime = new TimeManager(memoryManager);
+        lazyTime.enableLazyAccrual();
+        memoryManager.registerUser("Late", "User", "late", "password");
+        User user = memoryManager.findUser("late");
+        user.getSavingsAccount().deposit(new java.math.BigDecimal("100.00"));
+        
+        lazyTime.advanceTime(1);
+        
+        assertEquals(new java.math.BigDecimal("101.00"), user.getSavingsAccount().getBalance());
+    }
+    
+    @Test
+    void testParallelAdvanceMatchesSequential() {
+        UserManager sequentialUsers = new UserManager(true);
+        UserManager parallelUsers = new UserManager(true);
+        for (int i = 0; i < 1000; i++) {
+            String amount = (i * 37 % 5000) + "." + (i % 100 < 10 ? "0" : "") + (i % 100);
+            for (UserManager manager : new UserManager[] {sequentialUsers, parallelUsers}) {
+                manager.registerUser("User", "" + i, "user" + i, "password");
+                User user = manager.findUser("user" + i);
+                user.getSavingsAccount().deposit(new java.math.BigDecimal(amount));
+                user.getInvestmentAccount().deposit(new java.math.BigDecimal(amount));
+                user.getInvestmentAccount().investInFund(model.Fund.values()[i % 3], new java.math.BigDecimal(amount));
+            }
+        }
+        
+        TimeManager sequential = new TimeManager(sequentialUsers);
+        TimeManager parallel = new TimeManager(parallelUsers);
+        parallel.setParallelism(4);
+        sequential.advanceTime(7);
+        parallel.advanceTime(7);
+        
+        for (int i = 0; i < 1000; i++) {
+            User expected = sequentialUsers.findUser("user" + i);
+            User actual = parallelUsers.findUser("user" + i);
+            assertEquals(expected.getSavingsAccount().getBalance(), actual.getSavingsAccount().getBalance());
+            assertEquals(expected.getInvestmentAccount().getTotalFundInvestments(), actual.getInvestmentAccount().getTotalFundInvestments());
+        }
+    }
+    
+    @Test
+    void testParallelismMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> timeManager.setParallelism(0));
+    }
 }
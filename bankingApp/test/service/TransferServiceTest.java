@@ -107,4 +107,211 @@ class TransferServiceTest {
         assertTrue(result);  // Returns true (continues)
         assertEquals(new BigDecimal("10000.00"), sender.getCash());  // Cash unchanged
     }
+    
+    @Test
+    void testQuickTransferListsRecentRecipientsAndRecordsSend() {
+        UserManager memoryManager = new UserManager(true);
+        memoryManager.registerUser("Alice", "Smith", "alice", "password");
+        memoryManager.registerUser("Bob", "Jones", "bob", "password");
+        memoryManager.registerUser("Carol", "White", "carol", "password");
+        User alice = memoryManager.findUser("alice");
+        alice.getRecentRecipients().record("bob");
+        alice.getRecentRecipients().record("carol");
+        
+        // Quick transfer, pick #2 (bob, since carol is newest), send 100
+        String input = "1\n2\n100.00\n";
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
+        transferService = new TransferService(memoryManager, new TimeManager(memoryManager), fraudDetector, new InputValidator(scanner), scanner);
+        
+        transferService.sendMoney(alice);
+        
+        assertEquals(new BigDecimal("10100.00"), memoryManager.findUser("bob").getCash());
+        assertEquals(java.util.List.of("bob", "carol"), alice.getRecentRecipients().newestFirst());
+    }
+    
+    @Test
+    void testQuickTransferSeedsRecipientsFromLegacyHistory() {
+        UserManager memoryManager = new UserManager(true);
+        memoryManager.registerUser("Alice", "Smith", "alice", "password");
+        memoryManager.registerUser("Bob", "Jones", "bob", "password");
+        User alice = memoryManager.findUser("alice");
+        alice.addTransaction(new model.Transaction(java.time.LocalDateTime.now(), model.Transaction.Type.TRANSFER,
+            new BigDecimal("5.00"), "Sent to Bob Jones - lunch", alice.getCash()));
+        
+        String input = "1\n1\n50.00\n";
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes()));
+        transferService = new TransferService(memoryManager, new TimeManager(memoryManager), fraudDetector, new InputValidator(scanner), scanner);
+        
+        transferService.sendMoney(alice);
+        
+        assertEquals(new BigDecimal("10050.00"), memoryManager.findUser("bob").getCash());
+    }
+
+    @Test
+    void testTransferMovesBothLegsAtomically() throws Exception {
+        User alice = new User("Alice", "Smith", "alice", "pw");
+        User bob = new User("Bob", "Jones", "bob", "pw");
+        transferService = new TransferService(new UserManager(true), timeManager, fraudDetector, null, null);
+        
+        transferService.transfer(alice, bob, new BigDecimal("25.50"), "tx-1", "Sent to Bob Jones", "Received from Alice Smith");
+        
+        assertEquals(new BigDecimal("9974.50"), alice.getCash());
+        assertEquals(new BigDecimal("10025.50"), bob.getCash());
+        assertEquals("tx-1", alice.getTransactions().get(0).getId());
+        assertEquals(new BigDecimal("10025.50"), bob.getTransactions().get(0).getBalanceAfter());
+        assertThrows(InsufficientFundsException.class,
+            () -> transferService.transfer(alice, bob, new BigDecimal("9974.51"), "tx-2", "", ""));
+        assertThrows(InvalidAmountException.class,
+            () -> transferService.transfer(alice, bob, BigDecimal.ZERO, "tx-3", "", ""));
+        assertEquals(1, alice.getTransactionCount());
+    }
+    
+    @Test
+    void testRandomConcurrentTransfersConserveMoney() throws Exception {
+        // A million random transfers across threads and users; opposite-direction pairs would
+        // deadlock without the global lock order, and lost updates would break the totals
+        int userCount = 64;
+        int threads = 8;
+        int transfersPerThread = 125_000;
+        UserManager manager = new UserManager(true);
+        transferService = new TransferService(manager, new TimeManager(manager), fraudDetector, null, null);
+        User[] users = new User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new User("User", String.valueOf(i), "user" + i, "pw");
+        }
+        
+        java.util.concurrent.atomic.AtomicLong rejected = new java.util.concurrent.atomic.AtomicLong();
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(threads);
+        java.util.List<java.util.concurrent.Future<?>> workers = new java.util.ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                java.util.concurrent.ThreadLocalRandom random = java.util.concurrent.ThreadLocalRandom.current();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    User from = users[random.nextInt(userCount)];
+                    User to = users[random.nextInt(userCount)];
+                    if (from == to) {
+                        continue;
+                    }
+                    BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 500_000), 2);
+                    try {
+                        transferService.transfer(from, to, amount, thread + "-" + i, "Sent", "Received");
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (java.util.concurrent.Future<?> worker : workers) {
+            worker.get(5, java.util.concurrent.TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        
+        long totalCents = 0;
+        for (User user : users) {
+            assertTrue(user.getCashCents() >= 0);
+            totalCents += user.getCashCents();
+            // Each user's history must explain its balance, so no leg was applied without its record
+            long net = 0;
+            for (model.Transaction t : user.getTransactions()) {
+                net += t.getType() == model.Transaction.Type.DEPOSIT ? t.getAmountCents() : -t.getAmountCents();
+            }
+            assertEquals(1_000_000 + net, user.getCashCents());
+        }
+        assertEquals(userCount * 1_000_000L, totalCents);
+        assertTrue(rejected.get() < (long) threads * transfersPerThread);
+    }
+    
+    @Test
+    void testTransferBatchAppliesValidRowsAndReportsRejections() throws Exception {
+        UserManager manager = new UserManager(true);
+        manager.registerUser("Alice", "Smith", "alice", "password");
+        manager.registerUser("Bob", "Jones", "bob", "password");
+        User alice = manager.findUser("alice");
+        User bob = manager.findUser("bob");
+        transferService = new TransferService(manager, new TimeManager(manager), fraudDetector, null, null);
+        
+        String file = "senderIban,recipientIban,amount,message\n"
+                + alice.getIban() + "," + bob.getIban() + ",100.00,Payroll, March\n"
+                + "\n# comment\n"
+                + alice.getIban() + ",EE000000000000000000,5.00\n"
+                + alice.getIban() + "," + alice.getIban() + ",5.00\n"
+                + bob.getIban() + "," + alice.getIban() + ",abc\n"
+                + bob.getIban() + "," + alice.getIban() + ",0.001\n"
+                + bob.getIban() + "," + alice.getIban() + ",20000.00\n"
+                + alice.getIban().toLowerCase() + "," + bob.getIban() + ",0.50\n"
+                + "too,short\n";
+        java.util.List<TransferService.BatchResult> results =
+                transferService.transferBatch(new java.io.BufferedReader(new java.io.StringReader(file)), 2);
+        
+        assertEquals(8, results.size());
+        assertTrue(results.get(0).isApplied());
+        assertEquals(2, results.get(0).getLineNumber());
+        for (int i = 1; i < 6; i++) {
+            assertFalse(results.get(i).isApplied(), results.get(i).toString());
+        }
+        assertTrue(results.get(6).isApplied());
+        assertFalse(results.get(7).isApplied());
+        assertEquals(new BigDecimal("9899.50"), alice.getCash());
+        assertEquals(new BigDecimal("10100.50"), bob.getCash());
+        assertEquals("Sent to Bob Jones - Payroll, March", alice.getTransactions().get(0).getDescription());
+        assertEquals(results.get(0).getTransactionId(), bob.getTransactions().get(0).getId());
+    }
+    
+    @Test
+    void testBatchMessageWithCommaSurvivesCompactionAndReload() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("batch-db");
+        try {
+            UserManager manager = new UserManager(new util.DataStore(dir.toString(), true));
+            manager.registerUser("Alice", "Smith", "alice", "password");
+            manager.registerUser("Bob", "Jones", "bob", "password");
+            User alice = manager.findUser("alice");
+            User bob = manager.findUser("bob");
+            transferService = new TransferService(manager, new TimeManager(manager), fraudDetector, null, null);
+            
+            String file = alice.getIban() + "," + bob.getIban() + ",100.00,Payroll, March\n";
+            assertTrue(transferService.transferBatch(new java.io.BufferedReader(new java.io.StringReader(file)), 10).get(0).isApplied());
+            new util.DataStore(dir.toString(), true).compact();
+            
+            java.util.Map<String, User> reloaded = new util.DataStore(dir.toString()).loadData();
+            assertEquals(new BigDecimal("9900.00"), reloaded.get("alice").getCash());
+            assertEquals(new BigDecimal("10100.00"), reloaded.get("bob").getCash());
+            assertEquals(1, reloaded.get("alice").getTransactionHistory().size());
+            assertEquals(1, reloaded.get("bob").getTransactionHistory().size());
+            assertEquals(alice.getTransactions().get(0).getId(), reloaded.get("bob").getTransactions().get(0).getId());
+        } finally {
+            try (java.util.stream.Stream<java.nio.file.Path> paths = java.nio.file.Files.walk(dir)) {
+                paths.sorted(java.util.Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    @Test
+    void testTransferBatchScreensEveryRowForFraud() throws Exception {
+        UserManager manager = new UserManager(true);
+        manager.registerUser("Alice", "Smith", "alice", "password");
+        manager.registerUser("Bob", "Jones", "bob", "password");
+        User alice = manager.findUser("alice");
+        User bob = manager.findUser("bob");
+        alice.addCash(new BigDecimal("100000.00"));
+        transferService = new TransferService(manager, new TimeManager(manager), fraudDetector, null, null);
+        
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            file.append(alice.getIban()).append(',').append(bob.getIban()).append(",15000.00\n");
+        }
+        java.util.List<TransferService.BatchResult> results =
+                transferService.transferBatch(new java.io.BufferedReader(new java.io.StringReader(file.toString())), 100);
+        
+        assertTrue(results.get(0).isApplied());
+        assertFalse(results.get(0).getMessage().isEmpty());
+        assertTrue(results.get(1).isApplied());
+        assertTrue(results.get(2).isApplied());
+        // Three large outflows in 24 hours freeze the sender before the fourth moves any money
+        assertFalse(results.get(3).isApplied());
+        assertTrue(alice.hasFraudWarning());
+        assertTrue(alice.isFrozen());
+        assertEquals(new BigDecimal("55000.00"), bob.getCash());
+    }
 }
@@ -31,6 +31,18 @@ class UserManagerTest {
         assertTrue(userManager.userExists("alice"));
     }
     
+    @Test
+    void testRegisterUserStoresHashNotPassword() {
+        UserManager inMemory = new UserManager(true);
+        inMemory.registerUser("Alice", "Smith", "alice", "password123");
+        User user = inMemory.findUser("alice");
+
+        assertNull(user.getPassword());
+        assertTrue(util.PasswordHasher.isHash(user.getPasswordHash()));
+        assertFalse(user.getPasswordHash().contains("password123"));
+        assertTrue(inMemory.getPasswordHasher().verify("password123", user.getPasswordHash()));
+    }
+
     @Test
     void testUserExistsReturnsTrueForExistingUser() {
         userManager.registerUser("Bob", "Jones", "bob", "pass");
@@ -107,6 +119,153 @@ class UserManagerTest {
         assertTrue(users.containsKey("frank"));
     }
     
+    @Test
+    void testJournaledSaveOfSingleUserSurvivesReload() {
+        UserManager journaled = new UserManager(new util.DataStore(TEST_DB_DIR, true));
+        journaled.registerUser("Grace", "Hopper", "grace", "pwd");
+        User grace = journaled.findUser("grace");
+        grace.subtractCash(new java.math.BigDecimal("100.00"));
+        grace.getSavingsAccount().deposit(new java.math.BigDecimal("100.00"));
+        journaled.save(grace);
+        
+        UserManager reloaded = new UserManager(new util.DataStore(TEST_DB_DIR, true));
+        
+        assertEquals(new java.math.BigDecimal("100.00"), reloaded.findUser("grace").getSavingsAccount().getBalance());
+    }
+    
+    @Test
+    void testSaveIgnoresUnmanagedUser() {
+        UserManager journaled = new UserManager(new util.DataStore(TEST_DB_DIR, true));
+        journaled.save(new User("Stray", "User", "stray", "pwd"));
+        
+        assertFalse(new File(TEST_DB_DIR + "/journal.log").exists());
+    }
+    
+    @Test
+    void testSaveWithoutChangesWritesNothing() {
+        UserManager csv = new UserManager(new util.DataStore(TEST_DB_DIR));
+        
+        csv.save();
+        
+        assertFalse(new File(TEST_DB_DIR + "/users.csv").exists());
+    }
+    
+    @Test
+    void testSaveAppendsOnlyNewTransactions() throws java.io.IOException {
+        UserManager csv = new UserManager(new util.DataStore(TEST_DB_DIR));
+        csv.registerUser("Heidi", "Klum", "heidi", "pwd");
+        User heidi = csv.findUser("heidi");
+        heidi.addTransaction(new model.Transaction("tx-1", java.time.LocalDateTime.of(2025, 1, 1, 9, 0),
+            model.Transaction.Type.DEPOSIT, new java.math.BigDecimal("10.00"), "Cash Deposit", new java.math.BigDecimal("10.00")));
+        csv.save(heidi);
+        heidi.addTransaction(new model.Transaction("tx-2", java.time.LocalDateTime.of(2025, 1, 1, 10, 0),
+            model.Transaction.Type.DEPOSIT, new java.math.BigDecimal("5.00"), "Cash Deposit", new java.math.BigDecimal("15.00")));
+        csv.save(heidi);
+        
+        java.util.List<String> rows = java.nio.file.Files.readAllLines(java.nio.file.Path.of(TEST_DB_DIR, "transactions.csv"));
+        assertEquals(2, rows.size());
+        assertEquals(2, new UserManager(new util.DataStore(TEST_DB_DIR)).findUser("heidi").getTransactionHistory().size());
+    }
+    
+    @Test
+    void testMarkDirtyPersistsOnNextSave() {
+        UserManager csv = new UserManager(new util.DataStore(TEST_DB_DIR));
+        csv.registerUser("Ivan", "Petrov", "ivan", "pwd");
+        csv.findUser("ivan").setFraudWarning(true);
+        csv.markDirty(csv.findUser("ivan"));
+        
+        csv.save();
+        
+        assertTrue(new UserManager(new util.DataStore(TEST_DB_DIR)).findUser("ivan").hasFraudWarning());
+    }
+    
+    @Test
+    void testFindUserByIbanIsCaseInsensitive() {
+        UserManager inMemory = new UserManager(true);
+        inMemory.registerUser("Judy", "Garland", "judy", "pwd");
+        User judy = inMemory.findUser("judy");
+        
+        assertSame(judy, inMemory.findUserByIban(judy.getIban().toLowerCase()));
+        assertNull(inMemory.findUserByIban("EE0000000000"));
+    }
+    
+    @Test
+    void testFindUsersByNameNormalizesInput() {
+        UserManager inMemory = new UserManager(true);
+        inMemory.registerUser("Ken", "Adams", "ken1", "pwd");
+        inMemory.registerUser("Ken", "Adams", "ken2", "pwd");
+        
+        assertEquals(2, inMemory.findUsersByName("  ken   ADAMS ").size());
+        assertTrue(inMemory.findUsersByName("Ken").isEmpty());
+    }
+    
+    @Test
+    void testRebuildIndexesPicksUpDirectMapChanges() {
+        UserManager inMemory = new UserManager(true);
+        User leo = new User("Leo", "Tolstoy", "leo", "pwd");
+        inMemory.getAllUsers().put("leo", leo);
+        
+        inMemory.rebuildIndexes();
+        
+        assertSame(leo, inMemory.findUserByIban(leo.getIban()));
+    }
+    
+    
+    @Test
+    @SuppressWarnings("try")
+    void testLockExcludesOtherThreadsUntilClosed() throws Exception {
+        UserManager manager = new UserManager(true);
+        User alice = new User("Alice", "Smith", "alice", "pw");
+        User bob = new User("Bob", "Jones", "bob", "pw");
+        java.util.concurrent.atomic.AtomicBoolean acquired = new java.util.concurrent.atomic.AtomicBoolean();
+        
+        Thread other;
+        try (UserManager.UserLocks locks = manager.lock(bob, alice)) {
+            other = new Thread(() -> {
+                try (UserManager.UserLocks inner = manager.lock(alice)) {
+                    acquired.set(true);
+                }
+            });
+            other.start();
+            other.join(200);
+            assertFalse(acquired.get());
+        }
+        other.join(5000);
+        assertTrue(acquired.get());
+    }
+    
+    @Test
+    @SuppressWarnings("try")
+    void testSaveLeavesUsersLockedByAnotherSessionDirty() throws Exception {
+        UserManager manager = new UserManager(new util.DataStore(TEST_DB_DIR, true));
+        manager.registerUser("Alice", "Smith", "alice", "pw");
+        User alice = manager.findUser("alice");
+        long journalBefore = new File(TEST_DB_DIR, "journal.log").length();
+        
+        java.util.concurrent.CountDownLatch locked = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        Thread session = new Thread(() -> {
+            try (UserManager.UserLocks locks = manager.lock(alice)) {
+                alice.addCash(new java.math.BigDecimal("5.00"));
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        session.start();
+        locked.await();
+        
+        manager.markDirty(alice);
+        manager.save();
+        assertEquals(journalBefore, new File(TEST_DB_DIR, "journal.log").length());
+        
+        release.countDown();
+        session.join();
+        manager.save();
+        assertTrue(new File(TEST_DB_DIR, "journal.log").length() > journalBefore);
+        manager.stopCompaction();
+    }
     
     private void deleteDirectory(File directory) {
         if (directory.exists()) {
@@ -123,4 +282,39 @@ class UserManagerTest {
             directory.delete();
         }
     }
+    
+    @Test
+    void testRegisteredUsersGetDistinctIbans() {
+        UserManager manager = new UserManager(true);
+        java.util.Set<String> ibans = new java.util.HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            manager.registerUser("User", String.valueOf(i), "user" + i, "pw");
+            String iban = manager.findUser("user" + i).getIban();
+            assertTrue(util.IbanGenerator.validateIban(iban));
+            assertTrue(ibans.add(iban));
+            assertSame(manager.findUser("user" + i), manager.findUserByIban(iban));
+        }
+    }
+    
+    @Test
+    void testRebuildIndexesReassignsDuplicateIban() {
+        UserManager manager = new UserManager(true);
+        User alice = new User("Alice", "Smith", "alice", "pw");
+        User bob = new User("Bob", "Jones", "bob", "pw");
+        bob.setIban(alice.getIban());
+        manager.getAllUsers().put("alice", alice);
+        manager.getAllUsers().put("bob", bob);
+        
+        manager.rebuildIndexes();
+        
+        assertNotEquals(alice.getIban(), bob.getIban());
+        assertTrue(util.IbanGenerator.validateIban(bob.getIban()));
+        assertSame(alice, manager.findUserByIban(alice.getIban()));
+        assertSame(bob, manager.findUserByIban(bob.getIban()));
+        
+        manager.registerUser("Carol", "White", "carol", "pw");
+        String carol = manager.findUser("carol").getIban();
+        assertNotEquals(alice.getIban(), carol);
+        assertNotEquals(bob.getIban(), carol);
+    }
 }
@@ -0,0 +1,140 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import model.Transaction;
+import model.User;
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("snapshot-", ".bin");
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private User user(String username, int transactions) {
+        User u = new User("First " + username, "Last", username, "pw-" + username);
+        for (int i = 0; i < transactions; i++) {
+            u.addTransaction(new Transaction(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i), Transaction.Type.DEPOSIT,
+                new BigDecimal(i + ".50"), "Deposit", new BigDecimal("100.00")));
+        }
+        return u;
+    }
+
+    @Test
+    void testRoundTripKeepsEveryField() throws IOException {
+        User alice = user("Alice", 3);
+        alice.subtractCash(new BigDecimal("0.01"));
+        alice.getSavingsAccount().deposit(new BigDecimal("42.42"));
+        alice.setLastLogin(LocalDateTime.of(2025, 6, 7, 8, 9, 10));
+        alice.setFraudWarning(true);
+        alice.setFrozen(true);
+        alice.getRecentRecipients().record("bob");
+        alice.getRecentRecipients().record("carol");
+
+        BinarySnapshot.write(List.of(alice), file);
+        User loaded = BinarySnapshot.open(file).readAll().get("alice");
+
+        assertEquals("Alice", loaded.getUsername());
+        assertEquals("First Alice", loaded.getFirstName());
+        assertEquals("Last", loaded.getLastName());
+        assertEquals("pw-Alice", loaded.getPassword());
+        assertEquals(alice.getIban(), loaded.getIban());
+        assertEquals(new BigDecimal("9999.99"), loaded.getCash());
+        assertEquals(new BigDecimal("42.42"), loaded.getSavingsAccount().getBalance());
+        assertEquals(BigDecimal.ZERO, loaded.getInvestmentAccount().getBalance());
+        assertEquals(alice.getLastLogin(), loaded.getLastLogin());
+        assertTrue(loaded.hasFraudWarning());
+        assertTrue(loaded.isFrozen());
+        assertEquals(List.of("carol", "bob"), loaded.getRecentRecipients().newestFirst());
+
+        assertEquals(3, loaded.getTransactionCount());
+        for (int i = 0; i < 3; i++) {
+            Transaction expected = alice.getTransactions().get(i);
+            Transaction actual = loaded.getTransactions().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getBalanceAfter(), actual.getBalanceAfter());
+            assertEquals(expected.getDescription(), actual.getDescription());
+        }
+    }
+
+    @Test
+    void testRoundTripKeepsPasswordHash() throws IOException {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        User alice = user("Alice", 0);
+        alice.setPasswordHash(hasher.hash("secret"));
+
+        BinarySnapshot.write(List.of(alice, user("Bob", 0)), file);
+        Map<String, User> loaded = BinarySnapshot.open(file).readAll();
+
+        assertEquals(alice.getPasswordHash(), loaded.get("alice").getPasswordHash());
+        assertNull(loaded.get("alice").getPassword());
+        assertNull(loaded.get("bob").getPasswordHash());
+        assertEquals("pw-Bob", loaded.get("bob").getPassword());
+    }
+
+    @Test
+    void testLooksUpSingleUserWithoutDecodingOthers() throws IOException {
+        BinarySnapshot.write(List.of(user("carol", 1), user("Alice", 2), user("bob", 0)), file);
+        BinarySnapshot snapshot = BinarySnapshot.open(file);
+
+        assertEquals(3, snapshot.userCount());
+        assertEquals(3, snapshot.transactionCount());
+        assertEquals("Alice", snapshot.username(0));
+        assertEquals(2, snapshot.indexOf("CAROL"));
+        assertEquals(-1, snapshot.indexOf("dave"));
+        assertEquals(2, snapshot.readUser(snapshot.indexOf("alice")).getTransactionCount());
+    }
+
+    @Test
+    void testEmptySnapshot() throws IOException {
+        BinarySnapshot.write(List.of(), file);
+        Map<String, User> users = BinarySnapshot.open(file).readAll();
+        assertTrue(users.isEmpty());
+    }
+
+    @Test
+    void testRejectsStringsOutsideTheHeap() throws IOException {
+        BinarySnapshot.write(List.of(user("alice", 0)), file);
+        long heapOffset;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24);
+            heapOffset = raf.readLong();
+            raf.seek(heapOffset);
+            raf.writeInt(Integer.MAX_VALUE);  // Username length far past the end of the file
+        }
+        assertThrows(IllegalStateException.class, () -> BinarySnapshot.open(file).readAll());
+
+        BinarySnapshot.write(List.of(user("alice", 0)), file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(32);
+            raf.writeInt(-4);  // Username offset before the heap
+        }
+        assertThrows(IllegalStateException.class, () -> BinarySnapshot.open(file).username(0));
+    }
+
+    @Test
+    void testRejectsForeignFiles() throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("username,password\n");
+        }
+        assertThrows(IOException.class, () -> BinarySnapshot.open(file));
+    }
+}
@@ -0,0 +1,110 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import model.ArchivedHistory;
+import model.Transaction;
+import model.User;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = Files.createTempFile("history", ".col");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testSlicesReadBackEachUsersRowsInOrder() throws IOException {
+        User bob = new User("Bob", "Ray", "Bob", "pw");
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        Map<User, List<Transaction>> histories = new LinkedHashMap<>();
+        histories.put(bob, List.of(
+            new Transaction("tx-1", START, Transaction.Type.TRANSFER, new BigDecimal("12.50"), "Sent to ann", new BigDecimal("9987.50"))));
+        histories.put(ann, List.of(
+            new Transaction("tx-0", START.minusDays(1), Transaction.Type.DEPOSIT, new BigDecimal("3.00"), "Cash", new BigDecimal("3.00")),
+            new Transaction("tx-1", START, Transaction.Type.DEPOSIT, new BigDecimal("12.50"), "Received from Bob", new BigDecimal("15.50"))));
+        ColumnarTransactionStore.write(histories, 100, 200, path.toFile());
+
+        ColumnarTransactionStore store = ColumnarTransactionStore.open(path.toFile());
+        assertEquals(2, store.userCount());
+        assertEquals(3, store.rowCount());
+        assertEquals("ann", store.username(0));
+        assertEquals("Bob", store.username(1));
+
+        ArchivedHistory annRows = store.history(0);
+        assertEquals(2, annRows.size());
+        assertEquals(Transaction.Type.DEPOSIT, annRows.typeAt(1));
+        assertEquals(START.minusDays(1), annRows.timestampAt(0));
+        Transaction received = annRows.get(1);
+        assertEquals("tx-1", received.getId());
+        assertEquals(START, received.getTimestamp());
+        assertEquals(new BigDecimal("12.50"), received.getAmount());
+        assertEquals(new BigDecimal("15.50"), received.getBalanceAfter());
+        assertEquals("Received from Bob", received.getDescription());
+        assertEquals("Sent to ann", store.history(1).get(0).getDescription());
+        assertThrows(IndexOutOfBoundsException.class, () -> annRows.get(2));
+    }
+
+    @Test
+    void testRecordsTheSourceItWasBuiltFrom() throws IOException {
+        ColumnarTransactionStore.write(Map.of(), 1234, 5678, path.toFile());
+
+        ColumnarTransactionStore store = ColumnarTransactionStore.open(path.toFile());
+        assertTrue(store.isBuiltFrom(1234, 5678));
+        assertFalse(store.isBuiltFrom(1235, 5678));
+        assertFalse(store.isBuiltFrom(1234, 5679));
+    }
+
+    @Test
+    void testSharedDescriptionsAreStoredOnce() throws IOException {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        List<Transaction> same = new java.util.ArrayList<>();
+        List<Transaction> distinct = new java.util.ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            same.add(new Transaction("t" + i, START.plusMinutes(i), Transaction.Type.DEPOSIT, BigDecimal.ONE, "Monthly interest payment", BigDecimal.ONE));
+            distinct.add(new Transaction("t" + i, START.plusMinutes(i), Transaction.Type.DEPOSIT, BigDecimal.ONE, "Monthly interest payment " + i, BigDecimal.ONE));
+        }
+        ColumnarTransactionStore.write(Map.of(ann, same), 0, 0, path.toFile());
+        long shared = Files.size(path);
+        ColumnarTransactionStore.write(Map.of(ann, distinct), 0, 0, path.toFile());
+
+        assertTrue(shared + 99 * 24 < Files.size(path));
+    }
+
+    @Test
+    void testDamagedFileIsRejectedWhenOpened() throws IOException {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        ColumnarTransactionStore.write(Map.of(ann, List.of(
+            new Transaction("tx-0", START, Transaction.Type.DEPOSIT, BigDecimal.ONE, "Cash", BigDecimal.ONE))), 0, 0, path.toFile());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[48 + 8 + 8 + 8 + 4] = 0x7f;  // Description offset of the only row now points past the heap
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> ColumnarTransactionStore.open(path.toFile()));
+    }
+
+    @Test
+    void testForeignFileIsRejected() throws IOException {
+        Files.writeString(path, "id,timestamp,amount,description,sender,receiver,senderBal,receiverBal\n");
+
+        assertThrows(IOException.class, () -> ColumnarTransactionStore.open(path.toFile()));
+    }
+}
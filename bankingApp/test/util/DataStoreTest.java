@@ -76,6 +76,354 @@ class DataStoreTest {
         assertEquals(new BigDecimal("10500.00"), loadedUser.getCash());
     }
     
+    @Test
+    void testHistoryPagesNewestFirstAfterReload() {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        User bob = new User("Bob", "Ray", "bob", "pw");
+        java.time.LocalDateTime start = java.time.LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int hour = 1; hour <= 30; hour++) {
+            java.time.LocalDateTime ts = start.plusHours(hour);
+            if (hour % 3 == 0) {
+                // Shared rows are grouped under whichever user is written first
+                String id = "tx-" + hour;
+                bob.addTransaction(new model.Transaction(id, ts, model.Transaction.Type.TRANSFER, BigDecimal.ONE, "To ann", BigDecimal.ZERO));
+                ann.addTransaction(new model.Transaction(id, ts, model.Transaction.Type.DEPOSIT, BigDecimal.ONE, "From bob", BigDecimal.ZERO));
+            } else {
+                ann.addTransaction(new model.Transaction(ts, model.Transaction.Type.DEPOSIT, BigDecimal.ONE, "Cash", BigDecimal.ZERO));
+            }
+        }
+        dataStore.saveData(Map.of("ann", ann, "bob", bob));
+
+        User loaded = dataStore.loadData().get("ann");
+        model.HistoryPage page = loaded.queryHistory(model.HistoryQuery.latest(5));
+        assertEquals(java.util.List.of(30L, 29L, 28L, 27L, 26L),
+            page.getTransactions().stream().map(t -> java.time.Duration.between(start, t.getTimestamp()).toHours()).toList());
+        model.HistoryPage next = loaded.queryHistory(model.HistoryQuery.latest(5).after(page.getNextCursor()));
+        assertEquals(start.plusHours(25), next.getTransactions().get(0).getTimestamp());
+        assertEquals(5, loaded.queryHistory(model.HistoryQuery.latest(10).between(start.plusHours(11), start.plusHours(16))).getTransactions().size());
+    }
+
+    // ============ JOURNALED MODE ============
+    
+    @Test
+    void testJournaledStoreReplaysAppendedChanges() {
+        DataStore journaled = new DataStore(testDbDir, true);
+        User user = new User("Dana", "White", "dana", "pwd");
+        journaled.appendToJournal(user, java.util.List.of());
+        
+        user.subtractCash(new BigDecimal("250.00"));
+        user.getSavingsAccount().deposit(new BigDecimal("250.00"));
+        model.Transaction deposit = new model.Transaction("tx-1", java.time.LocalDateTime.of(2025, 1, 1, 10, 0),
+            model.Transaction.Type.DEPOSIT, new BigDecimal("250.00"), "Cash Deposit, ATM", new BigDecimal("250.00"));
+        user.addTransaction(deposit);
+        journaled.appendToJournal(user, java.util.List.of(deposit));
+        
+        assertFalse(new File(testDbDir + "/users.csv").exists());
+        
+        User loaded = journaled.loadData().get("dana");
+        assertNotNull(loaded);
+        assertEquals(new BigDecimal("9750.00"), loaded.getCash());
+        assertEquals(new BigDecimal("250.00"), loaded.getSavingsAccount().getBalance());
+        assertEquals(1, loaded.getTransactionHistory().size());
+        assertEquals("Cash Deposit, ATM", loaded.getTransactionHistory().get(0).getDescription());
+    }
+    
+    @Test
+    void testJournalReplayIgnoresDuplicateTransactions() {
+        DataStore journaled = new DataStore(testDbDir, true);
+        User user = new User("Dana", "White", "dana", "pwd");
+        model.Transaction deposit = new model.Transaction("tx-1", java.time.LocalDateTime.of(2025, 1, 1, 10, 0),
+            model.Transaction.Type.DEPOSIT, new BigDecimal("250.00"), "Cash Deposit", new BigDecimal("250.00"));
+        user.addTransaction(deposit);
+        journaled.appendToJournal(user, java.util.List.of(deposit));
+        journaled.appendToJournal(user, java.util.List.of(deposit));
+        
+        assertEquals(1, journaled.loadData().get("dana").getTransactionHistory().size());
+    }
+    
+    @Test
+    void testRecentRecipientsArePersisted() {
+        User user = new User("Bob", "Jones", "bob", "secret");
+        user.getRecentRecipients().record("alice");
+        user.getRecentRecipients().record("carol");
+        dataStore.saveData(Map.of("bob", user));
+        
+        User loaded = dataStore.loadData().get("bob");
+        
+        assertEquals(java.util.List.of("carol", "alice"), loaded.getRecentRecipients().newestFirst());
+    }
+    
+    @Test
+    void testSaveDataCheckpointsJournal() {
+        DataStore journaled = new DataStore(testDbDir, true);
+        User user = new User("Dana", "White", "dana", "pwd");
+        journaled.appendToJournal(user, java.util.List.of());
+        
+        journaled.saveData(Map.of("dana", user));
+        
+        assertFalse(new File(testDbDir + "/journal.log").exists());
+        assertEquals(1, journaled.loadData().size());
+    }
+    
+    @Test
+    void testJournalReplaySkipsTornEntry() throws IOException {
+        DataStore journaled = new DataStore(testDbDir, true);
+        User user = new User("Dana", "White", "dana", "pwd");
+        journaled.appendToJournal(user, java.util.List.of());
+        
+        try (FileWriter writer = new FileWriter(testDbDir + "/journal.log", true)) {
+            writer.write("TX,dana,tx-2,2025-01-0");  // Crash mid-write
+        }
+        
+        Map<String, User> users = journaled.loadData();
+        assertEquals(1, users.size());
+        assertTrue(users.get("dana").getTransactionHistory().isEmpty());
+    }
+    
+    @Test
+    void testSaveDataLeavesNoTempFiles() {
+        dataStore.saveData(Map.of("alice", new User("Alice", "Smith", "alice", "password")));
+        
+        assertFalse(new File(testDbDir + "/users.csv.tmp").exists());
+        assertFalse(new File(testDbDir + "/transactions.csv.tmp").exists());
+    }
+    
+    @Test
+    void testCsvSaveChangesAppendsRowsUntilTheyOutnumberUsers() throws IOException {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        User ben = new User("Ben", "Ray", "ben", "pw");
+        Map<String, User> users = new java.util.LinkedHashMap<>(Map.of("ann", ann, "ben", ben));
+        dataStore.saveData(users);
+        Path usersCsv = Path.of(testDbDir, "users.csv");
+
+        ann.getSavingsAccount().deposit(new BigDecimal("10.00"));
+        dataStore.saveChanges(users, Map.of(ann, java.util.List.of()));
+        ann.getSavingsAccount().deposit(new BigDecimal("5.00"));
+        dataStore.saveChanges(users, Map.of(ann, java.util.List.of()));
+        assertEquals(4, Files.readAllLines(usersCsv).size());
+        assertEquals(new BigDecimal("15.00"), new DataStore(testDbDir).loadData().get("ann").getSavingsAccount().getBalance());
+
+        // A reopened store counts the appended rows from the file, so its next save rewrites
+        DataStore reopened = new DataStore(testDbDir);
+        Map<String, User> loaded = reopened.loadData();
+        loaded.get("ben").getSavingsAccount().deposit(new BigDecimal("1.00"));
+        reopened.saveChanges(loaded, Map.of(loaded.get("ben"), java.util.List.of()));
+        assertEquals(2, Files.readAllLines(usersCsv).size());
+        Map<String, User> reloaded = new DataStore(testDbDir).loadData();
+        assertEquals(new BigDecimal("15.00"), reloaded.get("ann").getSavingsAccount().getBalance());
+        assertEquals(new BigDecimal("1.00"), reloaded.get("ben").getSavingsAccount().getBalance());
+    }
+
+    @Test
+    void testTornAppendedUserRowKeepsPreviousRecord() throws IOException {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        ann.getSavingsAccount().deposit(new BigDecimal("100.00"));
+        Map<String, User> users = new java.util.LinkedHashMap<>(Map.of("ann", ann, "ben", new User("Ben", "Ray", "ben", "pw")));
+        dataStore.saveData(users);
+        String row = Files.readAllLines(Path.of(testDbDir, "users.csv")).get(0);
+        try (FileWriter writer = new FileWriter(testDbDir + "/users.csv", true)) {
+            String update = row.replace(",100.00,", ",1000.00,");
+            writer.write(update.substring(0, update.length() - 1));  // Crash mid-append, before the line break
+        }
+
+        DataStore reopened = new DataStore(testDbDir);
+        Map<String, User> loaded = reopened.loadData();
+        assertEquals(new BigDecimal("100.00"), loaded.get("ann").getSavingsAccount().getBalance());
+
+        // The next save must not glue its row onto the torn one
+        loaded.get("ann").getSavingsAccount().deposit(new BigDecimal("1.00"));
+        reopened.saveChanges(loaded, Map.of(loaded.get("ann"), java.util.List.of()));
+        assertEquals(new BigDecimal("101.00"), new DataStore(testDbDir).loadData().get("ann").getSavingsAccount().getBalance());
+    }
+
+    @Test
+    void testCompactFoldsJournalIntoSnapshot() {
+        DataStore journaled = new DataStore(testDbDir, true);
+        journaled.saveData(Map.of("alice", new User("Alice", "Smith", "alice", "password")));
+        User bob = new User("Bob", "Jones", "bob", "secret");
+        bob.subtractCash(new BigDecimal("100.00"));
+        journaled.appendToJournal(bob, java.util.List.of());
+        
+        journaled.compact();
+        
+        assertFalse(new File(testDbDir + "/journal.log").exists());
+        assertFalse(new File(testDbDir + "/journal.sealed.log").exists());
+        Map<String, User> snapshotOnly = new DataStore(testDbDir).loadData();
+        assertEquals(2, snapshotOnly.size());
+        assertEquals(new BigDecimal("9900.00"), snapshotOnly.get("bob").getCash());
+    }
+    
+    @Test
+    void testRehashedPasswordSurvivesRestartAndCompaction() throws IOException {
+        DataStore journaled = new DataStore(testDbDir, true);
+        User legacy = new User("Alice", "Smith", "alice", "password");
+        journaled.saveData(Map.of("alice", legacy));
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        legacy.setPasswordHash(hasher.hash("password"));  // As a login migration does
+        journaled.appendToJournal(legacy, java.util.List.of());
+        
+        DataStore restarted = new DataStore(testDbDir, true);
+        assertEquals(legacy.getPasswordHash(), restarted.loadData().get("alice").getPasswordHash());
+        
+        restarted.compact();
+        
+        assertFalse(new File(testDbDir + "/journal.log").exists());
+        assertTrue(Files.readString(Path.of(testDbDir, "users.csv")).contains(legacy.getPasswordHash()));
+        User reloaded = new DataStore(testDbDir, true).loadData().get("alice");
+        assertNull(reloaded.getPassword());
+        assertTrue(hasher.verify("password", reloaded.getPasswordHash()));
+    }
+    
+    @Test
+    void testLoadReplaysSealedSegmentLeftByInterruptedCompaction() throws IOException {
+        DataStore journaled = new DataStore(testDbDir, true);
+        journaled.appendToJournal(new User("Bob", "Jones", "bob", "secret"), java.util.List.of());
+        Files.move(Path.of(testDbDir, "journal.log"), Path.of(testDbDir, "journal.sealed.log"));
+        journaled.appendToJournal(new User("Carol", "White", "carol", "pwd"), java.util.List.of());
+        
+        Map<String, User> users = journaled.loadData();
+        
+        assertTrue(users.containsKey("bob"));
+        assertTrue(users.containsKey("carol"));
+    }
+    
+    // ============ BINARY FORMAT ============
+    
+    @Test
+    void testJournaledCsvStoreServesHistoryFromColumnarStore() throws IOException {
+        new DataStore(testDbDir, true).saveData(usersWithTransfer());
+        assertTrue(new File(testDbDir + "/history.col").exists());
+
+        // Same size and modification time but another amount: only the store still says 25.00
+        Path csv = Path.of(testDbDir, "transactions.csv");
+        java.nio.file.attribute.FileTime modified = Files.getLastModifiedTime(csv);
+        Files.writeString(csv, Files.readString(csv).replace(",25.00,", ",26.00,"));
+        Files.setLastModifiedTime(csv, modified);
+
+        User ann = new DataStore(testDbDir, true).loadData().get("ann");
+        assertEquals(new BigDecimal("25.00"), ann.getTransactions().get(0).getAmount());
+        assertEquals("Received from bob", ann.getTransactions().get(0).getDescription());
+        assertEquals(new BigDecimal("26.00"), new DataStore(testDbDir).loadData().get("ann").getTransactions().get(0).getAmount());
+    }
+
+    @Test
+    void testStaleHistoryStoreIsRebuiltFromCsv() throws IOException {
+        new DataStore(testDbDir, true).saveData(usersWithTransfer());
+        Path csv = Path.of(testDbDir, "transactions.csv");
+        Files.writeString(csv, "tx-2,2025-01-02 10:00:00,5.00,Cash,null,ann,0,10030.00" + System.lineSeparator(), java.nio.file.StandardOpenOption.APPEND);
+
+        User ann = new DataStore(testDbDir, true).loadData().get("ann");
+
+        assertEquals(2, ann.getTransactionCount());
+        assertEquals("tx-2", ann.queryHistory(model.HistoryQuery.latest(1)).getTransactions().get(0).getId());
+        ColumnarTransactionStore store = ColumnarTransactionStore.open(new File(testDbDir + "/history.col"));
+        assertTrue(store.isBuiltFrom(Files.size(csv), Files.getLastModifiedTime(csv).toMillis()));
+        assertEquals(3, store.rowCount());
+    }
+
+    @Test
+    void testDamagedHistoryStoreFallsBackToCsv() throws IOException {
+        new DataStore(testDbDir, true).saveData(usersWithTransfer());
+        Files.writeString(Path.of(testDbDir, "history.col"), "not a history store");
+
+        Map<String, User> loaded = new DataStore(testDbDir, true).loadData();
+
+        assertEquals(1, loaded.get("ann").getTransactionCount());
+        assertEquals(1, loaded.get("bob").getTransactionCount());
+        assertEquals(2, ColumnarTransactionStore.open(new File(testDbDir + "/history.col")).rowCount());
+    }
+
+    @Test
+    void testRowsAddedOnTopOfStoredHistoryAreReplayedAndCompacted() {
+        DataStore journaled = new DataStore(testDbDir, true);
+        journaled.saveData(usersWithTransfer());
+        User ann = new DataStore(testDbDir, true).loadData().get("ann");
+        model.Transaction cash = new model.Transaction("tx-2", java.time.LocalDateTime.of(2025, 1, 2, 10, 0),
+            model.Transaction.Type.DEPOSIT, new BigDecimal("5.00"), "Cash", new BigDecimal("10030.00"));
+        ann.addTransaction(cash);
+        journaled.appendToJournal(ann, ann.getTransactionsSince(1));
+
+        User replayed = new DataStore(testDbDir, true).loadData().get("ann");
+        assertEquals(java.util.List.of("tx-2", "tx-1"),
+            replayed.queryHistory(model.HistoryQuery.latest(5)).getTransactions().stream().map(model.Transaction::getId).toList());
+
+        journaled.compact();
+        User compacted = new DataStore(testDbDir, true).loadData().get("ann");
+        assertEquals(2, compacted.getTransactionCount());
+        assertEquals(new BigDecimal("10030.00"), compacted.getTransactions().get(1).getBalanceAfter());
+    }
+
+    private static Map<String, User> usersWithTransfer() {
+        User ann = new User("Ann", "Lee", "ann", "pw");
+        User bob = new User("Bob", "Ray", "bob", "pw");
+        java.time.LocalDateTime ts = java.time.LocalDateTime.of(2025, 1, 1, 10, 0);
+        bob.addTransaction(new model.Transaction("tx-1", ts, model.Transaction.Type.TRANSFER, new BigDecimal("25.00"), "Sent to ann", new BigDecimal("9975.00")));
+        ann.addTransaction(new model.Transaction("tx-1", ts, model.Transaction.Type.DEPOSIT, new BigDecimal("25.00"), "Received from bob", new BigDecimal("10025.00")));
+        return Map.of("ann", ann, "bob", bob);
+    }
+
+    @Test
+    void testBinaryStoreRoundTripsUsersAndFullHistory() {
+        DataStore binary = new DataStore(testDbDir, false, SnapshotFormat.BINARY);
+        User alice = new User("Alice", "Smith", "alice", "password");
+        alice.getInvestmentAccount().deposit(new BigDecimal("250.00"));
+        alice.addTransaction(new model.Transaction(java.time.LocalDateTime.of(2025, 1, 2, 3, 4, 5), model.Transaction.Type.INVEST,
+            new BigDecimal("250.00"), "Invested in stocks", new BigDecimal("9750.00")));
+        
+        assertTrue(binary.saveData(Map.of("alice", alice)));
+        Map<String, User> loaded = binary.loadData();
+        
+        assertTrue(new File(testDbDir, DataStore.BINARY_SNAPSHOT).exists());
+        assertFalse(new File(testDbDir, "users.csv").exists());
+        assertEquals(new BigDecimal("250.00"), loaded.get("alice").getInvestmentAccount().getBalance());
+        // Unlike the CSV snapshot, INVEST rows and their descriptions survive
+        assertEquals(1, loaded.get("alice").getTransactionCount());
+        assertEquals("Invested in stocks", loaded.get("alice").getTransactions().get(0).getDescription());
+    }
+    
+    @Test
+    void testBinaryStoreFallsBackToExistingCsvFiles() {
+        dataStore.saveData(Map.of("bob", new User("Bob", "Jones", "bob", "secret")));
+        
+        Map<String, User> loaded = new DataStore(testDbDir, false, SnapshotFormat.BINARY).loadData();
+        
+        assertTrue(loaded.containsKey("bob"));
+    }
+    
+    @Test
+    void testConverterMovesDatabaseBetweenFormats() {
+        User bob = new User("Bob", "Jones", "bob", "secret");
+        bob.addCash(new BigDecimal("12.34"));
+        dataStore.saveData(Map.of("bob", bob));
+        
+        assertEquals(1, SnapshotConverter.convert(testDbDir, SnapshotFormat.BINARY));
+        assertEquals(new BigDecimal("10012.34"), new DataStore(testDbDir, false, SnapshotFormat.BINARY).loadData().get("bob").getCash());
+        
+        new File(testDbDir, "users.csv").delete();
+        assertEquals(1, SnapshotConverter.convert(testDbDir, SnapshotFormat.CSV));
+        assertFalse(new File(testDbDir, DataStore.BINARY_SNAPSHOT).exists());
+        assertEquals(new BigDecimal("10012.34"), dataStore.loadData().get("bob").getCash());
+    }
+    
+    @Test
+    void testCorruptBinarySnapshotIsNeverOverwritten() throws IOException {
+        String corrupt = "not a snapshot at all, just text";
+        writeFile(testDbDir + "/" + DataStore.BINARY_SNAPSHOT, corrupt);
+        DataStore binary = new DataStore(testDbDir, true, SnapshotFormat.BINARY);
+        
+        Map<String, User> users = binary.loadData();
+        assertEquals(0, users.size());
+        assertTrue(binary.isSnapshotUnreadable());
+        
+        // Later changes still reach the journal, but nothing replaces the unreadable snapshot
+        binary.appendToJournal(new User("Bob", "Jones", "bob", "secret"), java.util.List.of());
+        binary.compact();
+        assertFalse(binary.saveData(binary.loadData()));
+        assertEquals(-1, SnapshotConverter.convert(testDbDir, SnapshotFormat.CSV));
+        assertEquals(corrupt, Files.readString(Path.of(testDbDir, DataStore.BINARY_SNAPSHOT)));
+        assertTrue(binary.loadData().containsKey("bob"));
+    }
+    
     // ============ CORRUPTION SCENARIOS ============
     
     @Test
@@ -117,6 +465,23 @@ class DataStoreTest {
         assertNull(users.get("alice").getLastLogin());
     }
     
+    @Test
+    void testHashedPasswordSurvivesSaveAndLoadAlongsideLegacy() {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        User hashed = new User("Alice", "Smith", "alice", null);
+        hashed.setPasswordHash(hasher.hash("secret"));
+        User legacy = new User("Bob", "Jones", "bob", "password");
+        dataStore.saveData(Map.of("alice", hashed, "bob", legacy));
+
+        Map<String, User> users = dataStore.loadData();
+
+        assertEquals(hashed.getPasswordHash(), users.get("alice").getPasswordHash());
+        assertNull(users.get("alice").getPassword());
+        assertTrue(hasher.verify("secret", users.get("alice").getPasswordHash()));
+        assertNull(users.get("bob").getPasswordHash());
+        assertEquals("password", users.get("bob").getPassword());
+    }
+    
     @Test
     void testLoadDataWithMissingUserFile() {
         Map<String, User> users = dataStore.loadData();
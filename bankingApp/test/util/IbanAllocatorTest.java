@@ -0,0 +1,62 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IbanAllocatorTest {
+
+    @Test
+    void testAllocatedIbansAreValidAndUnique() {
+        IbanAllocator allocator = new IbanAllocator(new Random(1));
+        Set<String> ibans = new HashSet<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            String iban = allocator.allocate();
+            assertTrue(IbanGenerator.validateIban(iban), iban);
+            assertTrue(ibans.add(iban), "duplicate " + iban);
+        }
+        assertEquals(20_000, allocator.size());
+    }
+
+    @Test
+    void testReserveRejectsIbanAlreadyHeld() {
+        IbanAllocator allocator = new IbanAllocator();
+        String iban = IbanGenerator.ibanFor(123);
+
+        assertTrue(allocator.reserve(iban));
+        assertFalse(allocator.reserve(iban));
+        assertFalse(allocator.reserve(" " + iban.toLowerCase()));
+        assertTrue(allocator.isIssued(iban));
+        assertEquals(1, allocator.size());
+    }
+
+    @Test
+    void testForeignIbansAreAcceptedButNotRecorded() {
+        IbanAllocator allocator = new IbanAllocator();
+
+        assertTrue(allocator.reserve("DE89370400440532013000"));
+        assertTrue(allocator.reserve("DE89370400440532013000"));
+        assertTrue(allocator.reserve(null));
+        assertEquals(0, allocator.size());
+    }
+
+    @Test
+    void testAllocationSkipsReservedNumbersAndFillsWholeSpace() {
+        IbanAllocator allocator = new IbanAllocator(new Random(7));
+        for (int n = 0; n < IbanGenerator.ACCOUNT_NUMBERS; n += 2) {
+            allocator.reserve(IbanGenerator.ibanFor(n));
+        }
+
+        Set<String> ibans = new HashSet<>();
+        while (allocator.size() < IbanGenerator.ACCOUNT_NUMBERS) {
+            String iban = allocator.allocate();
+            assertEquals(1, IbanGenerator.accountNumberOf(iban) % 2, iban);
+            ibans.add(iban);
+        }
+        assertEquals(IbanGenerator.ACCOUNT_NUMBERS / 2, ibans.size());
+        assertThrows(IllegalStateException.class, allocator::allocate);
+    }
+}
@@ -74,4 +74,45 @@ class IbanGeneratorTest {
                 "Generated IBAN should be valid: " + iban);
         }
     }
+    
+    @Test
+    void testIbanForIsDeterministicAndChecksummed() {
+        assertEquals(IbanGenerator.ibanFor(42), IbanGenerator.ibanFor(42));
+        assertNotEquals(IbanGenerator.ibanFor(42), IbanGenerator.ibanFor(43));
+        String iban = IbanGenerator.ibanFor(42);
+        assertTrue(iban.endsWith("77000042"));
+        // Moving the country code and check digits to the end leaves a remainder of 1 mod 97
+        assertEquals(1, new java.math.BigInteger(iban.substring(4) + "1414" + iban.substring(2, 4)).mod(java.math.BigInteger.valueOf(97)).intValue());
+        assertThrows(IllegalArgumentException.class, () -> IbanGenerator.ibanFor(IbanGenerator.ACCOUNT_NUMBERS));
+    }
+    
+    @Test
+    void testIso13616AcceptsPublishedExamples() {
+        assertTrue(IbanGenerator.isValidIso13616("GB82WEST12345698765432"));
+        assertTrue(IbanGenerator.isValidIso13616("DE89370400440532013000"));
+        assertTrue(IbanGenerator.isValidIso13616("EE382200221020145685"));
+    }
+    
+    @Test
+    void testIso13616RejectsChecksumAndFormatErrors() {
+        assertFalse(IbanGenerator.isValidIso13616("GB82WEST12345698765433"));  // One digit off
+        assertFalse(IbanGenerator.isValidIso13616("GB28WEST12345698765432"));  // Swapped check digits
+        assertFalse(IbanGenerator.isValidIso13616("gb82west12345698765432"));
+        assertFalse(IbanGenerator.isValidIso13616("GB82 WEST 1234 5698 7654 32"));
+        assertFalse(IbanGenerator.isValidIso13616("1282WEST12345698765432"));
+        assertFalse(IbanGenerator.isValidIso13616("GB82WEST12345698765432123456789012345"));
+        assertFalse(IbanGenerator.isValidIso13616(null));
+    }
+    
+    @Test
+    void testValidateIbanChecksTheChecksum() {
+        String iban = IbanGenerator.ibanFor(500_000);
+        char last = iban.charAt(11);
+        String tampered = iban.substring(0, 11) + (char) (last == '9' ? '0' : last + 1);
+        
+        assertTrue(IbanGenerator.validateIban(iban));
+        assertFalse(IbanGenerator.validateIban(tampered));
+        assertEquals(500_000, IbanGenerator.accountNumberOf(iban));
+        assertEquals(-1, IbanGenerator.accountNumberOf(tampered));
+    }
 }
@@ -0,0 +1,102 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+        assertEquals(0.0, histogram.getMeanNanos());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 50; v++) {
+            histogram.record(v);
+        }
+
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getPercentileNanos(50));
+        assertEquals(50, histogram.getPercentileNanos(100));
+        assertEquals(25.5, histogram.getMeanNanos(), 1e-9);
+        assertEquals(50, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1_000);  // 1 us .. 100 ms
+        }
+
+        for (double p : new double[] {50, 90, 99, 99.9}) {
+            double exact = p / 100 * 100_000 * 1_000;
+            double reported = histogram.getPercentileNanos(p);
+            assertTrue(reported >= exact && reported <= exact * 1.04, p + ": " + reported + " vs " + exact);
+        }
+        assertEquals(100_000_000, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testBucketsCoverEveryValueWithoutGaps() {
+        long previousTop = -1;
+        for (int bucket = 0; bucket <= LatencyHistogram.bucketOf((1L << 40) - 1); bucket++) {
+            long top = LatencyHistogram.highestValueIn(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousTop + 1));
+            assertEquals(bucket, LatencyHistogram.bucketOf(top));
+            previousTop = top;
+        }
+    }
+
+    @Test
+    void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(50));
+        assertEquals((1L << 40) - 1, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1_000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(999, histogram.getMaxNanos());
+        assertEquals(499.5, histogram.getMeanNanos(), 1e-9);
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void testTimingRecordsOnClose() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        try (LatencyHistogram.Timing timing = histogram.start()) {
+            assertEquals(0, histogram.getCount());
+        }
+
+        assertEquals(1, histogram.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+}
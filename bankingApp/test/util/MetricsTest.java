@@ -0,0 +1,46 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.nio.file.Files;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testSameNameReturnsSameMetric() {
+        assertSame(Metrics.timer("test.sameTimer"), Metrics.timer("test.sameTimer"));
+        assertSame(Metrics.counter("test.sameCounter"), Metrics.counter("test.sameCounter"));
+    }
+
+    @Test
+    void testReportListsRecordedTimersAndCounters() {
+        Metrics.timer("test.reported").record(2_500_000);
+        Metrics.counter("test.events").add(3);
+        Metrics.timer("test.neverRecorded");
+
+        String report = Metrics.report();
+
+        assertTrue(report.startsWith("Metrics since "));
+        assertTrue(report.matches("(?s).*test\\.reported\\s+\\d+\\s+[\\d.]+\\s+2\\.5\\d\\d.*"), report);
+        assertTrue(report.matches("(?s).*test\\.events\\s+\\d+.*"), report);
+        assertFalse(report.contains("test.neverRecorded"));
+    }
+
+    @Test
+    void testReporterWritesReportToFile() throws Exception {
+        File file = File.createTempFile("metrics-", ".txt");
+        try {
+            Metrics.counter("test.dumped").increment();
+            MetricsReporter reporter = new MetricsReporter(file);
+            reporter.start(3600);
+            reporter.shutdown();
+
+            String dump = new String(Files.readAllBytes(file.toPath()));
+            assertTrue(dump.contains("test.dumped"), dump);
+            assertFalse(new File(file.getPath() + ".tmp").exists());
+        } finally {
+            file.delete();
+        }
+    }
+}
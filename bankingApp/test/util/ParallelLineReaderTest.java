@@ -0,0 +1,100 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelLineReaderTest {
+
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("parallel-lines-", ".csv");
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private void write(String content) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(content);
+        }
+    }
+
+    private <R> List<R> parseLines(Function<String, R> parser) throws IOException {
+        List<R> results = new ArrayList<>();
+        ParallelLineReader.parseLines(file, parser, results::add);
+        return results;
+    }
+
+    @Test
+    void testSmallFileKeepsLinesAndBlanks() throws IOException {
+        write("a,1\n\nb,2\r\nc,3");
+        List<String> lines = parseLines(line -> line);
+        assertEquals(List.of("a,1", "", "b,2", "c,3"), lines);
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        write("");
+        assertTrue(parseLines(line -> line).isEmpty());
+    }
+
+    @Test
+    void testLargeFileIsSplitOnLineBoundariesInOrder() throws IOException {
+        // Large enough to be split into several ranges; multi-byte characters must survive the split
+        int count = 60_000;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(i).append(",J\u00fcri \u00d5un,").append("x".repeat(i % 13)).append('\n');
+        }
+        write(content.toString());
+
+        List<Integer> parsed = parseLines(line -> {
+            assertTrue(line.contains(",J\u00fcri \u00d5un,"), "Line split mid-record: " + line);
+            return Integer.parseInt(line.substring(0, line.indexOf(',')));
+        });
+
+        assertEquals(count, parsed.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, parsed.get(i));
+        }
+    }
+
+    @Test
+    void testRowsStreamToConsumerBeforeTheWholeFileIsParsed() throws IOException {
+        // Several windows of chunks on any machine: each window holds a quarter of the file
+        int count = Runtime.getRuntime().availableProcessors() * 50_000;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(i).append(",row-of-some-length\n");
+        }
+        write(content.toString());
+
+        AtomicInteger parsedLines = new AtomicInteger();
+        int[] parsedWhenFirstDelivered = {-1};
+        int[] delivered = {0};
+        ParallelLineReader.parseLines(file, line -> {
+            parsedLines.incrementAndGet();
+            return Integer.parseInt(line.substring(0, line.indexOf(',')));
+        }, value -> {
+            if (delivered[0] == 0) {
+                parsedWhenFirstDelivered[0] = parsedLines.get();
+            }
+            assertEquals(delivered[0]++, value);
+        });
+
+        assertEquals(count, delivered[0]);
+        assertTrue(parsedWhenFirstDelivered[0] < count, "All " + count + " lines were parsed before the first was delivered");
+    }
+}
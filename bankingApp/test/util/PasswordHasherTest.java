@@ -0,0 +1,80 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+
+    @Test
+    void testVerifyAcceptsOnlyTheHashedPassword() {
+        String stored = hasher.hash("correct horse");
+
+        assertTrue(hasher.verify("correct horse", stored));
+        assertFalse(hasher.verify("correct hors", stored));
+        assertFalse(hasher.verify("Correct horse", stored));
+        assertFalse(hasher.verify("", stored));
+    }
+
+    @Test
+    void testHashesAreSaltedAndFitACsvField() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertNotEquals(first, second);
+        assertTrue(first.startsWith("pbkdf2-sha256$" + PasswordHasher.MIN_ITERATIONS + "$"));
+        assertFalse(first.contains(","));
+        assertFalse(first.contains("secret"));
+        assertTrue(hasher.verify("secret", second));
+    }
+
+    @Test
+    void testVerifyUsesTheIterationsStoredInTheHash() {
+        String stored = new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 3).hash("secret");
+
+        assertTrue(hasher.verify("secret", stored));
+        assertTrue(hasher.needsRehash(stored));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+    }
+
+    @Test
+    void testMalformedHashesNeverVerify() {
+        assertFalse(hasher.verify("secret", null));
+        assertFalse(hasher.verify("secret", "secret"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$abc$c2FsdA$aGFzaA"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$1000$not base64!$aGFzaA"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$1000$$"));
+        assertTrue(hasher.needsRehash("not a hash"));
+    }
+
+    @Test
+    void testIsHashTellsHashesFromLegacyPasswords() {
+        assertTrue(PasswordHasher.isHash(hasher.hash("secret")));
+        assertFalse(PasswordHasher.isHash(SecurityUtils.encrypt("secret")));
+        assertFalse(PasswordHasher.isHash(null));
+    }
+
+    @Test
+    void testRejectsWorkFactorBelowMinimum() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(PasswordHasher.MIN_ITERATIONS - 1));
+    }
+
+    @Test
+    void testFromSystemPropertyFallsBackToDefault() {
+        String previous = System.getProperty("bankingApp.passwordIterations");
+        try {
+            System.setProperty("bankingApp.passwordIterations", "2500");
+            assertEquals(2500, PasswordHasher.fromSystemProperty().getIterations());
+            System.setProperty("bankingApp.passwordIterations", "lots");
+            assertEquals(PasswordHasher.DEFAULT_ITERATIONS, PasswordHasher.fromSystemProperty().getIterations());
+            System.clearProperty("bankingApp.passwordIterations");
+            assertEquals(PasswordHasher.DEFAULT_ITERATIONS, PasswordHasher.fromSystemProperty().getIterations());
+        } finally {
+            if (previous != null) {
+                System.setProperty("bankingApp.passwordIterations", previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import model.Money;
+import model.Transaction;
+import model.User;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulationGeneratorTest {
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("test-population-").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteRecursively(dir);
+    }
+
+    private void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    void testSameSeedWritesIdenticalFiles() throws IOException {
+        new PopulationGenerator(50, 2_000, 7).generate(new File(dir, "a"));
+        new PopulationGenerator(50, 2_000, 7).generate(new File(dir, "b"));
+        new PopulationGenerator(50, 2_000, 8).generate(new File(dir, "c"));
+
+        for (String name : new String[] {"users.csv", "transactions.csv"}) {
+            byte[] a = Files.readAllBytes(new File(dir, "a/" + name).toPath());
+            assertArrayEquals(a, Files.readAllBytes(new File(dir, "b/" + name).toPath()));
+            assertFalse(java.util.Arrays.equals(a, Files.readAllBytes(new File(dir, "c/" + name).toPath())));
+        }
+    }
+
+    @Test
+    void testOutputLoadsWithConsistentBalances() throws IOException {
+        new PopulationGenerator(200, 5_000, 1).generate(dir);
+
+        Map<String, User> users = new DataStore(dir.getPath(), false).loadData(false);
+
+        assertEquals(200, users.size());
+        Set<String> ibans = new HashSet<>();
+        int rows = 0;
+        for (User u : users.values()) {
+            assertTrue(IbanGenerator.validateIban(u.getIban()));
+            assertTrue(ibans.add(u.getIban()), "duplicate IBAN " + u.getIban());
+            assertEquals("password", u.getPassword().substring(0, 8));
+            assertTrue(u.getCashCents() >= 0);
+            List<Transaction> history = u.getTransactions();
+            if (!history.isEmpty()) {
+                Transaction last = history.get(history.size() - 1);
+                assertEquals(u.getCashCents(), last.getBalanceAfterCents(), u.getUsername());
+            }
+            rows += history.size();
+        }
+        // Transfers appear in two histories, every other row in one
+        assertTrue(rows > 5_000 && rows < 10_000);
+    }
+
+    @Test
+    void testMoneyIsOnlyCreatedByDepositsAndRemovedByWithdrawals() throws IOException {
+        new PopulationGenerator(20, 3_000, 3).generate(dir);
+
+        long expected = 20 * 1_000_000L;
+        for (String line : Files.readAllLines(new File(dir, "transactions.csv").toPath())) {
+            String[] parts = line.split(",");
+            long amount = Money.toCents(new java.math.BigDecimal(parts[2]));
+            if (parts[4].equals("null")) {
+                expected += amount;
+            } else if (parts[3].equals("ATM withdrawal")) {
+                expected -= amount;
+            }
+        }
+        long total = 0;
+        for (User u : new DataStore(dir.getPath(), false).loadData(false).values()) {
+            total += u.getCashCents() + u.getInvestmentAccount().getBalanceCents();
+        }
+        assertEquals(expected, total);
+    }
+
+    @Test
+    void testRefusesToOverwriteDatabase() throws IOException {
+        new PopulationGenerator(2, 10, 1).generate(dir);
+
+        assertThrows(IOException.class, () -> new PopulationGenerator(2, 10, 1).generate(dir));
+    }
+
+    @Test
+    void testRejectsMoreUsersThanAccountNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> new PopulationGenerator(IbanGenerator.ACCOUNT_NUMBERS + 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PopulationGenerator(1, 0, 1));
+    }
+}
@@ -0,0 +1,73 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import model.User;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCompactorTest {
+    
+    private String testDbDir;
+    private DataStore dataStore;
+    private SnapshotCompactor compactor;
+    
+    @BeforeEach
+    void setUp() {
+        testDbDir = "test-db-" + System.nanoTime();
+        dataStore = new DataStore(testDbDir, true);
+        compactor = new SnapshotCompactor(dataStore, 0);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        compactor.shutdown();
+        deleteDirectory(new File(testDbDir));
+    }
+
+    private void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    deleteDirectory(file);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+        dir.delete();
+    }
+    
+    @Test
+    void testCompactNowWritesSnapshotAndClearsJournal() throws Exception {
+        dataStore.appendToJournal(new User("Alice", "Smith", "alice", "password"), List.of());
+        
+        compactor.compactNow().get();
+        
+        assertEquals(0, dataStore.getJournalSize());
+        Map<String, User> snapshotOnly = new DataStore(testDbDir).loadData();
+        assertTrue(snapshotOnly.containsKey("alice"));
+    }
+    
+    @Test
+    void testAppendsDuringCompactionAreKept() throws Exception {
+        dataStore.appendToJournal(new User("Alice", "Smith", "alice", "password"), List.of());
+        compactor.compactNow().get();
+        dataStore.appendToJournal(new User("Bob", "Jones", "bob", "secret"), List.of());
+        
+        Map<String, User> users = dataStore.loadData();
+        
+        assertEquals(2, users.size());
+    }
+    
+    @Test
+    void testCompactNowWithEmptyJournalDoesNothing() throws Exception {
+        compactor.compactNow().get();
+        
+        assertFalse(new File(testDbDir + "/users.csv").exists());
+    }
+}
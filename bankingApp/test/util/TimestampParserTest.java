@@ -0,0 +1,40 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampParserTest {
+
+    @Test
+    void testParsesDatabaseFormat() {
+        assertEquals(LocalDateTime.of(2025, 12, 31, 23, 59, 7), TimestampParser.parse("2025-12-31 23:59:07"));
+    }
+
+    @Test
+    void testMatchesDateTimeFormatter() {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime time = LocalDateTime.of(2024, 2, 29, 0, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            String text = time.format(fmt);
+            assertEquals(LocalDateTime.parse(text, fmt), TimestampParser.parse(text));
+            time = time.plusHours(37).plusSeconds(61);
+        }
+    }
+
+    @Test
+    void testRejectsMalformedTimestamps() {
+        assertThrows(IllegalArgumentException.class, () -> TimestampParser.parse("2025-01-01T10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimestampParser.parse("2025-01-01 10:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimestampParser.parse("2025-0a-01 10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimestampParser.parse("not-a-date"));
+    }
+
+    @Test
+    void testRejectsOutOfRangeFields() {
+        assertThrows(java.time.DateTimeException.class, () -> TimestampParser.parse("2025-13-01 10:00:00"));
+        assertThrows(java.time.DateTimeException.class, () -> TimestampParser.parse("2025-02-30 10:00:00"));
+        assertThrows(java.time.DateTimeException.class, () -> TimestampParser.parse("2025-01-01 24:00:00"));
+    }
+}
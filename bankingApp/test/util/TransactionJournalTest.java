@@ -0,0 +1,91 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    private Path path;
+    private TransactionJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = Files.createTempFile("journal", ".log");
+        Files.delete(path);
+        journal = new TransactionJournal(path.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testAppendedEntriesReadBackInOrder() throws IOException {
+        journal.append(List.of("TX,dana,tx-1,2025-01-01 10:00:00,DEPOSIT,5.00,5.00,Cash, ATM", "USER,dana,x,Dana,White,1,5.00,0"));
+        journal.append(List.of("USER,dana,x,Dana,White,1,6.00,0"));
+
+        assertEquals(List.of("TX,dana,tx-1,2025-01-01 10:00:00,DEPOSIT,5.00,5.00,Cash, ATM",
+            "USER,dana,x,Dana,White,1,5.00,0", "USER,dana,x,Dana,White,1,6.00,0"), new TransactionJournal(path.toString()).readRecords());
+    }
+
+    @Test
+    void testRecordCutInsideANumberIsDroppedAndTruncatedBeforeNextAppend() throws IOException {
+        journal.append(List.of("USER,dana,x,Dana,White,1,100.00,0"));
+        long firstEntry = Files.size(path);
+        journal.append(List.of("USER,dana,x,Dana,White,1,250.00,0"));
+        cutFileTo(Files.size(path) - 6);  // Crash while writing "250.00,0"
+
+        TransactionJournal reopened = new TransactionJournal(path.toString());
+        reopened.append(List.of("USER,dana,x,Dana,White,1,300.00,0"));
+
+        assertEquals(List.of("USER,dana,x,Dana,White,1,100.00,0", "USER,dana,x,Dana,White,1,300.00,0"), reopened.readRecords());
+        assertEquals(firstEntry * 2, Files.size(path));
+    }
+
+    @Test
+    void testEntryMissingItsLastRecordIsDropped() throws IOException {
+        journal.append(List.of("USER,ann,x,Ann,Lee,1,1.00,0"));
+        long firstEntry = Files.size(path);
+        journal.append(List.of("TX,ann,tx-1,2025-01-01 10:00:00,TRANSFER,1.00,0.00,Sent to bob", "USER,ann,x,Ann,Lee,1,0.00,0"));
+        String firstLineOfSecond = Files.readAllLines(path).get(1);
+        cutFileTo(firstEntry + firstLineOfSecond.length() + 1);  // The line break made it, the next record did not
+
+        assertEquals(List.of("USER,ann,x,Ann,Lee,1,1.00,0"), new TransactionJournal(path.toString()).readRecords());
+        assertEquals(firstEntry, Files.size(path));
+    }
+
+    @Test
+    void testDamagedEntryInsideTheFileIsSkippedNotTruncated() throws IOException {
+        journal.append(List.of("USER,ann,x,Ann,Lee,1,1.00,0"));
+        journal.append(List.of("USER,bob,x,Bob,Ray,1,2.00,0"));
+        long size = Files.size(path);
+        String damaged = Files.readString(path, StandardCharsets.UTF_8).replace("1.00", "9.00");
+        Files.writeString(path, damaged, StandardCharsets.UTF_8);
+
+        assertEquals(List.of("USER,bob,x,Bob,Ray,1,2.00,0"), new TransactionJournal(path.toString()).readRecords());
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void testReadsUnframedLinesFromOlderJournals() throws IOException {
+        Files.writeString(path, "USER,ann,x,Ann,Lee,1,1.00,0\nTX,ann,tx-1,2025-01-01 10:00:00,DEPOSIT,1.00,1.00,Cash\n");
+        journal.append(List.of("USER,ann,x,Ann,Lee,1,2.00,0"));
+
+        assertEquals(List.of("USER,ann,x,Ann,Lee,1,1.00,0", "TX,ann,tx-1,2025-01-01 10:00:00,DEPOSIT,1.00,1.00,Cash",
+            "USER,ann,x,Ann,Lee,1,2.00,0"), journal.readRecords());
+    }
+
+    private void cutFileTo(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+            raf.setLength(length);
+        }
+    }
+}
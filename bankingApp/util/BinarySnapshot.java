@@ -0,0 +1,238 @@
+package util;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.Money;
+import model.Transaction;
+import model.User;
+
+// Binary alternative to users.csv + transactions.csv, read through a memory mapping. indexOf and
+// readUser find and decode one user without touching the rest of the file; DataStore still
+// decodes every user through readAll, because UserManager keeps all users in memory, so a full
+// load gains fixed-width fields and cents instead of text parsing, not laziness. Unlike the CSV
+// snapshot it keeps every history row, including INVEST and gain rows and their descriptions.
+//
+// Layout (big-endian):
+//   header       32 bytes  magic, version, userCount, reserved, txCount, heapOffset
+//   users        72 bytes  per user, sorted by lower-case username:
+//                          username, password (hash, or encrypted if legacy), firstName, lastName, iban, recents
+//                          (heap offsets), cash, savings, investment (cents), lastLogin (epoch
+//                          seconds UTC or NO_LOGIN), firstTx, txCount, flags
+//   transactions 36 bytes  per row, grouped by user in history order:
+//                          timestamp (epoch seconds UTC), amount, balanceAfter (cents), id,
+//                          description (heap offsets), type ordinal
+//   heap                   length-prefixed UTF-8 strings; descriptions and names are shared
+public class BinarySnapshot {
+    private static final int MAGIC = 0x424E4B31;  // "BNK1"
+    private static final int VERSION = 1;
+    private static final int HEADER_WIDTH = 32;
+    private static final int USER_WIDTH = 72;
+    private static final int TX_WIDTH = 36;
+    private static final long NO_LOGIN = Long.MIN_VALUE;
+    private static final int FLAG_FRAUD_WARNING = 1;
+    private static final int FLAG_FROZEN = 2;
+    private static final Transaction.Type[] TYPES = Transaction.Type.values();
+
+    private final MappedByteBuffer buffer;
+    private final int userCount;
+    private final long txCount;
+    private final long heapOffset;
+
+    private BinarySnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_WIDTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a binary snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported snapshot version " + buffer.getInt(4));
+        }
+        this.userCount = buffer.getInt(8);
+        this.txCount = buffer.getLong(16);
+        this.heapOffset = buffer.getLong(24);
+        if (userCount < 0 || txCount < 0 || heapOffset != HEADER_WIDTH + (long) userCount * USER_WIDTH + txCount * TX_WIDTH
+                || heapOffset > buffer.capacity()) {
+            throw new IOException("snapshot header does not match file size");
+        }
+    }
+
+    // Maps the file; nothing is decoded until a user is read
+    public static BinarySnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            return new BinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public long transactionCount() {
+        return txCount;
+    }
+
+    public String username(int index) {
+        return string(userOffset(index));
+    }
+
+    // Binary search over the sorted user records; -1 when absent
+    public int indexOf(String username) {
+        String key = username.toLowerCase();
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = username(mid).toLowerCase().compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public User readUser(int index) {
+        int record = userOffset(index);
+        String username = string(record);
+        String password = string(record + 4);
+        User u;
+        if (PasswordHasher.isHash(password)) {
+            u = new User(string(record + 8), string(record + 12), username, null);
+            u.setPasswordHash(password);
+        } else {
+            u = new User(string(record + 8), string(record + 12), username, SecurityUtils.decrypt(password));
+        }
+        u.setIban(string(record + 16));
+        u.getRecentRecipients().load(string(record + 20));
+
+        u.subtractCash(u.getCash());
+        u.addCash(Money.toBigDecimal(buffer.getLong(record + 24)));
+        long savings = buffer.getLong(record + 32);
+        if (savings != 0) {
+            u.getSavingsAccount().deposit(Money.toBigDecimal(savings));
+        }
+        long investment = buffer.getLong(record + 40);
+        if (investment != 0) {
+            u.getInvestmentAccount().deposit(Money.toBigDecimal(investment));
+        }
+        long lastLogin = buffer.getLong(record + 48);
+        if (lastLogin != NO_LOGIN) {
+            u.setLastLogin(LocalDateTime.ofEpochSecond(lastLogin, 0, ZoneOffset.UTC));
+        }
+        int flags = buffer.getInt(record + 68);
+        u.setFraudWarning((flags & FLAG_FRAUD_WARNING) != 0);
+        u.setFrozen((flags & FLAG_FROZEN) != 0);
+
+        long firstTx = buffer.getLong(record + 56);
+        int count = buffer.getInt(record + 64);
+        if (firstTx < 0 || count < 0 || firstTx + count > txCount) {
+            throw new IllegalStateException("history of user " + index + " lies outside the snapshot");
+        }
+        for (int i = 0; i < count; i++) {
+            int row = (int) (HEADER_WIDTH + (long) userCount * USER_WIDTH + (firstTx + i) * TX_WIDTH);
+            int type = buffer.getInt(row + 32);
+            if (type < 0 || type >= TYPES.length) {
+                throw new IllegalStateException("unknown transaction type " + type);
+            }
+            u.addTransaction(new Transaction(
+                    string(row + 24),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(row), 0, ZoneOffset.UTC),
+                    TYPES[type],
+                    Money.toBigDecimal(buffer.getLong(row + 8)),
+                    string(row + 28),
+                    Money.toBigDecimal(buffer.getLong(row + 16))));
+        }
+        return u;
+    }
+
+    // Decodes every user, keyed by lower-case username like DataStore.loadData. Throws
+    // IllegalStateException when a record points outside the file.
+    public Map<String, User> readAll() {
+        Map<String, User> users = new HashMap<>();
+        for (int i = 0; i < userCount; i++) {
+            User u = readUser(i);
+            users.put(u.getUsername().toLowerCase(), u);
+        }
+        return users;
+    }
+
+    private int userOffset(int index) {
+        if (index < 0 || index >= userCount) {
+            throw new IndexOutOfBoundsException("user " + index + " of " + userCount);
+        }
+        return HEADER_WIDTH + index * USER_WIDTH;
+    }
+
+    // Reads the string whose heap offset is stored at position
+    private String string(int position) {
+        return StringHeap.read(buffer, heapOffset, buffer.getInt(position));
+    }
+
+    public static void write(Collection<User> users, File file) throws IOException {
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort((a, b) -> a.getUsername().toLowerCase().compareTo(b.getUsername().toLowerCase()));
+        long txCount = 0;
+        for (User u : sorted) {
+            txCount += u.getTransactionCount();
+        }
+
+        StringHeap heap = new StringHeap();
+        try (FileOutputStream fileOut = new FileOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(0);
+            out.writeLong(txCount);
+            out.writeLong(HEADER_WIDTH + (long) sorted.size() * USER_WIDTH + txCount * TX_WIDTH);
+
+            long firstTx = 0;
+            for (User u : sorted) {
+                out.writeInt(heap.add(u.getUsername(), true));
+                out.writeInt(heap.add(u.getPasswordHash() != null ? u.getPasswordHash() : SecurityUtils.encrypt(u.getPassword()), false));
+                out.writeInt(heap.add(u.getFirstName(), true));
+                out.writeInt(heap.add(u.getLastName(), true));
+                out.writeInt(heap.add(u.getIban(), false));
+                out.writeInt(heap.add(u.getRecentRecipients().serialize(), false));
+                out.writeLong(u.getCashCents());
+                out.writeLong(u.getSavingsAccount().getBalanceCents());
+                out.writeLong(u.getInvestmentAccount().getBalanceCents());
+                out.writeLong(u.getLastLogin() != null ? u.getLastLogin().toEpochSecond(ZoneOffset.UTC) : NO_LOGIN);
+                out.writeLong(firstTx);
+                out.writeInt(u.getTransactionCount());
+                out.writeInt((u.hasFraudWarning() ? FLAG_FRAUD_WARNING : 0) | (u.isFrozen() ? FLAG_FROZEN : 0));
+                firstTx += u.getTransactionCount();
+            }
+
+            for (User u : sorted) {
+                for (Transaction t : u.getTransactions()) {
+                    out.writeLong(t.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+                    out.writeLong(t.getAmountCents());
+                    out.writeLong(t.getBalanceAfterCents());
+                    out.writeInt(heap.add(t.getId(), false));  // Ids are unique apart from the two sides of a transfer
+                    out.writeInt(heap.add(t.getDescription(), true));
+                    out.writeInt(t.getType().ordinal());
+                }
+            }
+
+            heap.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();  // On disk before the caller renames it over the old snapshot
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package util;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import model.ArchivedHistory;
+import model.Money;
+import model.Transaction;
+import model.User;
+
+// Columnar copy of the history held in transactions.csv, read through a memory mapping.
+// Journaled CSV stores hand each user an ArchivedHistory slice of it at load instead of
+// decoding their rows, so history stays on disk until it is paged or scanned. The file is
+// derived data: it records the size and modification time of the transactions.csv it was
+// built from and is ignored (and rebuilt) when they no longer match.
+//
+// Layout (big-endian), R rows grouped by user in timestamp order, U users:
+//   header        48 bytes  magic, version, userCount, reserved, rowCount, sourceSize,
+//                           sourceModified (epoch millis), heapOffset
+//   timestamps    8R        epoch seconds UTC
+//   amounts       8R        cents
+//   balances      8R        balanceAfter cents
+//   ids           4R        heap offsets
+//   descriptions  4R        heap offsets into a deduplicated dictionary
+//   types         R         type ordinal
+//   users         16U       username (heap offset), row count, first row; sorted by lower-case username
+//   heap                    length-prefixed UTF-8 strings
+public class ColumnarTransactionStore {
+    private static final int MAGIC = 0x42484331;  // "BHC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_WIDTH = 48;
+    private static final int ROW_WIDTH = 33;
+    private static final int USER_WIDTH = 16;
+    private static final Transaction.Type[] TYPES = Transaction.Type.values();
+
+    private final MappedByteBuffer buffer;
+    private final int userCount;
+    private final long rowCount;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long heapOffset;
+    // Start of each column
+    private final long timestamps;
+    private final long amounts;
+    private final long balances;
+    private final long ids;
+    private final long descriptions;
+    private final long types;
+
+    private ColumnarTransactionStore(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_WIDTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a history store");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported history store version " + buffer.getInt(4));
+        }
+        this.userCount = buffer.getInt(8);
+        this.rowCount = buffer.getLong(16);
+        this.sourceSize = buffer.getLong(24);
+        this.sourceModified = buffer.getLong(32);
+        this.heapOffset = buffer.getLong(40);
+        if (userCount < 0 || rowCount < 0 || heapOffset != HEADER_WIDTH + rowCount * ROW_WIDTH + (long) userCount * USER_WIDTH
+                || heapOffset > buffer.capacity()) {
+            throw new IOException("history store header does not match file size");
+        }
+        this.timestamps = HEADER_WIDTH;
+        this.amounts = timestamps + rowCount * 8;
+        this.balances = amounts + rowCount * 8;
+        this.ids = balances + rowCount * 8;
+        this.descriptions = ids + rowCount * 4;
+        this.types = descriptions + rowCount * 4;
+        validate();
+    }
+
+    // Maps the file and checks every offset in it, so reading a row later cannot fail
+    public static ColumnarTransactionStore open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("history store larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed, and after the file is replaced
+            return new ColumnarTransactionStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private void validate() throws IOException {
+        long users = 0;
+        for (int i = 0; i < userCount; i++) {
+            int record = userOffset(i);
+            int count = buffer.getInt(record + 4);
+            long first = buffer.getLong(record + 8);
+            if (count < 0 || first != users) {
+                throw new IOException("history of user " + i + " is out of place");
+            }
+            users += count;
+            checkString(record);
+        }
+        if (users != rowCount) {
+            throw new IOException("user index covers " + users + " of " + rowCount + " rows");
+        }
+        for (long row = 0; row < rowCount; row++) {
+            int type = buffer.get(at(types, row, 1));
+            if (type < 0 || type >= TYPES.length) {
+                throw new IOException("unknown transaction type " + type + " in row " + row);
+            }
+            checkString(at(ids, row, 4));
+            checkString(at(descriptions, row, 4));
+        }
+    }
+
+    private void checkString(int position) throws IOException {
+        try {
+            string(position);
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    // True when the store was built from a transactions.csv with this size and modification time
+    public boolean isBuiltFrom(long size, long modified) {
+        return sourceSize == size && sourceModified == modified;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public String username(int index) {
+        return string(userOffset(index));
+    }
+
+    // The rows of one user; nothing is decoded until they are read
+    public ArchivedHistory history(int index) {
+        int record = userOffset(index);
+        return new Slice(buffer.getLong(record + 8), buffer.getInt(record + 4));
+    }
+
+    private final class Slice implements ArchivedHistory {
+        private final long first;
+        private final int count;
+
+        Slice(long first, int count) {
+            this.first = first;
+            this.count = count;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            long row = row(index);
+            return new Transaction(
+                    string(at(ids, row, 4)),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(at(timestamps, row, 8)), 0, ZoneOffset.UTC),
+                    TYPES[buffer.get(at(types, row, 1))],
+                    Money.toBigDecimal(buffer.getLong(at(amounts, row, 8))),
+                    string(at(descriptions, row, 4)),
+                    Money.toBigDecimal(buffer.getLong(at(balances, row, 8))));
+        }
+
+        @Override
+        public Transaction.Type typeAt(int index) {
+            return TYPES[buffer.get(at(types, row(index), 1))];
+        }
+
+        @Override
+        public LocalDateTime timestampAt(int index) {
+            return LocalDateTime.ofEpochSecond(buffer.getLong(at(timestamps, row(index), 8)), 0, ZoneOffset.UTC);
+        }
+
+        private long row(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("row " + index + " of " + count);
+            }
+            return first + index;
+        }
+    }
+
+    // Byte position of a row's value in the column starting at start
+    private static int at(long start, long row, int width) {
+        return (int) (start + row * width);
+    }
+
+    private int userOffset(int index) {
+        if (index < 0 || index >= userCount) {
+            throw new IndexOutOfBoundsException("user " + index + " of " + userCount);
+        }
+        return (int) (types + rowCount + (long) index * USER_WIDTH);
+    }
+
+    private String string(int position) {
+        return StringHeap.read(buffer, heapOffset, buffer.getInt(position));
+    }
+
+    // Writes the histories (each already in timestamp order) to file and forces it to disk;
+    // the caller renames it into place
+    public static void write(Map<User, List<Transaction>> histories, long sourceSize, long sourceModified, File file) throws IOException {
+        List<User> users = new ArrayList<>(histories.keySet());
+        users.sort((a, b) -> a.getUsername().toLowerCase().compareTo(b.getUsername().toLowerCase()));
+        List<Transaction> rows = new ArrayList<>();
+        for (User u : users) {
+            rows.addAll(histories.get(u));
+        }
+
+        StringHeap heap = new StringHeap();
+        try (FileOutputStream fileOut = new FileOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(users.size());
+            out.writeInt(0);
+            out.writeLong(rows.size());
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeLong(HEADER_WIDTH + (long) rows.size() * ROW_WIDTH + (long) users.size() * USER_WIDTH);
+
+            for (Transaction t : rows) {
+                out.writeLong(t.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            }
+            for (Transaction t : rows) {
+                out.writeLong(t.getAmountCents());
+            }
+            for (Transaction t : rows) {
+                out.writeLong(t.getBalanceAfterCents());
+            }
+            for (Transaction t : rows) {
+                out.writeInt(heap.add(t.getId(), false));  // Ids are unique apart from the two sides of a transfer
+            }
+            for (Transaction t : rows) {
+                out.writeInt(heap.add(t.getDescription(), true));
+            }
+            for (Transaction t : rows) {
+                out.writeByte(t.getType().ordinal());
+            }
+
+            long first = 0;
+            for (User u : users) {
+                int count = histories.get(u).size();
+                out.writeInt(heap.add(u.getUsername(), false));
+                out.writeInt(count);
+                out.writeLong(first);
+                first += count;
+            }
+
+            heap.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+    }
+}
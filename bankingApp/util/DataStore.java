@@ -2,6 +2,11 @@ package util;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -12,37 +17,124 @@ public class DataStore {
     private final String dbDir;
     private final String usersFile;
     private final String transactionsFile;
+    private final String binaryFile;
+    // Columnar copy of the transactions.csv history that journaled CSV stores load users from
+    private final String historyFile;
+    private final SnapshotFormat format;
+    private final TransactionJournal journal;
+    // Journal segment being folded into the snapshot by compact()
+    private final TransactionJournal sealedJournal;
+    // Serializes snapshot rewrites between the request path and the background compactor
+    private final Object snapshotLock = new Object();
+    // Serialized users.csv rows of users that have not changed since they were last written
+    private final Map<User, String> userRowCache = new IdentityHashMap<>();
+    // Rows appended to users.csv since it was last rewritten; on load the last row per user wins
+    private int appendedUserRows;
+    // Set while snapshot.bin cannot be decoded. The users it holds are missing from every load,
+    // so writing a snapshot then would replace them with nothing; until a load succeeds again
+    // snapshot writes are refused and only journal appends go through.
+    private volatile boolean snapshotUnreadable;
+    private static final String JOURNAL_TX = "TX";
+    private static final String JOURNAL_USER = "USER";
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final String BINARY_SNAPSHOT = "snapshot.bin";
+    private static final String HISTORY_STORE = "history.col";
 
     // Default constructor for production use
     public DataStore() {
-        this("database");
+        this("database", true, SnapshotFormat.fromSystemProperty());
     }
     
     // Constructor for testing
     public DataStore(String databaseDirectory) {
+        this(databaseDirectory, false);
+    }
+
+    // Journaled stores append each change to journal.log instead of rewriting the CSV snapshot
+    public DataStore(String databaseDirectory, boolean journaled) {
+        this(databaseDirectory, journaled, SnapshotFormat.CSV);
+    }
+
+    public DataStore(String databaseDirectory, boolean journaled, SnapshotFormat format) {
         this.dbDir = databaseDirectory;
         this.usersFile = dbDir + "/users.csv";
         this.transactionsFile = dbDir + "/transactions.csv";
+        this.binaryFile = dbDir + "/" + BINARY_SNAPSHOT;
+        this.historyFile = dbDir + "/" + HISTORY_STORE;
+        this.format = format;
+        this.journal = journaled ? new TransactionJournal(dbDir + "/journal.log") : null;
+        this.sealedJournal = journaled ? new TransactionJournal(dbDir + "/journal.sealed.log") : null;
+    }
+
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    public SnapshotFormat getFormat() {
+        return format;
+    }
+
+    // True when the last load could not decode snapshot.bin
+    public boolean isSnapshotUnreadable() {
+        return snapshotUnreadable;
     }
 
     public Map<String, User> loadData() {
+        return loadData(true);
+    }
+
+    // Non-verbose loads skip the summary lines, for background readers
+    public Map<String, User> loadData(boolean verbose) {
+        synchronized (snapshotLock) {
+            return load(true, verbose);
+        }
+    }
+
+    // Reads the snapshot plus the sealed journal segment, and the live journal when requested
+    private Map<String, User> load(boolean includeLiveJournal, boolean verbose) {
         Map<String, User> users = new HashMap<>();
         ensureDatabaseDirectory();
 
+        if (format == SnapshotFormat.BINARY && new File(binaryFile).exists()) {
+            try {
+                BinarySnapshot snapshot = BinarySnapshot.open(new File(binaryFile));
+                users = snapshot.readAll();
+                snapshotUnreadable = false;
+                if (verbose) {
+                    System.out.println("Snapshot loading complete: " + snapshot.userCount() + " users, " + snapshot.transactionCount() + " transactions.");
+                }
+            } catch (Exception e) {
+                if (!snapshotUnreadable || verbose) {
+                    System.err.println("Error loading binary snapshot " + binaryFile + ": " + e.getMessage()
+                            + ". Its users are missing; snapshot writes and compaction are disabled until it is restored.");
+                }
+                snapshotUnreadable = true;
+                users = new HashMap<>();
+            }
+            replayJournals(users, includeLiveJournal, verbose);
+            return users;
+        }
+        snapshotUnreadable = false;
+
         File uFile = new File(usersFile);
         if (!uFile.exists()) {
+            replayJournals(users, includeLiveJournal, verbose);
             return users;
         }
 
         int lineNumber = 0;
         int successfullyLoaded = 0;
         int skippedRecords = 0;
+        int supersededRecords = 0;
 
         // Load Users
         try (BufferedReader br = new BufferedReader(new FileReader(uFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
+            // Every row is written with its line break, so a last row without one is a torn append
+            boolean tornTail = !endsWithNewline(uFile);
+            String next = br.readLine();
+            while (next != null) {
+                String line = next;
+                next = br.readLine();
                 lineNumber++;
                 if (line.trim().isEmpty()) {
                     continue;
@@ -50,145 +142,21 @@ public class DataStore {
 
                 // Wrap each record in try-catch to skip corrupted records
                 try {
-                    String[] parts = line.split(",");
-                    // Schema: username,encrypted_password,firstName,lastName,cash,savings,investment,lastLogin,hasFraudWarning,isFrozen,iban
-
-                    // Validate minimum required fields
-                    if (parts.length < 7) {
-                        System.err.println("Error at line " + lineNumber + ": Insufficient fields (expected at least 7, got " + parts.length + "). Skipping record.");
-                        skippedRecords++;
-                        continue;
-                    }
-
-                    // Validate required fields are not empty
-                    String username = parts[0].trim();
-                    String encPass = parts[1].trim();
-                    String firstName = parts[2].trim();
-                    String lastName = parts[3].trim();
-
-                    if (username.isEmpty()) {
-                        System.err.println("Error at line " + lineNumber + ": Username is empty. Skipping record.");
-                        skippedRecords++;
-                        continue;
-                    }
-
-                    if (encPass.isEmpty()) {
-                        System.err.println("Error at line " + lineNumber + ": Encrypted password is empty for user '" + username + "'. Skipping record.");
-                        skippedRecords++;
-                        continue;
-                    }
-
-                    if (firstName.isEmpty()) {
-                        System.err.println("Error at line " + lineNumber + ": First name is empty for user '" + username + "'. Skipping record.");
-                        skippedRecords++;
-                        continue;
-                    }
-
-                    // Parse and validate BigDecimal fields
-                    BigDecimal cash;
-                    BigDecimal savings;
-                    BigDecimal investment;
-
-                    try {
-                        cash = new BigDecimal(parts[4].trim());
-                        if (cash.compareTo(BigDecimal.ZERO) < 0) {
-                            System.err.println("Error at line " + lineNumber + ": Cash amount is negative for user '" + username + "'. Skipping record.");
-                            skippedRecords++;
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error at line " + lineNumber + ": Invalid cash amount '" + parts[4] + "' for user '" + username + "'. Skipping record.");
+                    User u = parseUserRecord(line.split(","), "line " + lineNumber);
+                    if (u == null) {
                         skippedRecords++;
                         continue;
                     }
 
-                    try {
-                        savings = new BigDecimal(parts[5].trim());
-                        if (savings.compareTo(BigDecimal.ZERO) < 0) {
-                            System.err.println("Error at line " + lineNumber + ": Savings amount is negative for user '" + username + "'. Skipping record.");
-                            skippedRecords++;
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error at line " + lineNumber + ": Invalid savings amount '" + parts[5] + "' for user '" + username + "'. Skipping record.");
+                    String key = u.getUsername().toLowerCase();
+                    if (next == null && tornTail && users.containsKey(key)) {
+                        System.err.println("Warning at line " + lineNumber + ": Incomplete update for user '" + u.getUsername() + "'. Keeping the previous record.");
                         skippedRecords++;
                         continue;
                     }
-
-                    try {
-                        investment = new BigDecimal(parts[6].trim());
-                        if (investment.compareTo(BigDecimal.ZERO) < 0) {
-                            System.err.println("Error at line " + lineNumber + ": Investment amount is negative for user '" + username + "'. Skipping record.");
-                            skippedRecords++;
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error at line " + lineNumber + ": Invalid investment amount '" + parts[6] + "' for user '" + username + "'. Skipping record.");
-                        skippedRecords++;
-                        continue;
+                    if (users.put(key, u) != null) {
+                        supersededRecords++;  // Appended by saveChanges; this later row is newer
                     }
-
-                    // Attempt to decrypt password
-                    String decryptedPassword;
-                    try {
-                        decryptedPassword = SecurityUtils.decrypt(encPass);
-                        if (decryptedPassword == null || decryptedPassword.isEmpty()) {
-                            System.err.println("Error at line " + lineNumber + ": Decrypted password is empty for user '" + username + "'. Skipping record.");
-                            skippedRecords++;
-                            continue;
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error at line " + lineNumber + ": Failed to decrypt password for user '" + username + "': " + e.getMessage() + ". Skipping record.");
-                        skippedRecords++;
-                        continue;
-                    }
-
-                    // Create user
-                    User u = new User(firstName, lastName, username, decryptedPassword);
-
-                    // Parse optional lastLogin field
-                    if (parts.length >= 8 && !parts[7].trim().equals("null") && !parts[7].trim().isEmpty()) {
-                        try {
-                            u.setLastLogin(LocalDateTime.parse(parts[7].trim(), DATE_FMT));
-                        } catch (Exception e) {
-                            System.err.println("Warning at line " + lineNumber + ": Invalid date format '" + parts[7] + "' for user '" + username + "'. Using null for lastLogin.");
-                        }
-                    }
-
-                    // Parse optional hasFraudWarning field
-                    if (parts.length >= 9 && !parts[8].trim().isEmpty()) {
-                        try {
-                            u.setFraudWarning(Boolean.parseBoolean(parts[8].trim()));
-                        } catch (Exception e) {
-                            System.err.println("Warning at line " + lineNumber + ": Invalid boolean '" + parts[8] + "' for hasFraudWarning. Defaulting to false.");
-                            u.setFraudWarning(false);
-                        }
-                    }
-
-                    // Parse optional isFrozen field
-                    if (parts.length >= 10 && !parts[9].trim().isEmpty()) {
-                        try {
-                            u.setFrozen(Boolean.parseBoolean(parts[9].trim()));
-                        } catch (Exception e) {
-                            System.err.println("Warning at line " + lineNumber + ": Invalid boolean '" + parts[9] + "' for isFrozen. Defaulting to false.");
-                            u.setFrozen(false);
-                        }
-                    }
-
-                    // Parse optional IBAN field
-                    if (parts.length >= 11 && !parts[10].trim().isEmpty()) {
-                        u.setIban(parts[10].trim());
-                    } else {
-                        u.setIban(util.IbanGenerator.generateIban());
-                    }
-
-                    // Set account balances
-                    u.subtractCash(u.getCash());
-                    u.addCash(cash);
-                    u.getSavingsAccount().deposit(savings);
-                    u.getInvestmentAccount().deposit(investment);
-
-                    users.put(username.toLowerCase(), u);
                     successfullyLoaded++;
 
                 } catch (Exception e) {
@@ -196,227 +164,882 @@ public class DataStore {
                     skippedRecords++;
                 }
             }
+            appendedUserRows = supersededRecords;
         } catch (IOException e) {
             System.err.println("Error loading users file: " + e.getMessage());
         }
 
         // Report loading summary
-        if (successfullyLoaded > 0 || skippedRecords > 0) {
+        if (verbose && (successfullyLoaded > 0 || skippedRecords > 0)) {
             System.out.println("User loading complete: " + successfullyLoaded + " loaded, " + skippedRecords + " skipped.");
         }
 
 
         // Load Transactions
         File tFile = new File(transactionsFile);
-        if (tFile.exists()) {
-            int transactionLineNumber = 0;
-            int transactionsLoaded = 0;
-            int transactionsSkipped = 0;
-            
-            try (BufferedReader br = new BufferedReader(new FileReader(tFile))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    transactionLineNumber++;
-                    if (line.trim().isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Wrap each transaction in try-catch to skip corrupted records
-                    try {
-                        String[] parts = line.split(",");
-                        // Schema: id,timestamp,amount,description,sender,receiver,senderBal,receiverBal
-                        
-                        // Validate minimum required fields
-                        if (parts.length < 8) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Insufficient fields (expected 8, got " + parts.length + "). Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        String id = parts[0].trim();
-                        if (id.isEmpty()) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Transaction ID is empty. Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        // Parse timestamp
-                        LocalDateTime timestamp;
-                        try {
-                            timestamp = LocalDateTime.parse(parts[1].trim(), DATE_FMT);
-                        } catch (Exception e) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Invalid timestamp format '" + parts[1] + "'. Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        // Parse amount
-                        BigDecimal amount;
-                        try {
-                            amount = new BigDecimal(parts[2].trim());
-                            if (amount.compareTo(BigDecimal.ZERO) < 0) {
-                                System.err.println("Error at transaction line " + transactionLineNumber + ": Transaction amount is negative. Skipping transaction.");
-                                transactionsSkipped++;
-                                continue;
-                            }
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Invalid amount '" + parts[2] + "'. Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        String senderName = parts[4].trim();
-                        String receiverName = parts[5].trim();
-                        
-                        // Parse sender balance
-                        BigDecimal senderBal;
-                        try {
-                            senderBal = new BigDecimal(parts[6].trim());
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Invalid sender balance '" + parts[6] + "'. Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        // Parse receiver balance
-                        BigDecimal receiverBal;
-                        try {
-                            receiverBal = new BigDecimal(parts[7].trim());
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error at transaction line " + transactionLineNumber + ": Invalid receiver balance '" + parts[7] + "'. Skipping transaction.");
-                            transactionsSkipped++;
-                            continue;
-                        }
-                        
-                        boolean transactionAdded = false;
-                        
-                        // Reconstruct Sender Transaction
-                        if (!senderName.equals("null") && !senderName.isEmpty()) {
-                            User sender = users.get(senderName.toLowerCase());
-                            if (sender != null) {
-                                Transaction tSender = new Transaction(id, timestamp, Transaction.Type.TRANSFER, amount, "Sent to " + (receiverName.equals("null") ? "External" : receiverName), senderBal);
-                                sender.addTransaction(tSender);
-                                transactionAdded = true;
-                            } else {
-                                System.err.println("Warning at transaction line " + transactionLineNumber + ": Sender user '" + senderName + "' not found (orphaned transaction). Skipping sender side.");
-                            }
-                        }
-                        
-                        // Reconstruct Receiver Transaction
-                        if (!receiverName.equals("null") && !receiverName.isEmpty()) {
-                            User receiver = users.get(receiverName.toLowerCase());
-                            if (receiver != null) {
-                                Transaction tReceiver = new Transaction(id, timestamp, Transaction.Type.DEPOSIT, amount, "Received from " + (senderName.equals("null") ? "External" : senderName), receiverBal);
-                                receiver.addTransaction(tReceiver);
-                                transactionAdded = true;
-                            } else {
-                                System.err.println("Warning at transaction line " + transactionLineNumber + ": Receiver user '" + receiverName + "' not found (orphaned transaction). Skipping receiver side.");
-                            }
-                        }
-                        
-                        if (transactionAdded) {
-                            transactionsLoaded++;
-                        } else {
-                            transactionsSkipped++;
-                        }
-                        
-                    } catch (Exception e) {
-                        System.err.println("Error at transaction line " + transactionLineNumber + ": Unexpected error while parsing transaction: " + e.getMessage() + ". Skipping transaction.");
-                        transactionsSkipped++;
-                    }
+        if (tFile.exists() && !attachStoredHistory(users, tFile, verbose)) {
+            TransactionLoader loader = new TransactionLoader(users);
+            try {
+                long[] source = historySource(tFile);
+                // Rows are parsed in parallel; collecting them per user stays sequential and in file order
+                ParallelLineReader.parseLines(tFile, DataStore::parseTransactionRow, loader);
+                if (!usesHistoryStore() || !storeHistory(loader.historiesInTimeOrder(), source)
+                        || !attachStoredHistory(users, tFile, false)) {
+                    loader.attachInTimeOrder();
                 }
             } catch (Exception e) {
                 System.err.println("Error loading transactions file: " + e.getMessage());
             }
-            
+
             // Report transaction loading summary
-            if (transactionsLoaded > 0 || transactionsSkipped > 0) {
-                System.out.println("Transaction loading complete: " + transactionsLoaded + " loaded, " + transactionsSkipped + " skipped.");
+            if (verbose && (loader.loaded > 0 || loader.skipped > 0)) {
+                System.out.println("Transaction loading complete: " + loader.loaded + " loaded, " + loader.skipped + " skipped.");
             }
         }
 
+        replayJournals(users, includeLiveJournal, verbose);
         return users;
     }
 
-    public void saveData(Map<String, User> users) {
+    // Collects parsed transactions.csv rows per user as they stream in, then attaches each
+    // user's history in timestamp order. Files written before snapshots were saved in time
+    // order hold rows in hash order, and history paging relies on a time-ordered list.
+    private static final class TransactionLoader implements java.util.function.Consumer<TransactionRow> {
+        private final Map<String, User> users;
+        private final Map<User, List<Transaction>> histories = new IdentityHashMap<>();
+        int lineNumber;
+        int loaded;
+        int skipped;
+
+        TransactionLoader(Map<String, User> users) {
+            this.users = users;
+        }
+
+        @Override
+        public void accept(TransactionRow row) {
+            int transactionLineNumber = ++lineNumber;
+            if (row == null) {
+                return;
+            }
+            if (row.error != null) {
+                System.err.println("Error at transaction line " + transactionLineNumber + ": " + row.error + ". Skipping transaction.");
+                skipped++;
+                return;
+            }
+
+            boolean transactionAdded = false;
+
+            // Reconstruct Sender Transaction
+            if (row.senderSide != null) {
+                User sender = users.get(row.senderName.toLowerCase());
+                if (sender != null) {
+                    histories.computeIfAbsent(sender, k -> new ArrayList<>()).add(row.senderSide);
+                    transactionAdded = true;
+                } else {
+                    System.err.println("Warning at transaction line " + transactionLineNumber + ": Sender user '" + row.senderName + "' not found (orphaned transaction). Skipping sender side.");
+                }
+            }
+
+            // Reconstruct Receiver Transaction
+            if (row.receiverSide != null) {
+                User receiver = users.get(row.receiverName.toLowerCase());
+                if (receiver != null) {
+                    histories.computeIfAbsent(receiver, k -> new ArrayList<>()).add(row.receiverSide);
+                    transactionAdded = true;
+                } else {
+                    System.err.println("Warning at transaction line " + transactionLineNumber + ": Receiver user '" + row.receiverName + "' not found (orphaned transaction). Skipping receiver side.");
+                }
+            }
+
+            if (transactionAdded) {
+                loaded++;
+            } else {
+                skipped++;
+            }
+        }
+
+        // Stable sort, so rows with equal timestamps keep their file order
+        Map<User, List<Transaction>> historiesInTimeOrder() {
+            for (List<Transaction> history : histories.values()) {
+                history.sort(Comparator.comparing(Transaction::getTimestamp));
+            }
+            return histories;
+        }
+
+        void attachInTimeOrder() {
+            for (Map.Entry<User, List<Transaction>> history : historiesInTimeOrder().entrySet()) {
+                history.getValue().forEach(history.getKey()::addTransaction);
+            }
+            histories.clear();
+        }
+    }
+
+    // One parsed transactions.csv row: either an error or both sides ready to attach
+    private static final class TransactionRow {
+        String error;
+        String senderName;
+        String receiverName;
+        Transaction senderSide;
+        Transaction receiverSide;
+
+        static TransactionRow failed(String error) {
+            TransactionRow row = new TransactionRow();
+            row.error = error;
+            return row;
+        }
+    }
+
+    // Parses one transactions.csv row without touching shared state, so chunks can run in parallel;
+    // returns null for blank lines
+    private static TransactionRow parseTransactionRow(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = line.split(",");
+            // Schema: id,timestamp,amount,description,sender,receiver,senderBal,receiverBal
+
+            // Validate minimum required fields
+            if (parts.length < 8) {
+                return TransactionRow.failed("Insufficient fields (expected 8, got " + parts.length + ")");
+            }
+            // The description is free text (batch messages may hold commas), so the fields after
+            // it are counted from the end of the row
+            int tail = parts.length - 4;
+
+            String id = parts[0].trim();
+            if (id.isEmpty()) {
+                return TransactionRow.failed("Transaction ID is empty");
+            }
+
+            LocalDateTime timestamp;
+            try {
+                timestamp = TimestampParser.parse(parts[1].trim());
+            } catch (Exception e) {
+                return TransactionRow.failed("Invalid timestamp format '" + parts[1] + "'");
+            }
+
+            BigDecimal amount;
+            try {
+                amount = new BigDecimal(parts[2].trim());
+            } catch (NumberFormatException e) {
+                return TransactionRow.failed("Invalid amount '" + parts[2] + "'");
+            }
+            if (amount.compareTo(BigDecimal.ZERO) < 0) {
+                return TransactionRow.failed("Transaction amount is negative");
+            }
+
+            BigDecimal senderBal;
+            try {
+                senderBal = new BigDecimal(parts[tail + 2].trim());
+            } catch (NumberFormatException e) {
+                return TransactionRow.failed("Invalid sender balance '" + parts[tail + 2] + "'");
+            }
+
+            BigDecimal receiverBal;
+            try {
+                receiverBal = new BigDecimal(parts[tail + 3].trim());
+            } catch (NumberFormatException e) {
+                return TransactionRow.failed("Invalid receiver balance '" + parts[tail + 3] + "'");
+            }
+
+            TransactionRow row = new TransactionRow();
+            row.senderName = parts[tail].trim();
+            row.receiverName = parts[tail + 1].trim();
+            if (!row.senderName.equals("null") && !row.senderName.isEmpty()) {
+                row.senderSide = new Transaction(id, timestamp, Transaction.Type.TRANSFER, amount, "Sent to " + (row.receiverName.equals("null") ? "External" : row.receiverName), senderBal);
+            }
+            if (!row.receiverName.equals("null") && !row.receiverName.isEmpty()) {
+                row.receiverSide = new Transaction(id, timestamp, Transaction.Type.DEPOSIT, amount, "Received from " + (row.senderName.equals("null") ? "External" : row.senderName), receiverBal);
+            }
+            return row;
+        } catch (Exception e) {
+            return TransactionRow.failed("Unexpected error while parsing transaction: " + e.getMessage());
+        }
+    }
+
+    // Parses one users.csv row; returns null (after logging why) when the record is unusable
+    private User parseUserRecord(String[] parts, String location) {
+        // Schema: username,password_hash_or_encrypted_password,firstName,lastName,cash,savings,investment,lastLogin,hasFraudWarning,isFrozen,iban,recentRecipients
+
+        // Validate minimum required fields
+        if (parts.length < 7) {
+            System.err.println("Error at " + location + ": Insufficient fields (expected at least 7, got " + parts.length + "). Skipping record.");
+            return null;
+        }
+
+        // Validate required fields are not empty
+        String username = parts[0].trim();
+        String encPass = parts[1].trim();
+        String firstName = parts[2].trim();
+        String lastName = parts[3].trim();
+
+        if (username.isEmpty()) {
+            System.err.println("Error at " + location + ": Username is empty. Skipping record.");
+            return null;
+        }
+
+        if (encPass.isEmpty()) {
+            System.err.println("Error at " + location + ": Encrypted password is empty for user '" + username + "'. Skipping record.");
+            return null;
+        }
+
+        if (firstName.isEmpty()) {
+            System.err.println("Error at " + location + ": First name is empty for user '" + username + "'. Skipping record.");
+            return null;
+        }
+
+        // Parse and validate BigDecimal fields
+        BigDecimal cash;
+        BigDecimal savings;
+        BigDecimal investment;
+
+        try {
+            cash = new BigDecimal(parts[4].trim());
+            if (cash.compareTo(BigDecimal.ZERO) < 0) {
+                System.err.println("Error at " + location + ": Cash amount is negative for user '" + username + "'. Skipping record.");
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error at " + location + ": Invalid cash amount '" + parts[4] + "' for user '" + username + "'. Skipping record.");
+            return null;
+        }
+
+        try {
+            savings = new BigDecimal(parts[5].trim());
+            if (savings.compareTo(BigDecimal.ZERO) < 0) {
+                System.err.println("Error at " + location + ": Savings amount is negative for user '" + username + "'. Skipping record.");
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error at " + location + ": Invalid savings amount '" + parts[5] + "' for user '" + username + "'. Skipping record.");
+            return null;
+        }
+
+        try {
+            investment = new BigDecimal(parts[6].trim());
+            if (investment.compareTo(BigDecimal.ZERO) < 0) {
+                System.err.println("Error at " + location + ": Investment amount is negative for user '" + username + "'. Skipping record.");
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error at " + location + ": Invalid investment amount '" + parts[6] + "' for user '" + username + "'. Skipping record.");
+            return null;
+        }
+
+        // Hashed passwords are kept as they are; legacy ones are decrypted and hashed at the user's next login
+        User u;
+        if (PasswordHasher.isHash(encPass)) {
+            u = new User(firstName, lastName, username, null);
+            u.setPasswordHash(encPass);
+        } else {
+            String decryptedPassword;
+            try {
+                decryptedPassword = SecurityUtils.decrypt(encPass);
+                if (decryptedPassword == null || decryptedPassword.isEmpty()) {
+                    System.err.println("Error at " + location + ": Decrypted password is empty for user '" + username + "'. Skipping record.");
+                    return null;
+                }
+            } catch (Exception e) {
+                System.err.println("Error at " + location + ": Failed to decrypt password for user '" + username + "': " + e.getMessage() + ". Skipping record.");
+                return null;
+            }
+            u = new User(firstName, lastName, username, decryptedPassword);
+        }
+
+        // Parse optional lastLogin field
+        if (parts.length >= 8 && !parts[7].trim().equals("null") && !parts[7].trim().isEmpty()) {
+            try {
+                u.setLastLogin(LocalDateTime.parse(parts[7].trim(), DATE_FMT));
+            } catch (Exception e) {
+                System.err.println("Warning at " + location + ": Invalid date format '" + parts[7] + "' for user '" + username + "'. Using null for lastLogin.");
+            }
+        }
+
+        // Parse optional hasFraudWarning field
+        if (parts.length >= 9 && !parts[8].trim().isEmpty()) {
+            try {
+                u.setFraudWarning(Boolean.parseBoolean(parts[8].trim()));
+            } catch (Exception e) {
+                System.err.println("Warning at " + location + ": Invalid boolean '" + parts[8] + "' for hasFraudWarning. Defaulting to false.");
+                u.setFraudWarning(false);
+            }
+        }
+
+        // Parse optional isFrozen field
+        if (parts.length >= 10 && !parts[9].trim().isEmpty()) {
+            try {
+                u.setFrozen(Boolean.parseBoolean(parts[9].trim()));
+            } catch (Exception e) {
+                System.err.println("Warning at " + location + ": Invalid boolean '" + parts[9] + "' for isFrozen. Defaulting to false.");
+                u.setFrozen(false);
+            }
+        }
+
+        // Parse optional IBAN field
+        if (parts.length >= 11 && !parts[10].trim().isEmpty()) {
+            u.setIban(parts[10].trim());
+        } else {
+            u.setIban(util.IbanGenerator.generateIban());
+        }
+
+        // Parse optional recent recipients field (';'-separated usernames)
+        if (parts.length >= 12) {
+            u.getRecentRecipients().load(parts[11].trim());
+        }
+
+        // Set account balances
+        u.subtractCash(u.getCash());
+        u.addCash(cash);
+        u.getSavingsAccount().deposit(savings);
+        u.getInvestmentAccount().deposit(investment);
+
+        return u;
+    }
+
+    // Returns false when the snapshot could not be written; the previous one is then kept
+    public boolean saveData(Map<String, User> users) {
+        synchronized (snapshotLock) {
+            userRowCache.clear();
+            if (!writeSnapshot(users)) {
+                return false;
+            }
+            // The snapshot now contains everything the journal recorded
+            if (journal != null) {
+                sealedJournal.clear();
+                journal.clear();
+            }
+            refreshHistoryStore(users);
+            return true;
+        }
+    }
+
+    // Persists only the changed users and their new transactions. Journaled stores append
+    // one journal entry; CSV stores append the changed users.csv rows and the new
+    // transactions.csv rows. users.csv is rewritten once the appended rows outnumber the
+    // users, so it stays under twice its compact size and each save is amortized O(changes).
+    public void saveChanges(Map<String, User> users, Map<User, List<Transaction>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (journal != null) {
+            List<String> records = new ArrayList<>();
+            for (Map.Entry<User, List<Transaction>> change : changes.entrySet()) {
+                addJournalRecords(records, change.getKey(), change.getValue());
+            }
+            appendJournalRecords(records);
+            return;
+        }
+
+        synchronized (snapshotLock) {
+            // The binary snapshot has no append path, so unjournaled binary stores rewrite it
+            if (format == SnapshotFormat.BINARY) {
+                writeSnapshot(users);
+                return;
+            }
+            ensureDatabaseDirectory();
+            StringBuilder rows = new StringBuilder();
+            for (User u : changes.keySet()) {
+                String row = formatUserRecord(u);
+                userRowCache.put(u, row);
+                rows.append(row).append(System.lineSeparator());
+            }
+            if (!appendUserRows(rows.toString(), changes.size(), users.size()) && !rewriteUsersFile(users)) {
+                return;
+            }
+
+            Map<String, List<TransactionContext>> grouped = new LinkedHashMap<>();
+            for (Map.Entry<User, List<Transaction>> change : changes.entrySet()) {
+                for (Transaction t : change.getValue()) {
+                    grouped.computeIfAbsent(t.getId(), k -> new ArrayList<>()).add(new TransactionContext(change.getKey().getUsername(), t));
+                }
+            }
+            if (grouped.isEmpty()) {
+                return;
+            }
+            try (PrintWriter pw = new PrintWriter(new FileWriter(transactionsFile, true))) {
+                writeTransactionRows(pw, grouped);
+                if (pw.checkError()) {
+                    throw new IOException("append to " + transactionsFile + " failed");
+                }
+            } catch (IOException e) {
+                System.err.println("Error saving transactions: " + e.getMessage());
+            }
+        }
+    }
+
+    // Appends the rows in one write; false when users.csv is due a rewrite instead
+    private boolean appendUserRows(String rows, int rowCount, int userCount) {
+        File uFile = new File(usersFile);
+        try {
+            // A torn last row must not have new rows glued onto it
+            if (!uFile.exists() || appendedUserRows + rowCount > userCount || !endsWithNewline(uFile)) {
+                return false;
+            }
+            try (FileOutputStream out = new FileOutputStream(uFile, true)) {
+                out.write(rows.getBytes());
+            }
+            appendedUserRows += rowCount;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error appending users: " + e.getMessage() + ". Rewriting users file.");
+            return false;
+        }
+    }
+
+    // Writes one row per user, from the row cache where possible
+    private boolean rewriteUsersFile(Map<String, User> users) {
+        File usersTemp = new File(usersFile + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(usersTemp); PrintWriter pw = new PrintWriter(new OutputStreamWriter(out))) {
+            for (User u : users.values()) {
+                pw.println(userRowCache.computeIfAbsent(u, this::formatUserRecord));
+            }
+            if (pw.checkError()) {
+                throw new IOException("write to " + usersTemp.getPath() + " failed");
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+            usersTemp.delete();
+            return false;
+        }
+        try {
+            moveIntoPlace(usersTemp, usersFile);
+            appendedUserRows = 0;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error replacing users file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    // Folds the journal into a fresh snapshot. Only files are read, never the live
+    // user objects, so this can run on a background thread while users keep working.
+    public void compact() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            // A sealed segment left by an interrupted compaction is folded first
+            if (!sealedJournal.exists()) {
+                if (!journal.exists()) {
+                    return;
+                }
+                try {
+                    journal.rotateTo(sealedJournal);
+                } catch (IOException e) {
+                    System.err.println("Error sealing journal: " + e.getMessage());
+                    return;
+                }
+            }
+
+            Map<String, User> folded = load(false, false);
+            if (writeSnapshot(folded)) {
+                sealedJournal.clear();
+                refreshHistoryStore(folded);
+            }
+        }
+    }
+
+    private boolean usesHistoryStore() {
+        return journal != null && format == SnapshotFormat.CSV;
+    }
+
+    // Size and modification time of transactions.csv, which identify the file a history store was built from
+    private static long[] historySource(File tFile) throws IOException {
+        return new long[] {Files.size(tFile.toPath()), Files.getLastModifiedTime(tFile.toPath()).toMillis()};
+    }
+
+    // Hands every user their rows from the history store when it was built from this
+    // transactions.csv. False, with nothing attached, when it is missing, stale or damaged.
+    private boolean attachStoredHistory(Map<String, User> users, File tFile, boolean verbose) {
+        if (!usesHistoryStore() || !new File(historyFile).exists()) {
+            return false;
+        }
+        try {
+            long[] source = historySource(tFile);
+            ColumnarTransactionStore store = ColumnarTransactionStore.open(new File(historyFile));
+            if (!store.isBuiltFrom(source[0], source[1])) {
+                return false;
+            }
+            for (int i = 0; i < store.userCount(); i++) {
+                User u = users.get(store.username(i).toLowerCase());
+                if (u == null) {
+                    System.err.println("Warning: History store holds rows of unknown user '" + store.username(i) + "'. Skipping them.");
+                    continue;
+                }
+                u.attachArchivedHistory(store.history(i));
+            }
+            if (verbose) {
+                System.out.println("Transaction loading complete: " + store.rowCount() + " rows mapped from " + historyFile + ".");
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: History store " + historyFile + " is unusable: " + e.getMessage() + ". Rebuilding it.");
+            return false;
+        }
+    }
+
+    // Writes the history store for the rows of transactions.csv; false when it could not be written
+    private boolean storeHistory(Map<User, List<Transaction>> histories, long[] source) {
+        File temp = new File(historyFile + ".tmp");
+        try {
+            ColumnarTransactionStore.write(histories, source[0], source[1], temp);
+            moveIntoPlace(temp, historyFile);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write history store: " + e.getMessage() + ". History stays in memory.");
+            temp.delete();
+            return false;
+        }
+    }
+
+    // Rebuilds the history store from the transactions.csv just written, exactly as the next load
+    // would read it back. Users keep the rows they have, so only the next load uses the new store.
+    private void refreshHistoryStore(Map<String, User> users) {
+        if (!usesHistoryStore()) {
+            return;
+        }
+        File tFile = new File(transactionsFile);
+        try {
+            long[] source = historySource(tFile);
+            TransactionLoader loader = new TransactionLoader(users);
+            ParallelLineReader.parseLines(tFile, DataStore::parseTransactionRow, loader);
+            storeHistory(loader.historiesInTimeOrder(), source);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not rebuild history store: " + e.getMessage());
+        }
+    }
+
+    public long getJournalSize() {
+        return journal == null ? 0 : journal.size();
+    }
+
+    // Writes the snapshot files to temp files, forces them to disk and swaps them in, so a
+    // crash mid-save leaves the previous snapshot intact instead of a truncated one. It returns
+    // only once the renames are durable too, since callers then drop the journal.
+    private boolean writeSnapshot(Map<String, User> users) {
+        if (snapshotUnreadable) {
+            System.err.println("Error saving snapshot: " + binaryFile + " could not be read, so it is kept as it is.");
+            return false;
+        }
         ensureDatabaseDirectory();
+        if (format == SnapshotFormat.BINARY) {
+            return writeBinarySnapshot(users);
+        }
 
         // Save Users
-        try (PrintWriter pw = new PrintWriter(new FileWriter(usersFile))) {
+        File usersTemp = new File(usersFile + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(usersTemp); PrintWriter pw = new PrintWriter(new OutputStreamWriter(out))) {
             for (User u : users.values()) {
-                // Formatting: username,encrypted_password,firstName,lastName,cash,savings,investment,lastLogin,hasFraudWarning,isFrozen,iban
-                pw.printf("%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s%n",
-                        u.getUsername(),
-                        SecurityUtils.encrypt(u.getPassword()),
-                        u.getFirstName(),
-                        u.getLastName(),
-                        u.getCash(),
-                        u.getSavingsAccount().getBalance(),
-                        u.getInvestmentAccount().getBalance(),
-                        u.getLastLogin() != null ? u.getLastLogin().format(DATE_FMT) : "null",
-                        u.hasFraudWarning(),
-                        u.isFrozen(),
-                        u.getIban()
-                );
+                pw.println(formatUserRecord(u));
+            }
+            if (pw.checkError()) {
+                throw new IOException("write to " + usersTemp.getPath() + " failed");
             }
+            out.getFD().sync();
         } catch (IOException e) {
             System.err.println("Error saving users: " + e.getMessage());
+            usersTemp.delete();
+            return false;
         }
 
         // Save Transactions
-        // Group by ID to deduplicate shared transactions for the single CSV
-        Map<String, List<TransactionContext>> grouped = new HashMap<>();
-
+        // Group by ID to deduplicate shared transactions for the single CSV, writing rows in
+        // timestamp order so every user's history reads back in the order it happened
+        List<TransactionContext> contexts = new ArrayList<>();
         for (User u : users.values()) {
-            for (Transaction t : u.getTransactionHistory()) {
-                grouped.computeIfAbsent(t.getId(), k -> new ArrayList<>()).add(new TransactionContext(u.getUsername(), t));
-            }
-        }
-
-        try (PrintWriter pw = new PrintWriter(new FileWriter(transactionsFile))) {
-            for (Map.Entry<String, List<TransactionContext>> entry : grouped.entrySet()) {
-                String id = entry.getKey();
-                List<TransactionContext> ctxList = entry.getValue();
-
-                // Defaults
-                String sender = "null";
-                String receiver = "null";
-                BigDecimal senderBal = BigDecimal.ZERO;
-                BigDecimal receiverBal = BigDecimal.ZERO;
-                BigDecimal amount = BigDecimal.ZERO;
-                LocalDateTime ts = LocalDateTime.now();
-                String desc = "";
-
-                for (TransactionContext ctx : ctxList) {
-                    Transaction t = ctx.t;
-                    ts = t.getTimestamp();
-                    amount = t.getAmount();
-                    desc = t.getDescription();
-
-                    if (t.getType() == Transaction.Type.TRANSFER || t.getType() == Transaction.Type.WITHDRAW) {
-                        sender = ctx.username;
-                        senderBal = t.getBalanceAfter();
-                    } else if (t.getType() == Transaction.Type.DEPOSIT) {
-                        receiver = ctx.username;
-                        receiverBal = t.getBalanceAfter();
-                    }
-                }
+            for (Transaction t : u.getTransactions()) {
+                contexts.add(new TransactionContext(u.getUsername(), t));
+            }
+        }
+        contexts.sort(Comparator.comparing(ctx -> ctx.t.getTimestamp()));
+        Map<String, List<TransactionContext>> grouped = new LinkedHashMap<>();
+        for (TransactionContext ctx : contexts) {
+            grouped.computeIfAbsent(ctx.t.getId(), k -> new ArrayList<>()).add(ctx);
+        }
 
-                // id,timestamp,amount,desc,sender,receiver,senderBal,receiverBal
-                pw.printf("%s,%s,%s,%s,%s,%s,%s,%s%n",
-                        id,
-                        ts.format(DATE_FMT),
-                        amount,
-                        desc,
-                        sender,
-                        receiver,
-                        senderBal,
-                        receiverBal
-                );
+        File transactionsTemp = new File(transactionsFile + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(transactionsTemp); PrintWriter pw = new PrintWriter(new OutputStreamWriter(out))) {
+            writeTransactionRows(pw, grouped);
+            if (pw.checkError()) {
+                throw new IOException("write to " + transactionsTemp.getPath() + " failed");
             }
+            out.getFD().sync();
         } catch (IOException e) {
             System.err.println("Error saving transactions: " + e.getMessage());
+            usersTemp.delete();
+            transactionsTemp.delete();
+            return false;
+        }
+
+        try {
+            moveIntoPlace(usersTemp, usersFile);
+            appendedUserRows = 0;
+            moveIntoPlace(transactionsTemp, transactionsFile);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error replacing snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean writeBinarySnapshot(Map<String, User> users) {
+        File temp = new File(binaryFile + ".tmp");
+        try {
+            BinarySnapshot.write(users.values(), temp);
+            moveIntoPlace(temp, binaryFile);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving binary snapshot: " + e.getMessage());
+            temp.delete();
+            return false;
+        }
+    }
+
+    // One row per transaction id, merging the sender and receiver sides
+    private void writeTransactionRows(PrintWriter pw, Map<String, List<TransactionContext>> grouped) {
+        for (Map.Entry<String, List<TransactionContext>> entry : grouped.entrySet()) {
+            String id = entry.getKey();
+            List<TransactionContext> ctxList = entry.getValue();
+
+            // Defaults
+            String sender = "null";
+            String receiver = "null";
+            BigDecimal senderBal = BigDecimal.ZERO;
+            BigDecimal receiverBal = BigDecimal.ZERO;
+            BigDecimal amount = BigDecimal.ZERO;
+            LocalDateTime ts = LocalDateTime.now();
+            String desc = "";
+
+            for (TransactionContext ctx : ctxList) {
+                Transaction t = ctx.t;
+                ts = t.getTimestamp();
+                amount = t.getAmount();
+                desc = t.getDescription();
+
+                if (t.getType() == Transaction.Type.TRANSFER || t.getType() == Transaction.Type.WITHDRAW) {
+                    sender = ctx.username;
+                    senderBal = t.getBalanceAfter();
+                } else if (t.getType() == Transaction.Type.DEPOSIT) {
+                    receiver = ctx.username;
+                    receiverBal = t.getBalanceAfter();
+                }
+            }
+
+            // id,timestamp,amount,desc,sender,receiver,senderBal,receiverBal
+            pw.printf("%s,%s,%s,%s,%s,%s,%s,%s%n",
+                    id,
+                    ts.format(DATE_FMT),
+                    amount,
+                    desc,
+                    sender,
+                    receiver,
+                    senderBal,
+                    receiverBal
+            );
+        }
+    }
+
+    // The temp file must already be on disk; the directory is forced so the rename is too
+    private void moveIntoPlace(File temp, String target) throws IOException {
+        try {
+            Files.move(temp.toPath(), new File(target).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), new File(target).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory();
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(new File(dbDir).toPath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Some platforms (Windows) cannot open a directory; their renames are durable on return
+        }
+    }
+
+    // Formatting: username,password_hash_or_encrypted_password,firstName,lastName,cash,savings,investment,lastLogin,hasFraudWarning,isFrozen,iban,recentRecipients
+    private String formatUserRecord(User u) {
+        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s",
+                u.getUsername(),
+                u.getPasswordHash() != null ? u.getPasswordHash() : SecurityUtils.encrypt(u.getPassword()),
+                u.getFirstName(),
+                u.getLastName(),
+                u.getCash(),
+                u.getSavingsAccount().getBalance(),
+                u.getInvestmentAccount().getBalance(),
+                u.getLastLogin() != null ? u.getLastLogin().format(DATE_FMT) : "null",
+                u.hasFraudWarning(),
+                u.isFrozen(),
+                u.getIban(),
+                u.getRecentRecipients().serialize()
+        );
+    }
+
+    // Appends the user's new transactions followed by their current state as one journal entry.
+    // Journal schema:
+    //   TX,username,id,timestamp,type,amount,balanceAfter,description
+    //   USER,<users.csv row>
+    public void appendToJournal(User user, List<Transaction> newTransactions) {
+        if (journal == null) {
+            throw new IllegalStateException("DataStore is not journaled");
+        }
+        List<String> records = new ArrayList<>();
+        addJournalRecords(records, user, newTransactions);
+        appendJournalRecords(records);
+    }
+
+    private void addJournalRecords(List<String> records, User user, List<Transaction> newTransactions) {
+        for (Transaction t : newTransactions) {
+            records.add(String.join(",",
+                    JOURNAL_TX,
+                    user.getUsername(),
+                    t.getId(),
+                    t.getTimestamp().format(DATE_FMT),
+                    t.getType().name(),
+                    t.getAmount().toString(),
+                    t.getBalanceAfter().toString(),
+                    t.getDescription()));
+        }
+        records.add(JOURNAL_USER + "," + formatUserRecord(user));
+    }
+
+    private void appendJournalRecords(List<String> records) {
+        ensureDatabaseDirectory();
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    private void replayJournals(Map<String, User> users, boolean includeLiveJournal, boolean verbose) {
+        if (journal == null) {
+            return;
+        }
+        replayJournal(sealedJournal, users, verbose);
+        if (includeLiveJournal) {
+            replayJournal(journal, users, verbose);
+        }
+    }
+
+    // Re-applies journal entries written after the last snapshot
+    private void replayJournal(TransactionJournal source, Map<String, User> users, boolean verbose) {
+        if (!source.exists()) {
+            return;
+        }
+
+        List<String> records;
+        try {
+            records = source.readRecords();
+        } catch (IOException e) {
+            System.err.println("Error loading journal: " + e.getMessage());
+            return;
+        }
+
+        // Transaction ids already known per user, so replaying an entry twice is harmless
+        Map<String, Set<String>> knownIds = new HashMap<>();
+        int journalLineNumber = 0;
+        int applied = 0;
+        int skipped = 0;
+
+        for (String line : records) {
+            journalLineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (line.startsWith(JOURNAL_USER + ",")) {
+                    String location = "journal line " + journalLineNumber;
+                    User parsed = parseUserRecord(line.substring(JOURNAL_USER.length() + 1).split(","), location);
+                    if (parsed == null) {
+                        skipped++;
+                        continue;
+                    }
+                    User existing = users.get(parsed.getUsername().toLowerCase());
+                    if (existing == null) {
+                        users.put(parsed.getUsername().toLowerCase(), parsed);
+                    } else {
+                        copyUserState(parsed, existing);
+                    }
+                    applied++;
+                } else if (line.startsWith(JOURNAL_TX + ",")) {
+                    // Description is last so it may contain commas
+                    String[] parts = line.split(",", 8);
+                    if (parts.length < 8) {
+                        System.err.println("Error at journal line " + journalLineNumber + ": Insufficient fields (expected 8, got " + parts.length + "). Skipping entry.");
+                        skipped++;
+                        continue;
+                    }
+                    User owner = users.get(parts[1].trim().toLowerCase());
+                    if (owner == null) {
+                        System.err.println("Warning at journal line " + journalLineNumber + ": User '" + parts[1] + "' not found (orphaned transaction). Skipping entry.");
+                        skipped++;
+                        continue;
+                    }
+                    Set<String> ids = knownIds.computeIfAbsent(owner.getUsername().toLowerCase(), k -> {
+                        Set<String> existingIds = new HashSet<>();
+                        for (Transaction t : owner.getTransactions()) {
+                            existingIds.add(t.getId());
+                        }
+                        return existingIds;
+                    });
+                    String id = parts[2].trim();
+                    if (!ids.add(id)) {
+                        continue;
+                    }
+                    owner.addTransaction(new Transaction(
+                            id,
+                            TimestampParser.parse(parts[3].trim()),
+                            Transaction.Type.valueOf(parts[4].trim()),
+                            new BigDecimal(parts[5].trim()),
+                            parts[7],
+                            new BigDecimal(parts[6].trim())));
+                    applied++;
+                } else {
+                    System.err.println("Error at journal line " + journalLineNumber + ": Unknown entry type. Skipping entry.");
+                    skipped++;
+                }
+            } catch (Exception e) {
+                System.err.println("Error at journal line " + journalLineNumber + ": Unexpected error while replaying entry: " + e.getMessage() + ". Skipping entry.");
+                skipped++;
+            }
+        }
+
+        if (verbose && (applied > 0 || skipped > 0)) {
+            System.out.println("Journal replay complete: " + applied + " applied, " + skipped + " skipped.");
+        }
+    }
+
+    private void copyUserState(User from, User to) {
+        // A hash in a later record replaces the snapshot's legacy password or older hash; a legacy
+        // record never follows a hashed one, since nothing turns a hash back into a password
+        if (from.getPasswordHash() != null) {
+            to.setPasswordHash(from.getPasswordHash());
         }
+        to.subtractCash(to.getCash());
+        to.addCash(from.getCash());
+        to.getSavingsAccount().withdraw(to.getSavingsAccount().getBalance());
+        to.getSavingsAccount().deposit(from.getSavingsAccount().getBalance());
+        to.getInvestmentAccount().withdraw(to.getInvestmentAccount().getBalance());
+        to.getInvestmentAccount().deposit(from.getInvestmentAccount().getBalance());
+        to.setLastLogin(from.getLastLogin());
+        to.setFraudWarning(from.hasFraudWarning());
+        to.setFrozen(from.isFrozen());
+        to.setIban(from.getIban());
+        to.getRecentRecipients().load(from.getRecentRecipients().serialize());
     }
 
     // Helper class
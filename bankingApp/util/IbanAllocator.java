@@ -0,0 +1,65 @@
+package util;
+
+import java.util.BitSet;
+import java.util.Random;
+
+// Hands out IBANs that no other account holds. Issued account numbers are kept as one bit each,
+// so the whole 6-digit space takes 125 KB; reserving or checking a number is a single bit
+// operation. A new number starts from a random position and takes the next free bit, which is
+// found at once while the space is sparse.
+// Not thread-safe; UserManager guards its allocator.
+public class IbanAllocator {
+    private final BitSet issued = new BitSet(IbanGenerator.ACCOUNT_NUMBERS);
+    private final Random random;
+    private int count;
+
+    public IbanAllocator() {
+        this(new Random());
+    }
+
+    public IbanAllocator(Random random) {
+        this.random = random;
+    }
+
+    // Marks an existing IBAN as taken. Returns false if it already was; IBANs of other banks or
+    // formats cannot collide with allocated ones and are accepted without being recorded.
+    public boolean reserve(String iban) {
+        int accountNumber = accountNumberOf(iban);
+        if (accountNumber < 0) {
+            return true;
+        }
+        if (issued.get(accountNumber)) {
+            return false;
+        }
+        issued.set(accountNumber);
+        count++;
+        return true;
+    }
+
+    public boolean isIssued(String iban) {
+        int accountNumber = accountNumberOf(iban);
+        return accountNumber >= 0 && issued.get(accountNumber);
+    }
+
+    public String allocate() {
+        if (count >= IbanGenerator.ACCOUNT_NUMBERS) {
+            throw new IllegalStateException("All " + IbanGenerator.ACCOUNT_NUMBERS + " account numbers are issued");
+        }
+        int accountNumber = issued.nextClearBit(random.nextInt(IbanGenerator.ACCOUNT_NUMBERS));
+        if (accountNumber >= IbanGenerator.ACCOUNT_NUMBERS) {
+            accountNumber = issued.nextClearBit(0);  // Wrap around
+        }
+        issued.set(accountNumber);
+        count++;
+        return IbanGenerator.ibanFor(accountNumber);
+    }
+
+    // Lookups ignore case and surrounding spaces, so reservations do too
+    private static int accountNumberOf(String iban) {
+        return iban == null ? -1 : IbanGenerator.accountNumberOf(iban.trim().toUpperCase());
+    }
+
+    public int size() {
+        return count;
+    }
+}
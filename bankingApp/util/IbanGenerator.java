@@ -1,45 +1,100 @@
 package util;
 
-import java.math.BigInteger;
 import java.util.Random;
 
 public class IbanGenerator {
     private static final String COUNTRY_CODE = "EE"; // Estonia
     private static final String BANK_CODE = "77";    // Green Day Bank internal code
     private static final Random random = new Random();
+    public static final int ACCOUNT_NUMBERS = 1_000_000;  // 6-digit account part
+    private static final int IBAN_LENGTH = 12;
+    private static final int MAX_IBAN_LENGTH = 34;  // ISO 13616
 
     // Generates a random valid Estonian-style IBAN for the showcase
     // Format: EEkk 77xx xxxx (12 characters total)
     // 'kk' is checksum, '77' is bank code, 'xxxxxx' is account number
+    // Random numbers can repeat; accounts that need a unique IBAN get one from IbanAllocator.
     public static String generateIban() {
-        // 1. Generate 6 random digits for account part
-        StringBuilder accountPart = new StringBuilder();
-        for (int i = 0; i < 6; i++) {
-            accountPart.append(random.nextInt(10));
-        }
-
-        // 2. Build string for checksum calculation: BankCode + Account + CountryCode(Numbers) + "00"
-        // E = 14 (A=10, B=11 ... E=14)
-        // EE = 1414
-        String temp = BANK_CODE + accountPart.toString() + "141400";
-        
-        // 3. Calculate Checksum: 98 - (temp % 97)
-        BigInteger bigInt = new BigInteger(temp);
-        int remainder = bigInt.mod(BigInteger.valueOf(97)).intValue();
-        int checkDigits = 98 - remainder;
-        
-        // 4. Format check digits (pad with 0 if < 10)
-        String checkString = (checkDigits < 10 ? "0" : "") + checkDigits;
-
-        // 5. Assemble final IBAN
-        return COUNTRY_CODE + checkString + BANK_CODE + accountPart.toString();
+        return ibanFor(random.nextInt(ACCOUNT_NUMBERS));
     }
 
+    // The IBAN of one account number in 0..999999, e.g. for generating reproducible test data
+    public static String ibanFor(int accountNumber) {
+        if (accountNumber < 0 || accountNumber >= ACCOUNT_NUMBERS) {
+            throw new IllegalArgumentException("account number out of range: " + accountNumber);
+        }
+        // Checksum input is BankCode + Account + CountryCode(Numbers) + "00", with E = 14 so EE = 1414.
+        // 77xxxxxx141400 has 14 digits, so it fits a long and needs no BigInteger.
+        long numeric = (77L * ACCOUNT_NUMBERS + accountNumber) * 1_000_000L + 141400;
+        int checkDigits = 98 - (int) (numeric % 97);
+
+        char[] iban = new char[IBAN_LENGTH];
+        iban[0] = 'E';
+        iban[1] = 'E';
+        iban[2] = (char) ('0' + checkDigits / 10);
+        iban[3] = (char) ('0' + checkDigits % 10);
+        iban[4] = '7';
+        iban[5] = '7';
+        for (int i = IBAN_LENGTH - 1, rest = accountNumber; i >= 6; i--, rest /= 10) {
+            iban[i] = (char) ('0' + rest % 10);
+        }
+        return new String(iban);
+    }
+
+    // Account number of one of this bank's IBANs, or -1 for anything else
+    public static int accountNumberOf(String iban) {
+        if (!validateIban(iban) || !iban.startsWith(BANK_CODE, 4)) {
+            return -1;
+        }
+        int accountNumber = 0;
+        for (int i = 6; i < IBAN_LENGTH; i++) {
+            char c = iban.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            accountNumber = accountNumber * 10 + (c - '0');
+        }
+        return accountNumber;
+    }
+
+    // An IBAN in the showcase format: EE, 12 characters, and valid under ISO 13616
     public static boolean validateIban(String iban) {
-        if (iban == null || iban.length() != 12 || !iban.startsWith(COUNTRY_CODE)) {
+        if (iban == null || iban.length() != IBAN_LENGTH || !iban.startsWith(COUNTRY_CODE)) {
+            return false;
+        }
+        return isValidIso13616(iban);
+    }
+
+    // Electronic-format ISO 13616 check for any country: two capital letters, two check digits,
+    // an alphanumeric BBAN of at most 34 characters in total, and a remainder of 1 mod 97 once the
+    // first four characters are moved to the end and letters become 10..35. The remainder is
+    // carried digit by digit, so nothing is allocated.
+    public static boolean isValidIso13616(String iban) {
+        if (iban == null || iban.length() < 5 || iban.length() > MAX_IBAN_LENGTH) {
+            return false;
+        }
+        if (!isUpperLetter(iban.charAt(0)) || !isUpperLetter(iban.charAt(1)) || !isDigit(iban.charAt(2)) || !isDigit(iban.charAt(3))) {
             return false;
         }
-        // Basic length check for this showcase
-        return true;
+        int remainder = 0;
+        for (int i = 0; i < iban.length(); i++) {
+            char c = iban.charAt((i + 4) % iban.length());
+            if (isDigit(c)) {
+                remainder = (remainder * 10 + (c - '0')) % 97;
+            } else if (isUpperLetter(c)) {
+                remainder = (remainder * 100 + (c - 'A' + 10)) % 97;
+            } else {
+                return false;
+            }
+        }
+        return remainder == 1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpperLetter(char c) {
+        return c >= 'A' && c <= 'Z';
     }
 }
@@ -0,0 +1,121 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram in the style of HdrHistogram: values below 64 ns get a bucket each, and every
+// power of two above that is split into 32 linear buckets, so any recorded value is known to
+// within about 3%. Values are clamped at 2^40 ns (about 18 minutes), which keeps the bucket array
+// at 1152 counters. Recording is one atomic increment and two LongAdder adds, with no locks, so
+// sessions recording at once never wait on each other.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int LINEAR = 1 << SUB_BUCKET_BITS;  // Values below this are exact
+    private static final int HALF = LINEAR / 2;              // Buckets per power of two above that
+    private static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Times a block with try-with-resources: try (LatencyHistogram.Timing timing = histogram.start()) { ... }
+    // The variable is never read in the block, so methods timed that way suppress javac's "try" lint.
+    public Timing start() {
+        return new Timing(this, System.nanoTime());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    // The value at or below which the given percentage of recordings fall, reported as the top of
+    // its bucket; 0 when nothing was recorded. Recordings made while this runs may or may not count.
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Not atomic with concurrent recording: a value recorded meanwhile may be partly kept
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return LINEAR + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR) / HALF + 1;
+        long top = (bucket - LINEAR) % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public static final class Timing implements AutoCloseable {
+        private final LatencyHistogram histogram;
+        private final long startNanos;
+
+        private Timing(LatencyHistogram histogram, long startNanos) {
+            this.histogram = histogram;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            histogram.recordSince(startNanos);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide operation metrics: a latency histogram per timed operation and plain counters.
+// Classes look their metrics up once into static fields, so recording never touches the maps.
+// Shown by the "stats" menu command and dumped periodically by MetricsReporter.
+public class Metrics {
+    private static final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static volatile LocalDateTime since = LocalDateTime.now();
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private Metrics() {
+    }
+
+    public static LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    // Latencies in milliseconds; operations that have not run yet are left out
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("Metrics since ").append(since.format(TIME_FMT)).append(" (latency in ms)\n");
+        out.append(String.format(Locale.ROOT, "%-34s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(timers).entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            if (h.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%-34s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", entry.getKey(), h.getCount(),
+                    h.getMeanNanos() / 1e6, h.getPercentileNanos(50) / 1e6, h.getPercentileNanos(90) / 1e6,
+                    h.getPercentileNanos(99) / 1e6, h.getMaxNanos() / 1e6));
+        }
+        out.append(String.format(Locale.ROOT, "%-34s %9s%n", "counter", "value"));
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(String.format(Locale.ROOT, "%-34s %9d%n", entry.getKey(), entry.getValue().sum()));
+        }
+        return out.toString();
+    }
+
+    // Starts every metric from zero, e.g. between tests; recordings made meanwhile may be lost
+    public static void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+        since = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,64 @@
+package util;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically overwrites a file with the current Metrics report on a background thread, so
+// recent numbers are at hand even when nobody can reach the stats menu. The report is written
+// to a temporary file first and moved into place, so readers never see half a report.
+public class MetricsReporter {
+    private final File file;
+    private final ScheduledExecutorService executor;
+
+    public MetricsReporter(File file) {
+        this.file = file;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long intervalSeconds) {
+        executor.scheduleWithFixedDelay(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Stops the schedule and writes a final report
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        dump();
+    }
+
+    public void dump() {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(temp))) {
+                pw.print(Metrics.report());
+                if (pw.checkError()) {
+                    throw new IOException("write to " + temp.getPath() + " failed");
+                }
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+            temp.delete();
+        }
+    }
+}
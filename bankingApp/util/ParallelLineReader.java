@@ -0,0 +1,114 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// Splits a text file into chunks that end on line breaks and parses them in parallel, one
+// window of chunks at a time. Results are handed to the consumer in file order, one per line,
+// so callers can merge them sequentially with exact line numbers. Only the current window is
+// held in memory, so memory stays bounded by the window and not by the file size.
+public final class ParallelLineReader {
+    // Chunks are decoded whole; a chunk only runs past this to finish its last line
+    private static final long MIN_CHUNK_BYTES = 256 << 10;
+    private static final long MAX_CHUNK_BYTES = 4 << 20;
+    // Read size when looking for the line break that ends a chunk
+    private static final int SCAN_BYTES = 4096;
+
+    private ParallelLineReader() {
+    }
+
+    public static <R> void parseLines(File file, Function<String, R> parser, Consumer<? super R> consumer) throws IOException {
+        int window = Runtime.getRuntime().availableProcessors();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Small files still get a few chunks per thread; large ones stay at MAX_CHUNK_BYTES
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (window * 4L)));
+            long position = 0;
+            while (position < size) {
+                List<long[]> chunks = new ArrayList<>(window);
+                while (chunks.size() < window && position < size) {
+                    long end = endOfLine(channel, Math.min(position + chunkBytes, size), size);
+                    chunks.add(new long[] {position, end});
+                    position = end;
+                }
+
+                // Each task writes only its own slot; the stream's completion publishes them
+                List<List<R>> parsed = new ArrayList<>(java.util.Collections.nCopies(chunks.size(), null));
+                IOException[] failures = new IOException[chunks.size()];
+                IntStream range = IntStream.range(0, chunks.size());
+                (chunks.size() > 1 ? range.parallel() : range).forEach(i -> {
+                    try {
+                        parsed.set(i, parseChunk(channel, chunks.get(i)[0], chunks.get(i)[1], parser));
+                    } catch (IOException e) {
+                        failures[i] = e;
+                    }
+                });
+                for (IOException failure : failures) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                }
+
+                for (List<R> part : parsed) {
+                    part.forEach(consumer);
+                }
+            }
+        }
+    }
+
+    // Position just past the first '\n' at or after position, or size when there is none
+    private static long endOfLine(FileChannel channel, long position, long size) throws IOException {
+        if (position > 0 && position < size) {
+            ByteBuffer previous = ByteBuffer.allocate(1);
+            channel.read(previous, position - 1);
+            if (previous.get(0) == '\n') {
+                return position;  // Already on a line boundary
+            }
+        }
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BYTES);
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static <R> List<R> parseChunk(FileChannel channel, long start, long end, Function<String, R> parser) throws IOException {
+        List<R> results = new ArrayList<>();
+        if (end <= start) {
+            return results;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        String text = StandardCharsets.UTF_8.decode(buffer).toString();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            results.add(parser.apply(text.substring(lineStart, contentEnd)));
+            lineStart = lineEnd + 1;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,106 @@
+package util;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2-HMAC-SHA256 password hashes, stored as pbkdf2-sha256$<iterations>$<salt>$<hash>
+// with Base64 salt and hash, so the string fits a users.csv field. The iteration count is the
+// work factor: each one costs a fixed slice of CPU per login, so raise it as hardware gets faster
+// (size it with benchmark.PasswordHashBenchmark). Hashes carry their own count, so changing it
+// never breaks existing logins; needsRehash tells when a hash should be upgraded.
+public class PasswordHasher {
+    public static final int DEFAULT_ITERATIONS = 310_000;
+    public static final int MIN_ITERATIONS = 1_000;
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("Iterations must be at least " + MIN_ITERATIONS + ", got " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    // Selected with -DbankingApp.passwordIterations=<count>; unset or invalid means DEFAULT_ITERATIONS
+    public static PasswordHasher fromSystemProperty() {
+        String value = System.getProperty("bankingApp.passwordIterations");
+        if (value != null) {
+            try {
+                return new PasswordHasher(Integer.parseInt(value.trim()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: Ignoring bankingApp.passwordIterations '" + value + "': " + e.getMessage());
+            }
+        }
+        return new PasswordHasher(DEFAULT_ITERATIONS);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    // False for a wrong password and for anything that is not a well-formed hash
+    public boolean verify(String password, String stored) {
+        String[] parts = split(stored);
+        if (parts == null) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            if (storedIterations < 1 || salt.length == 0 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations));  // Constant time
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // True when the hash was made with a different work factor than this hasher's
+    public boolean needsRehash(String stored) {
+        String[] parts = split(stored);
+        return parts == null || !parts[0].equals(Integer.toString(iterations));
+    }
+
+    // Tells a stored hash from a legacy encrypted password
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // Iterations, salt and hash; null when malformed
+    private static String[] split(String stored) {
+        if (!isHash(stored)) {
+            return null;
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$", -1);
+        return parts.length == 3 ? parts : null;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);  // Every Java 8+ runtime has it
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
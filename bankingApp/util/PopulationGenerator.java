@@ -0,0 +1,198 @@
+package util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.UUID;
+import model.Fund;
+
+// Writes a synthetic database of users and transaction history in the DataStore CSV format,
+// for load and soak testing. Output depends only on the arguments and seed. Transactions are
+// written as they are generated and only per-user balances are kept, so memory grows with
+// the user count, not the history. Run from the bankingApp directory:
+//   java -cp build util.PopulationGenerator <directory> <users> <transactions> [seed]
+//
+// Every user starts with the usual 10000.00 cash. Each transaction is one of:
+//   deposit   external money in (sender null)
+//   transfer  cash between two generated users
+//   invest    cash moved into the investment account, described with the fund it went to
+//   withdraw  cash out (receiver null)
+// The CSV format only stores each user's investment total, so per-fund holdings are not kept.
+public class PopulationGenerator {
+    private static final long START_CASH = 1_000_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final long SPAN_SECONDS = 365L * 24 * 3600;
+    private static final String[] FIRST_NAMES = {"Anna", "Mart", "Liis", "Jaan", "Kati", "Peeter", "Maria", "Andres",
+            "Laura", "Toomas", "Eva", "Karl", "Hanna", "Rasmus", "Mari", "Oliver"};
+    private static final String[] LAST_NAMES = {"Tamm", "Saar", "Sepp", "Magi", "Kask", "Kukk", "Rebane", "Ilves",
+            "Parn", "Koppel", "Lepik", "Oja", "Vaher", "Mets", "Kuusk", "Luik"};
+    private static final Fund[] FUNDS = Fund.values();
+
+    private final int userCount;
+    private final long transactionCount;
+    private final long seed;
+
+    public PopulationGenerator(int userCount, long transactionCount, long seed) {
+        if (userCount < 2 || userCount > IbanGenerator.ACCOUNT_NUMBERS) {
+            throw new IllegalArgumentException("users must be between 2 and " + IbanGenerator.ACCOUNT_NUMBERS);
+        }
+        if (transactionCount < 0) {
+            throw new IllegalArgumentException("transactions cannot be negative");
+        }
+        this.userCount = userCount;
+        this.transactionCount = transactionCount;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: PopulationGenerator <directory> <users> <transactions> [seed]");
+            System.exit(1);
+        }
+        try {
+            PopulationGenerator generator = new PopulationGenerator(Integer.parseInt(args[1]), Long.parseLong(args[2]),
+                    args.length > 3 ? Long.parseLong(args[3]) : 1);
+            long start = System.nanoTime();
+            generator.generate(new File(args[0]));
+            System.out.printf("Generated %d users and %d transactions in %.1f s.%n", generator.userCount, generator.transactionCount,
+                    (System.nanoTime() - start) / 1e9);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error generating population: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Refuses to overwrite an existing database
+    public void generate(File directory) throws IOException {
+        File usersFile = new File(directory, "users.csv");
+        File transactionsFile = new File(directory, "transactions.csv");
+        if (usersFile.exists() || transactionsFile.exists()) {
+            throw new IOException(directory.getPath() + " already contains a database");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("could not create " + directory.getPath());
+        }
+
+        Random random = new Random(seed);
+        String[] usernames = new String[userCount];
+        String[] names = new String[userCount];
+        String[] ibans = new String[userCount];
+        long[] cash = new long[userCount];
+        long[] investment = new long[userCount];
+        // Account numbers i * stride + offset (mod 10^6) are distinct while the stride shares no factor with 10^6
+        int stride = 1 + 2 * random.nextInt(IbanGenerator.ACCOUNT_NUMBERS / 2);
+        while (stride % 5 == 0) {
+            stride += 2;
+        }
+        int offset = random.nextInt(IbanGenerator.ACCOUNT_NUMBERS);
+        for (int i = 0; i < userCount; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            usernames[i] = first.toLowerCase() + "." + last.toLowerCase() + i;
+            names[i] = first + "," + last;
+            ibans[i] = IbanGenerator.ibanFor((int) ((offset + (long) i * stride) % IbanGenerator.ACCOUNT_NUMBERS));
+            cash[i] = START_CASH;
+        }
+
+        long epoch = START.toEpochSecond(ZoneOffset.UTC);
+        long meanGap = Math.max(1, SPAN_SECONDS / Math.max(1, transactionCount));
+        StringBuilder row = new StringBuilder(160);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(transactionsFile), StandardCharsets.UTF_8), 1 << 16)) {
+            for (long t = 0; t < transactionCount; t++) {
+                epoch += random.nextInt((int) Math.min(Integer.MAX_VALUE, 2 * meanGap + 1));
+                String id = new UUID(random.nextLong(), random.nextLong()).toString();
+                int user = random.nextInt(userCount);
+                int kind = random.nextInt(100);
+                row.setLength(0);
+
+                if (kind < 35 || cash[user] < 100) {
+                    long amount = amount(random, 1_000, 200_000);
+                    cash[user] += amount;
+                    appendRow(row, id, epoch, amount, "Salary", "null", usernames[user], 0, cash[user]);
+                } else if (kind < 85) {
+                    int recipient = random.nextInt(userCount - 1);
+                    if (recipient >= user) {
+                        recipient++;
+                    }
+                    long amount = Math.min(cash[user], amount(random, 100, 50_000));
+                    cash[user] -= amount;
+                    cash[recipient] += amount;
+                    appendRow(row, id, epoch, amount, "Sent to " + names[recipient].replace(',', ' '), usernames[user], usernames[recipient], cash[user], cash[recipient]);
+                } else if (kind < 95) {
+                    long amount = Math.min(cash[user], amount(random, 1_000, 100_000));
+                    cash[user] -= amount;
+                    investment[user] += amount;
+                    appendRow(row, id, epoch, amount, "Invested in " + FUNDS[random.nextInt(FUNDS.length)] + " fund", usernames[user], "null", cash[user], 0);
+                } else {
+                    long amount = Math.min(cash[user], amount(random, 100, 20_000));
+                    cash[user] -= amount;
+                    appendRow(row, id, epoch, amount, "ATM withdrawal", usernames[user], "null", cash[user], 0);
+                }
+                out.append(row);
+            }
+        }
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(usersFile), StandardCharsets.UTF_8), 1 << 16)) {
+            for (int i = 0; i < userCount; i++) {
+                // username,encrypted_password,firstName,lastName,cash,savings,investment,lastLogin,hasFraudWarning,isFrozen,iban,recentRecipients
+                row.setLength(0);
+                row.append(usernames[i]).append(',').append(SecurityUtils.encrypt("password" + i)).append(',')
+                        .append(names[i]).append(',');
+                appendCents(row, cash[i]);
+                row.append(",0.00,");
+                appendCents(row, investment[i]);
+                row.append(",null,false,false,").append(ibans[i]).append(",\n");
+                out.append(row);
+            }
+        }
+    }
+
+    // Skewed towards small amounts, as real payments are: the smaller of two uniform draws
+    private static long amount(Random random, long min, long max) {
+        long span = max - min;
+        return min + Math.min((long) (random.nextDouble() * span), (long) (random.nextDouble() * span));
+    }
+
+    // id,timestamp,amount,desc,sender,receiver,senderBal,receiverBal
+    private static void appendRow(StringBuilder row, String id, long epochSecond, long amount, String description,
+                                  String sender, String receiver, long senderBalance, long receiverBalance) {
+        row.append(id).append(',');
+        appendTimestamp(row, LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        row.append(',');
+        appendCents(row, amount);
+        row.append(',').append(description).append(',').append(sender).append(',').append(receiver).append(',');
+        appendCents(row, senderBalance);
+        row.append(',');
+        appendCents(row, receiverBalance);
+        row.append('\n');
+    }
+
+    // yyyy-MM-dd HH:mm:ss without going through DateTimeFormatter for every row
+    private static void appendTimestamp(StringBuilder row, LocalDateTime time) {
+        row.append(time.getYear()).append('-');
+        appendTwoDigits(row, time.getMonthValue());
+        row.append('-');
+        appendTwoDigits(row, time.getDayOfMonth());
+        row.append(' ');
+        appendTwoDigits(row, time.getHour());
+        row.append(':');
+        appendTwoDigits(row, time.getMinute());
+        row.append(':');
+        appendTwoDigits(row, time.getSecond());
+    }
+
+    private static void appendTwoDigits(StringBuilder row, int value) {
+        if (value < 10) {
+            row.append('0');
+        }
+        row.append(value);
+    }
+
+    // Same text as BigDecimal.valueOf(cents, 2).toString() for the non-negative amounts written here
+    private static void appendCents(StringBuilder row, long cents) {
+        row.append(cents / 100).append('.');
+        appendTwoDigits(row, (int) (cents % 100));
+    }
+}
@@ -0,0 +1,55 @@
+package util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// Routes System.out per thread, so the menu code can keep printing to System.out while each
+// server session's output goes to its own connection. Threads without a bound stream write
+// to the original console.
+public final class SessionOutput {
+    private static final ThreadLocal<PrintStream> CURRENT = new ThreadLocal<>();
+    private static PrintStream console;
+
+    private SessionOutput() {
+    }
+
+    // Replaces System.out with the routing stream; safe to call more than once
+    public static synchronized void install() {
+        if (console != null) {
+            return;
+        }
+        console = System.out;
+        PrintStream fallback = console;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                target(fallback).write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                target(fallback).write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                target(fallback).flush();
+            }
+        }, true));
+    }
+
+    // Sends this thread's System.out to out until unbind()
+    public static void bind(PrintStream out) {
+        CURRENT.set(out);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    private static PrintStream target(PrintStream fallback) {
+        PrintStream out = CURRENT.get();
+        return out != null ? out : fallback;
+    }
+}
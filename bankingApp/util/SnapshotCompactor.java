@@ -0,0 +1,57 @@
+package util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically folds the DataStore journal into a fresh CSV snapshot on a background thread,
+// keeping both the journal and the startup replay short without slowing down menu actions.
+public class SnapshotCompactor {
+    private final DataStore dataStore;
+    private final long minJournalBytes;
+    private final ScheduledExecutorService executor;
+
+    public SnapshotCompactor(DataStore dataStore, long minJournalBytes) {
+        this.dataStore = dataStore;
+        this.minJournalBytes = minJournalBytes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long intervalSeconds) {
+        executor.scheduleWithFixedDelay(() -> {
+            if (dataStore.getJournalSize() >= minJournalBytes) {
+                runCompaction();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Compacts regardless of journal size
+    public Future<?> compactNow() {
+        return executor.submit(this::runCompaction);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runCompaction() {
+        try {
+            dataStore.compact();
+        } catch (Exception e) {
+            System.err.println("Error compacting database: " + e.getMessage());
+        }
+    }
+}
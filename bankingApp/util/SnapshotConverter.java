@@ -0,0 +1,47 @@
+package util;
+
+import java.io.File;
+import java.util.Map;
+import model.User;
+
+// Converts a database directory between the CSV and binary snapshot formats, folding any
+// journal into the result. Run from the bankingApp directory:
+//   java -cp build util.SnapshotConverter database binary
+//   java -cp build util.SnapshotConverter database csv
+public class SnapshotConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 2 || !(args[1].equalsIgnoreCase("csv") || args[1].equalsIgnoreCase("binary"))) {
+            System.err.println("Usage: SnapshotConverter <databaseDirectory> csv|binary");
+            System.exit(1);
+        }
+        SnapshotFormat target = args[1].equalsIgnoreCase("binary") ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+        int converted = convert(args[0], target);
+        if (converted < 0) {
+            System.exit(1);
+        }
+        System.out.println("Converted " + converted + " users to " + target + ".");
+    }
+
+    // Returns the number of users written, or -1 if the source could not be read or the target
+    // snapshot could not be written
+    public static int convert(String databaseDirectory, SnapshotFormat target) {
+        SnapshotFormat source = target == SnapshotFormat.BINARY ? SnapshotFormat.CSV : SnapshotFormat.BINARY;
+        DataStore sourceStore = new DataStore(databaseDirectory, true, source);
+        Map<String, User> users = sourceStore.loadData(false);
+        if (sourceStore.isSnapshotUnreadable()) {
+            System.err.println("Error: " + DataStore.BINARY_SNAPSHOT + " in " + databaseDirectory + " could not be read; nothing was converted.");
+            return -1;
+        }
+
+        if (!new DataStore(databaseDirectory, true, target).saveData(users)) {
+            return -1;
+        }
+        // Binary stores prefer snapshot.bin, so a stale one would shadow the new CSV files
+        File binary = new File(databaseDirectory, DataStore.BINARY_SNAPSHOT);
+        if (target == SnapshotFormat.CSV && binary.exists() && !binary.delete()) {
+            System.err.println("Warning: Could not remove " + binary.getPath());
+        }
+        return users.size();
+    }
+}
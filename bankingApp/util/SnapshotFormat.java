@@ -0,0 +1,15 @@
+package util;
+
+// On-disk layout of the DataStore snapshot.
+// CSV writes users.csv and transactions.csv, human-readable but parsed line by line on startup.
+// BINARY writes snapshot.bin (see BinarySnapshot), memory-mapped on startup. A BINARY store
+// without snapshot.bin falls back to the CSV files, so existing databases keep loading.
+public enum SnapshotFormat {
+    CSV,
+    BINARY;
+
+    // Selected with -DbankingApp.snapshot=binary; anything else means CSV
+    public static SnapshotFormat fromSystemProperty() {
+        return "binary".equalsIgnoreCase(System.getProperty("bankingApp.snapshot", "csv").trim()) ? BINARY : CSV;
+    }
+}
@@ -0,0 +1,54 @@
+package util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Length-prefixed UTF-8 strings addressed by their offset in the heap, as used by the binary
+// snapshot and the columnar history store. Values added with dedupe share one copy.
+final class StringHeap {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final Map<String, Integer> shared = new HashMap<>();
+
+    int add(String value, boolean dedupe) {
+        String text = value == null ? "" : value;
+        if (dedupe) {
+            Integer known = shared.get(text);
+            if (known != null) {
+                return known;
+            }
+        }
+        int offset = bytes.size();
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        bytes.write(ByteBuffer.allocate(4).putInt(encoded.length).array(), 0, 4);
+        bytes.write(encoded, 0, encoded.length);
+        if (dedupe) {
+            shared.put(text, offset);
+        }
+        return offset;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        bytes.writeTo(out);
+    }
+
+    // Reads the string at offset in a heap that starts at heapOffset in buffer. Offsets and
+    // lengths come from the file, so both are checked before anything is allocated.
+    static String read(ByteBuffer buffer, long heapOffset, int offset) {
+        long start = heapOffset + offset;
+        if (start < heapOffset || start > buffer.capacity() - 4L) {
+            throw new IllegalStateException("string offset " + offset + " lies outside the heap");
+        }
+        int length = buffer.getInt((int) start);
+        if (length < 0 || length > buffer.capacity() - start - 4) {
+            throw new IllegalStateException("string of " + length + " bytes runs past the end of the file");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get((int) start + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
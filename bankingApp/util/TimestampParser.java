@@ -0,0 +1,39 @@
+package util;
+
+import java.time.LocalDateTime;
+
+// Fixed-format parser for "yyyy-MM-dd HH:mm:ss", the only timestamp layout the database writes.
+// Reads the digits directly instead of going through DateTimeFormatter, which dominates
+// load time on large transaction files.
+public final class TimestampParser {
+    private TimestampParser() {
+    }
+
+    public static LocalDateTime parse(CharSequence text) {
+        if (text.length() != 19
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new IllegalArgumentException("Expected yyyy-MM-dd HH:mm:ss but got '" + text + "'");
+        }
+        // LocalDateTime.of rejects out-of-range fields such as month 13 or Feb 30
+        return LocalDateTime.of(
+                digits(text, 0, 4),
+                digits(text, 5, 2),
+                digits(text, 8, 2),
+                digits(text, 11, 2),
+                digits(text, 14, 2),
+                digits(text, 17, 2));
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid digit '" + c + "' in '" + text + "'");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
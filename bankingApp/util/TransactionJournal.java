@@ -0,0 +1,174 @@
+package util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log. Each entry is a group of records written with one write call and
+// forced to disk before append returns. Every record line is framed as
+//   =<crc32 hex>,<index>/<count>,<record>
+// where the CRC covers "<index>/<count>,<record>", so a cut or damaged line is detected, and an
+// entry only counts once all of its count records are intact. A crash can at most leave one
+// incomplete entry at the end of the file; it is cut off before the next append so new entries
+// never land on a torn line. Unframed lines from older journals are read as one-record entries.
+public class TransactionJournal {
+    private static final char FRAME = '=';
+    private final File file;
+    // Set once the tail has been checked, so only the first append of a process scans the file
+    private boolean tailChecked;
+
+    public TransactionJournal(String path) {
+        this.file = new File(path);
+    }
+
+    public boolean exists() {
+        return file.exists() && file.length() > 0;
+    }
+
+    public synchronized void append(List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!tailChecked) {
+            readRecords();  // Cuts off an incomplete entry left by a crash
+        }
+        StringBuilder entry = new StringBuilder();
+        for (int i = 0; i < records.size(); i++) {
+            entry.append(frame(records.get(i), i, records.size())).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(entry.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Records of every complete entry in file order. Damaged entries inside the file are skipped
+    // with an error; an incomplete entry at the end is truncated away.
+    public synchronized List<String> readRecords() throws IOException {
+        List<String> records = new ArrayList<>();
+        tailChecked = true;
+        if (!file.exists()) {
+            return records;
+        }
+        byte[] data = Files.readAllBytes(file.toPath());
+        List<String> pending = new ArrayList<>();
+        int pendingCount = 0;
+        int committedEnd = 0;  // Byte offset just past the last complete entry
+        int lineNumber = 0;
+        int start = 0;
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            if (end == data.length) {
+                break;  // Every line is written with its line break, so this one is torn
+            }
+            lineNumber++;
+            int length = end - start;
+            if (length > 0 && data[end - 1] == '\r') {
+                length--;
+            }
+            String line = new String(data, start, length, StandardCharsets.UTF_8);
+            start = end + 1;
+
+            if (line.isEmpty() || line.charAt(0) != FRAME) {
+                discardPending(pending, lineNumber);
+                pendingCount = 0;
+                if (!line.isEmpty()) {
+                    records.add(line);  // Unframed record from an older journal
+                }
+                committedEnd = start;
+                continue;
+            }
+
+            // =crc,index/count,record
+            int crcEnd = line.indexOf(',');
+            int positionEnd = crcEnd < 0 ? -1 : line.indexOf(',', crcEnd + 1);
+            int slash = positionEnd < 0 ? -1 : line.indexOf('/', crcEnd + 1);
+            if (crcEnd != 9 || slash < 0 || slash > positionEnd || !line.substring(1, 9).equals(checksum(line.substring(10)))) {
+                System.err.println("Error at journal line " + lineNumber + ": Checksum mismatch. Skipping entry.");
+                pending.clear();
+                pendingCount = -1;  // Skip the rest of this entry up to the next first record
+                continue;
+            }
+            int index = Integer.parseInt(line.substring(crcEnd + 1, slash));
+            int count = Integer.parseInt(line.substring(slash + 1, positionEnd));
+            if (index == 0) {
+                discardPending(pending, lineNumber);
+                pendingCount = count;
+            } else if (pendingCount < 0) {
+                continue;
+            } else if (index != pending.size() || count != pendingCount) {
+                System.err.println("Error at journal line " + lineNumber + ": Record " + index + "/" + count + " out of sequence. Skipping entry.");
+                pending.clear();
+                pendingCount = -1;
+                continue;
+            }
+            pending.add(line.substring(positionEnd + 1));
+            if (pending.size() == pendingCount) {
+                records.addAll(pending);
+                pending.clear();
+                pendingCount = 0;
+                committedEnd = start;
+            }
+        }
+
+        if (committedEnd < data.length) {
+            System.err.println("Warning: Discarding " + (data.length - committedEnd) + " bytes of incomplete entry at the end of journal " + file.getPath());
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(committedEnd);
+                channel.force(false);
+            }
+        }
+        return records;
+    }
+
+    // An entry interrupted by the start of another one was never committed
+    private static void discardPending(List<String> pending, int lineNumber) {
+        if (!pending.isEmpty()) {
+            System.err.println("Error at journal line " + lineNumber + ": Previous entry is incomplete. Skipping entry.");
+            pending.clear();
+        }
+    }
+
+    static String frame(String record, int index, int count) {
+        String body = index + "/" + count + "," + record;
+        return FRAME + checksum(body) + "," + body;
+    }
+
+    private static String checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        String hex = Long.toHexString(crc.getValue());
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    public long size() {
+        return file.length();
+    }
+
+    // Atomically renames the current log to target; later appends start a fresh file
+    public synchronized void rotateTo(TransactionJournal target) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        Files.move(file.toPath(), target.file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public synchronized void clear() {
+        if (file.exists() && !file.delete()) {
+            System.err.println("Warning: Could not clear journal " + file.getPath());
+        }
+    }
+}